@@ -0,0 +1,127 @@
+package org.example;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Пишет события лога в консоль из отдельного потока. Вызывающий поток подставляет аргументы
+// (потом они могут измениться) и кладёт готовое сообщение в кольцевой буфер; при переполнении
+// событие отбрасывается и учитывается в счётчике. Без сообщений поток записи спит в park()
+// и не просыпается, пока append() его не разбудит.
+final class AsyncAppender {
+    private static final int CAPACITY = 8192;
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final LogRingBuffer<Event> buffer = new LogRingBuffer<>(CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong droppedTotal = new AtomicLong();
+    private static final Thread writer;
+    // true, пока поток записи готовится уснуть или спит: только тогда append() зовёт unpark
+    private static volatile boolean writerParked;
+
+    private static final class Event {
+        final Log.Level level;
+        final String logger;
+        final String thread;
+        final long timestamp;
+        final String message;
+        final Throwable error;
+
+        Event(Log.Level level, String logger, String message, Throwable error) {
+            this.level = level;
+            this.logger = logger;
+            this.thread = Thread.currentThread().getName();
+            this.timestamp = System.currentTimeMillis();
+            this.message = message;
+            this.error = error;
+        }
+    }
+
+    static {
+        writer = new Thread(AsyncAppender::run, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncAppender::flush, "log-flush"));
+    }
+
+    private AsyncAppender() {
+    }
+
+    static void append(Log.Level level, String logger, String message, Object[] args, Throwable error) {
+        if (!buffer.offer(new Event(level, logger, Log.format(message, args), error))) {
+            dropped.incrementAndGet();
+            droppedTotal.incrementAndGet();
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    static long getDroppedCount() {
+        return droppedTotal.get();
+    }
+
+    private static void run() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            if (drain(line)) {
+                continue;
+            }
+            // Флаг ставится до повторной проверки: событие, добавленное после неё,
+            // увидит флаг и разбудит поток, а разрешение unpark не теряется до park()
+            writerParked = true;
+            if (!drain(line)) {
+                LockSupport.park();
+            }
+            writerParked = false;
+        }
+    }
+
+    // Вызывается потоком записи и хуком завершения; synchronized - чтобы у буфера был один читатель
+    private static synchronized boolean drain(StringBuilder line) {
+        boolean wroteAny = false;
+        boolean wroteOut = false;
+        boolean wroteErr = false;
+        Event event;
+        while ((event = buffer.poll()) != null) {
+            PrintStream stream = event.level.compareTo(Log.Level.WARN) >= 0 ? System.err : System.out;
+            line.setLength(0);
+            line.append(TIME_FORMATTER.format(Instant.ofEpochMilli(event.timestamp)))
+                    .append(' ').append(String.format("%-5s", event.level))
+                    .append(" [").append(event.thread).append("] ")
+                    .append(event.logger).append(" - ")
+                    .append(event.message);
+            if (event.error != null) {
+                StringWriter trace = new StringWriter();
+                event.error.printStackTrace(new PrintWriter(trace));
+                line.append(System.lineSeparator()).append(trace);
+            }
+            stream.println(line);
+            wroteAny = true;
+            wroteOut |= stream == System.out;
+            wroteErr |= stream == System.err;
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            System.err.println("Лог: отброшено сообщений из-за переполнения буфера: " + lost);
+        }
+        if (wroteOut) {
+            System.out.flush();
+        }
+        if (wroteErr) {
+            System.err.flush();
+        }
+        return wroteAny;
+    }
+
+    static void flush() {
+        drain(new StringBuilder(256));
+    }
+}
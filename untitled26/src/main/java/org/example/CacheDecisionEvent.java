@@ -0,0 +1,45 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: решение кэша TaskService (попадание, промах, синхронизация, инвалидация)
+@Name("org.example.CacheDecision")
+@Label("Cache Decision")
+@Category({"Task Manager", "Cache"})
+@StackTrace(false)
+public class CacheDecisionEvent extends Event {
+    static final String HIT = "HIT";
+    static final String MISS = "MISS";
+    static final String REFRESH = "REFRESH";
+    static final String INVALIDATE = "INVALIDATE";
+
+    @Label("Cache")
+    @Description("summaries, task или description")
+    String cache;
+
+    @Label("Decision")
+    String decision;
+
+    @Label("Task Id")
+    long taskId;
+
+    @Label("Entries")
+    @Description("Размер кэша после решения")
+    int entries;
+
+    static void commit(String cache, String decision, long taskId, int entries) {
+        CacheDecisionEvent event = new CacheDecisionEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.decision = decision;
+            event.taskId = taskId;
+            event.entries = entries;
+            event.commit();
+        }
+    }
+}
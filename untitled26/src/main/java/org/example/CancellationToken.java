@@ -0,0 +1,78 @@
+package org.example;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Отмена чтения, которое стало ненужным. Токен привязывается к потоку через callWith;
+// JdbcTaskDao регистрирует в нём выполняемые запросы, а cancel() прерывает их через
+// Statement.cancel, так что соединение сразу возвращается в пул.
+public class CancellationToken {
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+    // Для потоков без токена: никогда не отменяется
+    static final CancellationToken NONE = new CancellationToken();
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public static CancellationToken current() {
+        CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    public static <T> T callWith(CancellationToken token, Supplier<T> action) {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(token);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public void cancel() {
+        if (this == NONE || cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Statement statement : statements) {
+            cancelStatement(statement);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Флаг проверяется после добавления, поэтому cancel() не пропустит запрос, начатый одновременно с ним
+    void register(Statement statement, String method) {
+        if (this == NONE) {
+            return;
+        }
+        statements.add(statement);
+        if (cancelled) {
+            statements.remove(statement);
+            throw new QueryCancelledException(method, false, null);
+        }
+    }
+
+    void unregister(Statement statement) {
+        if (this != NONE) {
+            statements.remove(statement);
+        }
+    }
+
+    static void cancelStatement(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // Запрос уже завершился и закрыт
+        }
+    }
+}
@@ -3,23 +3,54 @@ package org.example;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
-public class ConnectionPool {
+public class ConnectionPool implements ConnectionPoolMXBean {
+    private static final Log log = Log.get(ConnectionPool.class);
     private static ConnectionPool instance;
     private final BlockingQueue<Connection> availableConnections;
     private final String url;
-    private final int maxPoolSize;
-    private int createdConnections = 0;
+    private final SqlDialect dialect;
+    private volatile int maxPoolSize;
+    private final AtomicInteger createdConnections = new AtomicInteger();
+    private static final long CHECKOUT_TIMEOUT_SECONDS = 8;
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    // Настройки SQLite меняются на лету: у каждого соединения запоминается версия
+    // применённых настроек, устаревшие догоняются при выдаче из пула
+    private volatile SqliteSettings settings = SqliteSettings.DEFAULT;
+    private final AtomicInteger settingsVersion = new AtomicInteger();
+    private final Map<Connection, Integer> appliedSettingsVersions = new ConcurrentHashMap<>();
+
+    // Соединение транзакции, открытой на этом потоке (TaskService.inTransaction):
+    // все DAO потока получают его, а возвращается в пул оно только в unpin
+    private final ThreadLocal<Connection> pinned = new ThreadLocal<>();
 
     ConnectionPool() {
-        this.url = "jdbc:sqlite:database/tasks.db";
-        this.maxPoolSize = 3;
-        this.availableConnections = new ArrayBlockingQueue<>(maxPoolSize);
+        this("jdbc:sqlite:database/tasks.db", 3);
+    }
+
+    ConnectionPool(String url, int maxPoolSize) {
+        this(url, maxPoolSize, SqlDialect.forUrl(url));
+    }
+
+    ConnectionPool(String url, int maxPoolSize, SqlDialect dialect) {
+        this.url = url;
+        this.dialect = dialect;
+        this.maxPoolSize = maxPoolSize;
+        this.availableConnections = new LinkedBlockingQueue<>();
 
         initializeDatabaseDirectory();
         loadDriver();
@@ -33,67 +64,173 @@ public class ConnectionPool {
     }
 
     private void initializeDatabaseDirectory() {
+        java.nio.file.Path file = dialect.getDatabaseFile(url);
+        if (file == null) {
+            return;
+        }
+
         try {
-            java.nio.file.Path dbPath = java.nio.file.Paths.get("database");
-            if (!java.nio.file.Files.exists(dbPath)) {
+            java.nio.file.Path dbPath = file.toAbsolutePath().getParent();
+            if (dbPath != null && !java.nio.file.Files.exists(dbPath)) {
                 java.nio.file.Files.createDirectories(dbPath);
             }
         } catch (Exception e) {
-            System.err.println("Ошибка создания директории database: " + e.getMessage());
+            log.error("Ошибка создания директории database: {}", e.getMessage());
         }
     }
 
     private void loadDriver() {
         try {
-            Class.forName("org.sqlite.JDBC");
+            Class.forName(dialect.getDriverClassName());
         } catch (ClassNotFoundException e) {
-            throw new RuntimeException("SQLite JDBC driver not found", e);
+            throw new RuntimeException("JDBC driver not found: " + dialect.getDriverClassName(), e);
         }
     }
 
     public Connection getConnection() throws SQLException {
+        Connection pinnedConnection = pinned.get();
+        if (pinnedConnection != null) {
+            return pinnedConnection;
+        }
+        checkouts.increment();
+        PoolCheckoutEvent event = new PoolCheckoutEvent();
+        event.begin();
         try {
-            Connection conn = availableConnections.poll(3, TimeUnit.SECONDS);
+            Connection conn = availableConnections.poll();
             if (conn != null && isValidConnection(conn)) {
-                return conn;
+                return withCurrentSettings(conn);
             }
+            discardConnection(conn);
 
-            if (createdConnections < maxPoolSize) {
-                Connection newConn = createNewConnection();
-                createdConnections++;
-                System.out.println("Создано соединение " + createdConnections + "/" + maxPoolSize);
+            // Новое соединение открываем сразу, не дожидаясь возврата занятых
+            Connection newConn = tryCreateConnection();
+            if (newConn != null) {
+                event.newConnection = true;
                 return newConn;
             }
 
-            conn = availableConnections.poll(5, TimeUnit.SECONDS);
+            waits.increment();
+            event.waited = true;
+            long waitStarted = System.nanoTime();
+            conn = availableConnections.poll(CHECKOUT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            waitNanos.add(System.nanoTime() - waitStarted);
             if (conn != null && isValidConnection(conn)) {
-                return conn;
+                return withCurrentSettings(conn);
             }
+            discardConnection(conn);
 
+            timeouts.increment();
+            event.timedOut = true;
             throw new SQLException("Не удалось получить соединение. Таймаут.");
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new SQLException("Поток прерван", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.openConnections = createdConnections.get();
+                event.commit();
+            }
+        }
+    }
+
+    // Открывает соединения заранее, чтобы первые запросы не платили за их создание
+    public void warmUp(int connections) {
+        int target = Math.min(connections, maxPoolSize);
+        for (int i = 0; i < target; i++) {
+            try {
+                Connection conn = tryCreateConnection();
+                if (conn == null) {
+                    return;
+                }
+                releaseConnection(conn);
+            } catch (SQLException e) {
+                log.error("Ошибка прогрева пула: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private Connection tryCreateConnection() throws SQLException {
+        int created = createdConnections.get();
+        while (created < maxPoolSize) {
+            if (createdConnections.compareAndSet(created, created + 1)) {
+                try {
+                    Connection newConn = createNewConnection();
+                    log.debug("Создано соединение {}/{}", created + 1, maxPoolSize);
+                    return newConn;
+                } catch (SQLException e) {
+                    createdConnections.decrementAndGet();
+                    throw e;
+                }
+            }
+            created = createdConnections.get();
+        }
+        return null;
+    }
+
+    private void discardConnection(Connection conn) {
+        if (conn != null) {
+            closeConnection(conn);
+            createdConnections.decrementAndGet();
         }
     }
 
     private Connection createNewConnection() throws SQLException {
         Connection connection = DriverManager.getConnection(url);
 
-        try (var stmt = connection.createStatement()) {
-            stmt.execute("PRAGMA foreign_keys = ON");
-            stmt.execute("PRAGMA journal_mode = WAL");
-            stmt.execute("PRAGMA synchronous = NORMAL");
-            stmt.execute("PRAGMA cache_size = 10000");
-            stmt.execute("PRAGMA temp_store = MEMORY");
-            stmt.execute("PRAGMA mmap_size = 268435456");
-        }
+        dialect.configureConnection(connection);
+        applySettings(connection);
 
         connection.setAutoCommit(true);
         return connection;
     }
 
+    private Connection withCurrentSettings(Connection connection) throws SQLException {
+        Integer applied = appliedSettingsVersions.get(connection);
+        if (applied == null || applied != settingsVersion.get()) {
+            applySettings(connection);
+        }
+        return connection;
+    }
+
+    private void applySettings(Connection connection) throws SQLException {
+        int version = settingsVersion.get();
+        SqliteSettings current = settings;
+        dialect.applySettings(connection, current);
+        appliedSettingsVersions.put(connection, version);
+    }
+
+    public SqliteSettings getSettings() {
+        return settings;
+    }
+
+    // Применяется к новым соединениям сразу, к уже открытым - при следующей выдаче
+    public void updateSettings(SqliteSettings newSettings) {
+        settings = newSettings;
+        settingsVersion.incrementAndGet();
+        log.info("Настройки SQLite изменены: {}", newSettings);
+    }
+
+    // PRAGMA wal_checkpoint(TRUNCATE); результат: busy, страниц в WAL, перенесено страниц
+    public String checkpoint() throws SQLException {
+        String sql = dialect.checkpointSql();
+        if (sql == null) {
+            return "не поддерживается (" + dialect.getName() + ")";
+        }
+        Connection connection = getConnection();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next()) {
+                return "";
+            }
+            return "busy=" + rs.getInt(1) + ", log=" + rs.getInt(2) + ", checkpointed=" + rs.getInt(3);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
     private boolean isValidConnection(Connection conn) {
         if (conn == null) return false;
 
@@ -105,7 +242,7 @@ public class ConnectionPool {
     }
 
     public void releaseConnection(Connection connection) {
-        if (connection == null) return;
+        if (connection == null || connection == pinned.get()) return;
 
         try {
             if (!connection.getAutoCommit()) {
@@ -114,21 +251,47 @@ public class ConnectionPool {
             }
             connection.clearWarnings();
 
-            if (!availableConnections.offer(connection)) {
-                connection.close();
-                createdConnections--;
-                System.out.println(createdConnections);
+            // После уменьшения пула лишние соединения закрываются при возврате
+            if (createdConnections.get() > maxPoolSize || !availableConnections.offer(connection)) {
+                closeConnection(connection);
+                log.debug("Лишнее соединение закрыто, открыто: {}", createdConnections.decrementAndGet());
             }
         } catch (SQLException e) {
-            System.err.println(e.getMessage());
-            try {
-                connection.close();
-                createdConnections--;
-            } catch (SQLException ex) {
-            }
+            log.error(e.getMessage());
+            closeConnection(connection);
+            createdConnections.decrementAndGet();
         }
     }
 
+    // Начинает транзакцию на соединении, закреплённом за текущим потоком
+    public Connection pin() throws SQLException {
+        if (pinned.get() != null) {
+            throw new IllegalStateException("На потоке уже открыта транзакция");
+        }
+        Connection connection = getConnection();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            releaseConnection(connection);
+            throw e;
+        }
+        pinned.set(connection);
+        return connection;
+    }
+
+    // Незафиксированная транзакция откатывается при возврате соединения
+    public void unpin(Connection connection) {
+        if (pinned.get() != connection) {
+            throw new IllegalStateException("Соединение не закреплено за текущим потоком");
+        }
+        pinned.remove();
+        releaseConnection(connection);
+    }
+
+    public boolean isInTransaction() {
+        return pinned.get() != null;
+    }
+
     public synchronized void closeAllConnections() {
 
         for (Connection conn : availableConnections) {
@@ -136,28 +299,95 @@ public class ConnectionPool {
         }
         availableConnections.clear();
 
-        createdConnections = 0;
+        createdConnections.set(0);
     }
 
     private void closeConnection(Connection conn) {
         if (conn != null) {
+            appliedSettingsVersions.remove(conn);
             try {
                 if (!conn.isClosed()) {
                     conn.close();
                 }
             } catch (SQLException e) {
-                System.err.println(e.getMessage());
+                log.error(e.getMessage());
             }
         }
     }
 
+    public String getUrl() {
+        return url;
+    }
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
     public int getAvailableConnectionsCount() {
         return availableConnections.size();
     }
 
     public int getUsedConnectionsCount() {
-        return createdConnections - availableConnections.size();
+        return createdConnections.get() - availableConnections.size();
     }
 
+    @Override
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    // Увеличение действует сразу; при уменьшении закрываются свободные соединения,
+    // а занятые - по мере возврата
+    @Override
+    public void setMaxPoolSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным: " + size);
+        }
+        maxPoolSize = size;
+        while (createdConnections.get() > size) {
+            Connection idle = availableConnections.poll();
+            if (idle == null) {
+                break;
+            }
+            discardConnection(idle);
+        }
+        log.info("Размер пула соединений изменён: {}", size);
+    }
+
+    @Override
+    public int getOpenConnections() {
+        return createdConnections.get();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return getAvailableConnectionsCount();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return getUsedConnectionsCount();
+    }
+
+    @Override
+    public long getCheckoutCount() {
+        return checkouts.sum();
+    }
+
+    @Override
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long count = waits.sum();
+        return count > 0 ? waitNanos.sum() / 1_000_000.0 / count : 0.0;
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.example;
+
+// JMX: org.example:type=ConnectionPool
+public interface ConnectionPoolMXBean {
+    int getMaxPoolSize();
+
+    void setMaxPoolSize(int size);
+
+    int getOpenConnections();
+
+    int getIdleConnections();
+
+    int getActiveConnections();
+
+    long getCheckoutCount();
+
+    long getWaitCount();
+
+    double getAverageWaitMillis();
+
+    long getTimeoutCount();
+}
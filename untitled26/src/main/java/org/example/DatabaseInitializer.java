@@ -5,6 +5,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseInitializer {
+    private static final Log log = Log.get(DatabaseInitializer.class);
+
     private final ConnectionPool connectionPool;
 
     public DatabaseInitializer(ConnectionPool connectionPool) {
@@ -17,34 +19,12 @@ public class DatabaseInitializer {
         try {
             connection = connectionPool.getConnection();
 
-            String createTableSQL = """
-                CREATE TABLE IF NOT EXISTS tasks (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    title TEXT NOT NULL,
-                    description TEXT,
-                    completed BOOLEAN DEFAULT FALSE,
-                    due_date TEXT NOT NULL,  -- SQLite хранит даты как TEXT
-                    created_at TEXT DEFAULT (datetime('now', 'localtime')),
-                    priority TEXT DEFAULT 'MEDIUM',
-                    category TEXT
-                )
-                """;
-
-            String createIndexSQL = "CREATE INDEX IF NOT EXISTS idx_due_date ON tasks(due_date)";
-            String createStatusIndexSQL = "CREATE INDEX IF NOT EXISTS idx_completed ON tasks(completed)";
-            String createPriorityIndexSQL = "CREATE INDEX IF NOT EXISTS idx_priority ON tasks(priority)";
-
+            // Таблица tasks, индексы и (для SQLite) журнал изменений - в диалекте
             try (Statement stmt = connection.createStatement()) {
-                stmt.execute(createTableSQL);
-
-                stmt.execute(createIndexSQL);
-                stmt.execute(createStatusIndexSQL);
-                stmt.execute(createPriorityIndexSQL);
-
-                checkTableStructure(connection);
+                connectionPool.getDialect().createSchema(stmt);
 
             } catch (SQLException e) {
-                e.printStackTrace();
+                log.error(e.getMessage(), e);
                 throw e;
             }
 
@@ -58,27 +38,5 @@ public class DatabaseInitializer {
         }
     }
 
-    private void checkTableStructure(Connection connection) {
-        try (Statement stmt = connection.createStatement()) {
-            var rs = stmt.executeQuery("PRAGMA table_info(tasks)");
-            while (rs.next()) {
-                String name = rs.getString("name");
-                String type = rs.getString("type");
-                boolean notnull = rs.getBoolean("notnull");
-                String dfltValue = rs.getString("dflt_value");
-                System.out.printf("%-12s %-12s notnull:%-6s default:%s%n",
-                        name, type, notnull, dfltValue != null ? dfltValue : "NULL");
-            }
-
-            rs = stmt.executeQuery("SELECT COUNT(*) as count FROM tasks");
-            if (rs.next()) {
-                System.out.println(rs.getInt("count"));
-            }
-
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
-    }
-
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// H2: в памяти (jdbc:h2:mem:...) для тестов и короткоживущих нагрузок или в файле.
+// Схема - как в init.sql; журнала изменений нет, поэтому TaskService перечитывает кэш целиком.
+public class H2Dialect implements SqlDialect {
+    private static final int LOCK_TIMEOUT = 50200;
+    private static final int STATEMENT_WAS_CANCELED = 57014;
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.h2.Driver";
+    }
+
+    @Override
+    public Path getDatabaseFile(String url) {
+        return null;
+    }
+
+    @Override
+    public void configureConnection(Connection connection) {
+    }
+
+    @Override
+    public void applySettings(Connection connection, SqliteSettings settings) {
+        // cache_size и mmap_size относятся только к SQLite
+    }
+
+    @Override
+    public void createSchema(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS tasks (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                title VARCHAR(255) NOT NULL,
+                description CLOB,
+                completed BOOLEAN DEFAULT FALSE,
+                due_date DATE NOT NULL,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                priority VARCHAR(10) DEFAULT 'MEDIUM',
+                category VARCHAR(100)
+            )
+            """);
+
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_due_date ON tasks(due_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_completed ON tasks(completed)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_priority ON tasks(priority)");
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS tasks_archive (
+                id BIGINT PRIMARY KEY,
+                title VARCHAR(255) NOT NULL,
+                description CLOB,
+                due_date DATE NOT NULL,
+                created_at TIMESTAMP,
+                priority VARCHAR(10),
+                category VARCHAR(100),
+                archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_archive_due_date ON tasks_archive(due_date)");
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS task_series (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                title VARCHAR(255) NOT NULL,
+                description CLOB,
+                priority VARCHAR(10) DEFAULT 'MEDIUM',
+                category VARCHAR(100),
+                frequency VARCHAR(10) NOT NULL,
+                interval_count INT NOT NULL DEFAULT 1,
+                weekdays INT NOT NULL DEFAULT 0,
+                start_date DATE NOT NULL,
+                end_date DATE,
+                occurrence_count INT NOT NULL DEFAULT 0,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_series_start_date ON task_series(start_date)");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS task_series_exceptions (
+                series_id BIGINT NOT NULL REFERENCES task_series(id) ON DELETE CASCADE,
+                occurrence_date DATE NOT NULL,
+                state CHAR(1) NOT NULL,
+                PRIMARY KEY (series_id, occurrence_date)
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_series_exceptions_date ON task_series_exceptions(occurrence_date)");
+    }
+
+    @Override
+    public boolean supportsChangeLog() {
+        return false;
+    }
+
+    // RETURNING в H2 нет, его роль играет FINAL TABLE. Новая строка вставляется без id:
+    // явный id не сдвигает счётчик AUTO_INCREMENT, и следующая вставка упала бы на нём
+    @Override
+    public String upsertSql() {
+        return """
+            SELECT id, title, description, completed, due_date, priority, category, created_at
+            FROM FINAL TABLE (
+                MERGE INTO tasks t
+                USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS CLOB), CAST(? AS BOOLEAN),
+                    CAST(? AS DATE), CAST(? AS VARCHAR), CAST(? AS VARCHAR)))
+                    v(id, title, description, completed, due_date, priority, category)
+                ON t.id = v.id
+                WHEN MATCHED THEN UPDATE SET title = v.title, description = v.description,
+                    completed = v.completed, due_date = v.due_date, priority = v.priority, category = v.category
+                WHEN NOT MATCHED THEN INSERT (title, description, completed, due_date, priority, category)
+                    VALUES (v.title, v.description, v.completed, v.due_date, v.priority, v.category)
+            )
+            """;
+    }
+
+    // Строка без id вставляется без него, чтобы id выдал AUTO_INCREMENT
+    @Override
+    public String importSql() {
+        return """
+            MERGE INTO tasks t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS CLOB), CAST(? AS BOOLEAN),
+                CAST(? AS DATE), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP)))
+                v(id, title, description, completed, due_date, priority, category, created_at)
+            ON t.id = v.id
+            WHEN MATCHED THEN UPDATE SET title = v.title, description = v.description,
+                completed = v.completed, due_date = v.due_date, priority = v.priority, category = v.category,
+                created_at = COALESCE(v.created_at, t.created_at)
+            WHEN NOT MATCHED AND v.id IS NULL THEN
+                INSERT (title, description, completed, due_date, priority, category, created_at)
+                VALUES (v.title, v.description, v.completed, v.due_date, v.priority, v.category,
+                    COALESCE(v.created_at, CURRENT_TIMESTAMP))
+            WHEN NOT MATCHED THEN
+                INSERT (id, title, description, completed, due_date, priority, category, created_at)
+                VALUES (v.id, v.title, v.description, v.completed, v.due_date, v.priority, v.category,
+                    COALESCE(v.created_at, CURRENT_TIMESTAMP))
+            """;
+    }
+
+    // Явный id не сдвигает счётчик AUTO_INCREMENT: без перезапуска следующая вставка
+    // упала бы на первичном ключе
+    @Override
+    public void restartTaskIds(Connection connection) throws SQLException {
+        long next;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                 SELECT GREATEST(
+                     (SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS
+                      WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = 'TASKS' AND COLUMN_NAME = 'ID'),
+                     (SELECT COALESCE(MAX(id), 0) + 1 FROM tasks),
+                     (SELECT COALESCE(MAX(id), 0) + 1 FROM tasks_archive))
+                 """)) {
+            rs.next();
+            next = rs.getLong(1);
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE tasks ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    @Override
+    public String checkpointSql() {
+        return null;
+    }
+
+    @Override
+    public void setBulkLoad(Connection connection, boolean enabled) {
+    }
+
+    @Override
+    public boolean isInterrupted(SQLException e) {
+        return e.getErrorCode() == STATEMENT_WAS_CANCELED;
+    }
+
+    // Блокировки в H2 построчные, повышать нечего
+    @Override
+    public void beginWriteTransaction(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+    }
+
+    @Override
+    public boolean isBusy(SQLException e) {
+        return e.getErrorCode() == LOCK_TIMEOUT;
+    }
+}
@@ -0,0 +1,666 @@
+package org.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.time.Instant;
+import java.time.ZoneId;
+
+// TaskDao поверх JDBC для любой СУБД, описанной SqlDialect (SQLite, H2).
+// Журнал изменений SQLite добавляет наследник TaskDaoImpl.
+public class JdbcTaskDao implements TaskDao {
+    private static final Log log = Log.get(JdbcTaskDao.class);
+    protected final ConnectionPool connectionPool;
+    protected final SqlDialect dialect;
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = Integer.getInteger("taskmanager.query.timeout", 10);
+    private volatile int queryTimeoutSeconds = DEFAULT_QUERY_TIMEOUT_SECONDS;
+    private volatile MetricsRegistry metrics;
+    // Параметров в одном IN; лимит SQLite - 32766, H2 - заметно больше
+    static final int IN_CHUNK_SIZE = 500;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter DATETIME_FORMATTER_SQLITE =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DATETIME_FORMATTER_ISO =
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    public JdbcTaskDao(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.dialect = connectionPool.getDialect();
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    // 0 - без ограничения
+    public void setQueryTimeoutSeconds(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Таймаут запроса не может быть отрицательным: " + seconds);
+        }
+        queryTimeoutSeconds = seconds;
+    }
+
+    // Задаёт TimedTaskDao.wrap: сюда попадают ошибки, которые методы DAO не пробрасывают
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    private Task mapResultSetToTask(ResultSet rs) throws SQLException {
+        return mapResultSetToTask(rs, true);
+    }
+
+    private Task mapResultSetToTask(ResultSet rs, boolean withDescription) throws SQLException {
+        Task task = new Task();
+
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        if (withDescription) {
+            task.setDescription(rs.getString("description"));
+        }
+        task.setCompleted(rs.getBoolean("completed"));
+
+        String dueDateStr = rs.getString("due_date");
+        log.trace("due_date из БД: '{}'", dueDateStr);
+
+        task.setDueDate(parseDueDate(dueDateStr));
+
+        String priorityStr = rs.getString("priority");
+        if (priorityStr != null && !priorityStr.trim().isEmpty()) {
+            try {
+                task.setPriority(Task.Priority.valueOf(priorityStr));
+            } catch (IllegalArgumentException e) {
+                task.setPriority(Task.Priority.MEDIUM);
+            }
+        } else {
+            task.setPriority(Task.Priority.MEDIUM);
+        }
+
+        task.setCategory(rs.getString("category"));
+
+        task.setCreatedAt(LocalDateTime.now());
+
+        return task;
+    }
+
+    // Миллисекунды встречаются в базах, где строки писал старый save() через setDate
+    static LocalDate parseDueDate(String dueDateStr) {
+        if (dueDateStr != null && !dueDateStr.trim().isEmpty()) {
+            if (dueDateStr.matches("\\d+")) {
+                long millis = Long.parseLong(dueDateStr);
+                return Instant.ofEpochMilli(millis)
+                        .atZone(ZoneId.systemDefault())
+                        .toLocalDate();
+            }
+            try {
+                return LocalDate.parse(dueDateStr);
+            } catch (Exception e) {
+                return LocalDate.now();
+            }
+        }
+        return LocalDate.now();
+    }
+
+    // SQLite: 'yyyy-MM-dd HH:mm:ss', H2: TIMESTAMP с долями секунды; null, если не разобрать
+    static LocalDateTime parseCreatedAt(String createdAtStr) {
+        if (createdAtStr == null || createdAtStr.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(createdAtStr, DATETIME_FORMATTER_SQLITE);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(createdAtStr.replace(' ', 'T'), DATETIME_FORMATTER_ISO);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    // Общий путь для запросов, возвращающих список задач
+    private List<Task> queryTasks(String method, String sql, boolean withDescription, ParameterBinder binder) {
+        List<Task> tasks = new ArrayList<>();
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, method, queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                binder.bind(stmt);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        tasks.add(mapResultSetToTask(rs, withDescription));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, method);
+            log.error("Ошибка в {}: {}", method, e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.rows = tasks.size();
+            event.commit(method, sql);
+        }
+        return tasks;
+    }
+
+    // Число изменённых строк; 0 при ошибке
+    private int executeUpdate(String method, String sql, ParameterBinder binder) {
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, method, queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                binder.bind(stmt);
+                int affectedRows = stmt.executeUpdate();
+                event.rows = affectedRows;
+                return affectedRows;
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, method);
+            log.error("Ошибка в {}: {}", method, e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit(method, sql);
+        }
+        return 0;
+    }
+
+    // Прерванный запрос (отменой или по таймауту) становится QueryCancelledException
+    protected void rethrowIfInterrupted(SQLException e, String method) {
+        StatementGuard.rethrowIfInterrupted(dialect, e, method);
+    }
+
+    // Остальные ошибки метод проглатывает и возвращает пустой результат, поэтому TimedTaskDao
+    // их не видит: счётчик ошибок "dao.<метод>" увеличивается здесь.
+    // Внутри TaskService.inTransaction ошибка пробрасывается: иначе транзакция
+    // зафиксировала бы то, что успело выполниться до неё
+    protected void handleError(SQLException e, String method) {
+        rethrowIfInterrupted(e, method);
+        if (connectionPool.isInTransaction()) {
+            throw new RuntimeException("Ошибка в " + method + " внутри транзакции: " + e.getMessage(), e);
+        }
+        MetricsRegistry registry = metrics;
+        if (registry != null) {
+            registry.operation("dao." + method).countError();
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        String sql = "SELECT id, title, description, completed, due_date, priority, category " +
+                "FROM tasks WHERE id = ?";
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, "findById", queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                stmt.setLong(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        event.rows = 1;
+                        return Optional.of(mapResultSetToTask(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "findById");
+            log.error("Ошибка при поиске задачи по ID: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("findById", sql);
+        }
+        return Optional.empty();
+    }
+
+    // Одно соединение на весь вызов, id идут пачками по IN_CHUNK_SIZE;
+    // полные пачки используют один и тот же подготовленный запрос
+    @Override
+    public List<Task> findByIds(Collection<Long> ids) {
+        List<Long> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (unique.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String fullChunkSql = findByIdsSql(Math.min(IN_CHUNK_SIZE, unique.size()));
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Map<Long, Task> found = new HashMap<>(unique.size() * 2);
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, fullChunkSql, "findByIds",
+                    queryTimeoutSeconds)) {
+                PreparedStatement fullChunk = guard.statement();
+                for (int from = 0; from < unique.size(); from += IN_CHUNK_SIZE) {
+                    List<Long> chunk = unique.subList(from, Math.min(from + IN_CHUNK_SIZE, unique.size()));
+                    if (chunk.size() == IN_CHUNK_SIZE || from == 0) {
+                        readChunk(fullChunk, chunk, found);
+                    } else {
+                        // Последняя неполная пачка
+                        try (StatementGuard tailGuard = StatementGuard.prepare(connection,
+                                findByIdsSql(chunk.size()), "findByIds", queryTimeoutSeconds)) {
+                            PreparedStatement tail = tailGuard.statement();
+                            readChunk(tail, chunk, found);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "findByIds");
+            log.error("Ошибка при поиске задач по списку ID: {}", e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.rows = found.size();
+            event.commit("findByIds", fullChunkSql);
+        }
+
+        List<Task> tasks = new ArrayList<>(found.size());
+        for (Long id : unique) {
+            Task task = found.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private static String findByIdsSql(int count) {
+        return "SELECT id, title, description, completed, due_date, priority, category " +
+                "FROM tasks WHERE id IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private void readChunk(PreparedStatement stmt, List<Long> chunk, Map<Long, Task> found) throws SQLException {
+        for (int i = 0; i < chunk.size(); i++) {
+            stmt.setLong(i + 1, chunk.get(i));
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Task task = mapResultSetToTask(rs);
+                found.put(task.getId(), task);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return queryTasks("findAll",
+                "SELECT id, title, description, completed, due_date, priority, category " +
+                        "FROM tasks ORDER BY due_date ASC",
+                true, stmt -> { });
+    }
+
+    @Override
+    public List<Task> findAllSummaries() {
+        return queryTasks("findAllSummaries",
+                "SELECT id, title, completed, due_date, priority, category " +
+                        "FROM tasks ORDER BY due_date ASC",
+                false, stmt -> { });
+    }
+
+    @Override
+    public Optional<String> findDescription(Long id) {
+        String sql = "SELECT description FROM tasks WHERE id = ?";
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, "findDescription",
+                    queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                stmt.setLong(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        event.rows = 1;
+                        return Optional.ofNullable(rs.getString("description"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "findDescription");
+            log.error("Ошибка при загрузке описания задачи: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("findDescription", sql);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Long save(Task task) {
+        String sql = "INSERT INTO tasks (title, description, completed, due_date, priority, category) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, Statement.RETURN_GENERATED_KEYS,
+                    "save", queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+
+                stmt.setString(1, task.getTitle());
+                stmt.setString(2, task.getDescription());
+                stmt.setBoolean(3, task.isCompleted());
+
+                stmt.setString(4, task.getDueDate().format(DATE_FORMATTER));
+
+                stmt.setString(5, task.getPriority().name());
+                stmt.setString(6, task.getCategory());
+
+                int affectedRows = stmt.executeUpdate();
+                event.rows = affectedRows;
+                log.debug("Добавлено строк: {}", affectedRows);
+
+                if (affectedRows > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            Long id = generatedKeys.getLong(1);
+                            log.debug("Задаче присвоен ID: {}", id);
+                            return id;
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "save");
+            log.error("Ошибка при сохранении задачи", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("save", sql);
+        }
+        return null;
+    }
+
+    // Один запрос: запись и чтение сохранённой строки (с настоящим created_at); null при ошибке
+    @Override
+    public Task upsert(Task task) {
+        String sql = dialect.upsertSql();
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, "upsert", queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                Task stored = upsertRow(stmt, task);
+                event.rows = 1;
+                return stored;
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "upsert");
+            log.error("Ошибка при сохранении задачи: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("upsert", sql);
+        }
+        return null;
+    }
+
+    // Все задачи в одной транзакции через один подготовленный запрос; при ошибке
+    // не сохраняется ничего и возвращается пустой список
+    @Override
+    public List<Task> upsertAll(List<Task> tasks) {
+        List<Task> stored = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return stored;
+        }
+        String sql = dialect.upsertSql();
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            // Внутри TaskService.inTransaction фиксирует внешняя транзакция
+            boolean ownTransaction = !connectionPool.isInTransaction();
+            connection = connectionPool.getConnection();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, "upsertAll", queryTimeoutSeconds)) {
+                PreparedStatement stmt = guard.statement();
+                for (Task task : tasks) {
+                    stored.add(upsertRow(stmt, task));
+                }
+                if (ownTransaction) {
+                    connection.commit();
+                }
+                event.rows = stored.size();
+                return stored;
+            }
+        } catch (SQLException e) {
+            // Незавершённую транзакцию откатывает пул при возврате соединения
+            event.failed = true;
+            handleError(e, "upsertAll");
+            log.error("Ошибка при пакетном сохранении задач: {}", e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("upsertAll", sql);
+        }
+    }
+
+    private Task upsertRow(PreparedStatement stmt, Task task) throws SQLException {
+        if (task.getId() != null) {
+            stmt.setLong(1, task.getId());
+        } else {
+            stmt.setNull(1, Types.BIGINT);
+        }
+        stmt.setString(2, task.getTitle());
+        stmt.setString(3, task.getDescription());
+        stmt.setBoolean(4, task.isCompleted());
+        stmt.setString(5, task.getDueDate().format(DATE_FORMATTER));
+        stmt.setString(6, (task.getPriority() != null ? task.getPriority() : Task.Priority.MEDIUM).name());
+        stmt.setString(7, task.getCategory());
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("Запрос сохранения не вернул строку");
+            }
+            Task stored = mapResultSetToTask(rs);
+            stored.setCreatedAt(parseCreatedAt(rs.getString("created_at")));
+            return stored;
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        int affectedRows = executeUpdate("delete", "DELETE FROM tasks WHERE id = ?",
+                stmt -> stmt.setLong(1, id));
+        log.debug("Удалено: {} строка (ID={})", affectedRows, id);
+        return affectedRows > 0;
+    }
+
+    @Override
+    public boolean update(Task task) {
+        return executeUpdate("update",
+                "UPDATE tasks SET title = ?, description = ?, completed = ?, " +
+                        "due_date = ?, priority = ?, category = ? WHERE id = ?",
+                stmt -> {
+                    stmt.setString(1, task.getTitle());
+                    stmt.setString(2, task.getDescription());
+                    stmt.setBoolean(3, task.isCompleted());
+                    stmt.setString(4, task.getDueDate().format(DATE_FORMATTER));
+                    stmt.setString(5, task.getPriority().name());
+                    stmt.setString(6, task.getCategory());
+                    stmt.setLong(7, task.getId());
+                }) > 0;
+    }
+
+    @Override
+    public List<Task> findByCompleted(boolean completed) {
+        return queryTasks("findByCompleted",
+                "SELECT id, title, description, completed, due_date, priority, category " +
+                        "FROM tasks WHERE completed = ? ORDER BY due_date ASC",
+                true, stmt -> stmt.setBoolean(1, completed));
+    }
+
+    @Override
+    public List<Task> findByDueDate(LocalDate dueDate) {
+        return queryTasks("findByDueDate",
+                "SELECT * FROM tasks WHERE due_date = ? ORDER BY priority DESC",
+                true, stmt -> stmt.setString(1, dueDate.format(DATE_FORMATTER)));
+    }
+
+    @Override
+    public List<Task> findOverdueTasks() {
+        LocalDate today = LocalDate.now();
+        return queryTasks("findOverdueTasks",
+                "SELECT * FROM tasks WHERE due_date < ? AND completed = FALSE ORDER BY due_date ASC",
+                true, stmt -> stmt.setString(1, today.format(DATE_FORMATTER)));
+    }
+
+    @Override
+    public List<Task> findTodayTasks() {
+        LocalDate today = LocalDate.now();
+        return queryTasks("findTodayTasks",
+                "SELECT * FROM tasks WHERE due_date = ? AND completed = FALSE ORDER BY priority DESC",
+                true, stmt -> stmt.setString(1, today.format(DATE_FORMATTER)));
+    }
+
+    @Override
+    public boolean markAsCompleted(Long id) {
+        return executeUpdate("markAsCompleted", "UPDATE tasks SET completed = TRUE WHERE id = ?",
+                stmt -> stmt.setLong(1, id)) > 0;
+    }
+
+    @Override
+    public List<Task> findTasksByCategory(String category) {
+        return queryTasks("findTasksByCategory",
+                "SELECT * FROM tasks WHERE category = ? ORDER BY due_date ASC",
+                true, stmt -> stmt.setString(1, category));
+    }
+
+    @Override
+    public List<Task> findTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        return queryTasks("findTasksByDateRange",
+                "SELECT * FROM tasks WHERE due_date >= ? AND due_date <= ? ORDER BY due_date ASC, priority DESC",
+                true, stmt -> {
+                    stmt.setString(1, startDate.format(DATE_FORMATTER));
+                    stmt.setString(2, endDate.format(DATE_FORMATTER));
+                });
+    }
+
+    @Override
+    public long getTaskCount() {
+        String sql = "SELECT COUNT(*) FROM tasks";
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.begin();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (StatementGuard guard = StatementGuard.prepare(connection, sql, "getTaskCount", queryTimeoutSeconds);
+                 ResultSet rs = guard.statement().executeQuery()) {
+
+                if (rs.next()) {
+                    event.rows = 1;
+                    return rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            event.failed = true;
+            handleError(e, "getTaskCount");
+            log.error(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+            event.commit("getTaskCount", sql);
+        }
+        return 0;
+    }
+
+    @Override
+    public List<String> getAllCategories() {
+        return List.of();
+    }
+
+    public List<Task> findAllSimple() {
+        log.warn("findAllSimple() - обход ошибки парсинга");
+        List<Task> tasks = new ArrayList<>();
+
+        String sql = "SELECT id, title FROM tasks";
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    Task task = new Task();
+                    task.setId(rs.getLong("id"));
+                    task.setTitle(rs.getString("title"));
+                    task.setDueDate(LocalDate.now());
+                    task.setPriority(Task.Priority.MEDIUM);
+                    task.setCreatedAt(LocalDateTime.now());
+                    tasks.add(task);
+                    log.trace("Простая задача: {}", task.getTitle());
+                }
+
+            }
+        } catch (SQLException e) {
+            log.error(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+
+        return tasks;
+    }
+}
\ No newline at end of file
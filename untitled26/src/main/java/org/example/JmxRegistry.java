@@ -0,0 +1,48 @@
+package org.example;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Регистрация MBean-ов приложения под доменом org.example
+public class JmxRegistry {
+    private static final Log log = Log.get(JmxRegistry.class);
+    private static final String DOMAIN = "org.example";
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public synchronized void register(String type, Object mbean) {
+        try {
+            ObjectName name = nameOf(type);
+            // Повторная регистрация (например, после перезапуска view в тестах) заменяет старый объект
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            registered.add(name);
+        } catch (JMException e) {
+            log.error("Не удалось зарегистрировать MBean {}: {}", type, e.getMessage());
+        }
+    }
+
+    public synchronized void unregisterAll() {
+        for (ObjectName name : registered) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                log.warn("Не удалось снять MBean {}: {}", name, e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+
+    static ObjectName nameOf(String type) throws JMException {
+        return new ObjectName(DOMAIN, "type", type);
+    }
+}
@@ -0,0 +1,338 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+// TaskDao без JDBC: задачи в памяти, долговечность - через TaskJournal.
+// Чтения не блокируются: ConcurrentHashMap по id и ConcurrentSkipListMap по сроку.
+// Записи идут по одной, сначала в журнал, потом в память; fsync групповой.
+// Хранимые задачи не изменяются, наружу отдаются копии.
+public class JournaledTaskDao implements TaskDao, AutoCloseable {
+    private static final Log log = Log.get(JournaledTaskDao.class);
+    static final int DEFAULT_COMPACT_EVERY = Integer.getInteger("taskmanager.journal.compactEvery", 10000);
+
+    private record DueKey(LocalDate dueDate, long id) implements Comparable<DueKey> {
+        @Override
+        public int compareTo(DueKey other) {
+            int byDate = dueDate.compareTo(other.dueDate);
+            return byDate != 0 ? byDate : Long.compare(id, other.id);
+        }
+    }
+
+    private final TaskJournal journal;
+    private final int compactEvery;
+    private final ConcurrentHashMap<Long, Task> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<DueKey, Task> byDueDate = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private long nextId;
+
+    public JournaledTaskDao(Path dir) throws IOException {
+        this(dir, DEFAULT_COMPACT_EVERY);
+    }
+
+    JournaledTaskDao(Path dir, int compactEvery) throws IOException {
+        this.compactEvery = compactEvery;
+        this.journal = new TaskJournal(dir);
+        this.nextId = journal.recover(new TaskJournal.Replay() {
+            @Override
+            public void put(Task task) {
+                apply(task);
+            }
+
+            @Override
+            public void delete(long id) {
+                remove(id);
+            }
+        });
+        log.info("Загружено задач из журнала: {}", byId.size());
+    }
+
+    private void apply(Task task) {
+        Task previous = byId.put(task.getId(), task);
+        if (previous != null && !previous.getDueDate().equals(task.getDueDate())) {
+            byDueDate.remove(new DueKey(previous.getDueDate(), previous.getId()));
+        }
+        byDueDate.put(new DueKey(task.getDueDate(), task.getId()), task);
+    }
+
+    private Task remove(long id) {
+        Task previous = byId.remove(id);
+        if (previous != null) {
+            byDueDate.remove(new DueKey(previous.getDueDate(), id));
+        }
+        return previous;
+    }
+
+    private static Task copy(Task source, boolean withDescription) {
+        Task task = new Task();
+        task.setId(source.getId());
+        task.setTitle(source.getTitle());
+        if (withDescription) {
+            task.setDescription(source.getDescription());
+        }
+        task.setCompleted(source.isCompleted());
+        task.setDueDate(source.getDueDate());
+        task.setPriority(source.getPriority());
+        task.setCategory(source.getCategory());
+        task.setCreatedAt(source.getCreatedAt());
+        return task;
+    }
+
+    private static List<Task> select(Iterable<Task> tasks, Predicate<Task> filter, boolean withDescription) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasks) {
+            if (filter.test(task)) {
+                result.add(copy(task, withDescription));
+            }
+        }
+        return result;
+    }
+
+    // Как ORDER BY priority DESC в JdbcTaskDao: по имени приоритета
+    private static List<Task> byPriorityDesc(List<Task> tasks) {
+        tasks.sort(Comparator.comparing((Task task) -> task.getPriority().name()).reversed());
+        return tasks;
+    }
+
+    // Журнал дописывается под writeLock, а fsync ждём уже без него, чтобы
+    // следующие писатели успели попасть в тот же fsync. null - обновляемой задачи нет
+    private Task write(Task task, boolean isNew) {
+        if (task.getDueDate() == null) {
+            throw new IllegalArgumentException("Не указан срок задачи");
+        }
+        Task stored = copy(task, true);
+        if (stored.getPriority() == null) {
+            stored.setPriority(Task.Priority.MEDIUM);
+        }
+
+        long position;
+        synchronized (writeLock) {
+            if (isNew) {
+                stored.setId(nextId++);
+            } else {
+                Task current = stored.getId() != null ? byId.get(stored.getId()) : null;
+                if (current == null) {
+                    return null;
+                }
+                stored.setCreatedAt(current.getCreatedAt());
+            }
+            try {
+                position = journal.appendPut(stored);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось записать задачу в журнал", e);
+            }
+            apply(stored);
+            compactIfNeeded();
+        }
+        awaitDurable(position);
+        return stored;
+    }
+
+    private void awaitDurable(long position) {
+        try {
+            journal.awaitDurable(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сбросить журнал задач на диск", e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (journal.getRecordCount() >= compactEvery) {
+            compact();
+        }
+    }
+
+    // Снимок всех задач и обнуление журнала
+    public void compact() {
+        synchronized (writeLock) {
+            try {
+                int records = journal.getRecordCount();
+                journal.writeSnapshot(new ArrayList<>(byId.values()), nextId);
+                log.debug("Журнал задач сжат: записей {}, задач {}", records, byId.size());
+            } catch (IOException e) {
+                // Журнал не тронут, данные не потеряны; попробуем при следующей записи
+                log.error("Не удалось записать снимок журнала: {}", e.getMessage());
+            }
+        }
+    }
+
+    public int getJournalRecordCount() {
+        return journal.getRecordCount();
+    }
+
+    public long getSyncCount() {
+        return journal.getSyncCount();
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        Task task = byId.get(id);
+        return task != null ? Optional.of(copy(task, true)) : Optional.empty();
+    }
+
+    @Override
+    public List<Task> findByIds(Collection<Long> ids) {
+        List<Task> result = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Task task = byId.get(id);
+            if (task != null) {
+                result.add(copy(task, true));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return select(byDueDate.values(), task -> true, true);
+    }
+
+    @Override
+    public List<Task> findAllSummaries() {
+        return select(byDueDate.values(), task -> true, false);
+    }
+
+    @Override
+    public Optional<String> findDescription(Long id) {
+        Task task = byId.get(id);
+        return task != null ? Optional.ofNullable(task.getDescription()) : Optional.empty();
+    }
+
+    @Override
+    public Long save(Task task) {
+        Task stored = write(task, true);
+        log.debug("Задаче присвоен ID: {}", stored.getId());
+        return stored.getId();
+    }
+
+    // Как в JDBC: задача с несуществующим id получает новый id.
+    // Проверка и запись под одним writeLock, fsync в этом случае не групповой
+    @Override
+    public Task upsert(Task task) {
+        Task stored;
+        synchronized (writeLock) {
+            boolean exists = task.getId() != null && byId.containsKey(task.getId());
+            stored = write(task, !exists);
+        }
+        return copy(stored, true);
+    }
+
+    @Override
+    public List<Task> upsertAll(List<Task> tasks) {
+        List<Task> stored = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            stored.add(upsert(task));
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        long position;
+        synchronized (writeLock) {
+            if (!byId.containsKey(id)) {
+                return false;
+            }
+            try {
+                position = journal.appendDelete(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось записать удаление в журнал", e);
+            }
+            remove(id);
+            compactIfNeeded();
+        }
+        awaitDurable(position);
+        return true;
+    }
+
+    @Override
+    public boolean update(Task task) {
+        return write(task, false) != null;
+    }
+
+    @Override
+    public List<Task> findByCompleted(boolean completed) {
+        return select(byDueDate.values(), task -> task.isCompleted() == completed, true);
+    }
+
+    @Override
+    public List<Task> findByDueDate(LocalDate dueDate) {
+        return byPriorityDesc(select(dueOn(dueDate), task -> true, true));
+    }
+
+    @Override
+    public List<Task> findOverdueTasks() {
+        LocalDate today = LocalDate.now();
+        return select(byDueDate.headMap(new DueKey(today, Long.MIN_VALUE)).values(),
+                task -> !task.isCompleted(), true);
+    }
+
+    @Override
+    public List<Task> findTodayTasks() {
+        return byPriorityDesc(select(dueOn(LocalDate.now()), task -> !task.isCompleted(), true));
+    }
+
+    private Iterable<Task> dueOn(LocalDate date) {
+        return byDueDate.subMap(new DueKey(date, Long.MIN_VALUE), true, new DueKey(date, Long.MAX_VALUE), true).values();
+    }
+
+    @Override
+    public boolean markAsCompleted(Long id) {
+        // Под writeLock, чтобы не затереть параллельное update; fsync в этом случае не групповой
+        synchronized (writeLock) {
+            Task current = byId.get(id);
+            if (current == null) {
+                return false;
+            }
+            Task completed = copy(current, true);
+            completed.setCompleted(true);
+            return update(completed);
+        }
+    }
+
+    @Override
+    public List<Task> findTasksByCategory(String category) {
+        return select(byDueDate.values(), task -> category.equals(task.getCategory()), true);
+    }
+
+    @Override
+    public List<Task> findTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        return select(byDueDate.subMap(new DueKey(startDate, Long.MIN_VALUE), true,
+                new DueKey(endDate, Long.MAX_VALUE), true).values(), task -> true, true);
+    }
+
+    @Override
+    public long getTaskCount() {
+        return byId.size();
+    }
+
+    @Override
+    public List<String> getAllCategories() {
+        TreeSet<String> categories = new TreeSet<>();
+        for (Task task : byId.values()) {
+            if (task.getCategory() != null) {
+                categories.add(task.getCategory());
+            }
+        }
+        return new ArrayList<>(categories);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// Нагрузочный прогон TaskService + TaskDaoImpl на временной базе, без UI и фоновых служб:
+//   java -cp task-manager.jar org.example.LoadTestTool --actors=200 --duration=1h
+//        --mix=read=50,list=10,filter=25,write=15 --rate=0 --preload=10000 --report=10s
+// rate=0 - закрытая модель: каждый актор сразу берёт следующую операцию.
+// rate>0 - открытая модель: операции назначаются по расписанию (всего rate в секунду), а задержка
+// считается от назначенного времени, так что очередь перед перегруженной базой видна в перцентилях.
+// Каждые report секунд пишется строка: пропускная способность, p50/p99/p999, ошибки, таймауты пула.
+public class LoadTestTool {
+    private static final Log log = Log.get(LoadTestTool.class);
+    private static final String INTERVAL_LINE =
+            "t={}s ops={} ({}/с) p50={} p99={} p999={} max={} мс ошибок={} таймаутов пула={}";
+    private static final String[] CATEGORIES = {"Работа", "Дом", "Учёба", "Покупки", "Здоровье"};
+
+    public enum Operation { READ, LIST, FILTER, WRITE }
+
+    public static final class Options {
+        int actors = 200;
+        long durationSeconds = 60;
+        long reportSeconds = 10;
+        int rate = 0;
+        int preload = 1000;
+        int poolSize = 10;
+        final Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+                Operation.READ, 50, Operation.LIST, 10, Operation.FILTER, 25, Operation.WRITE, 15));
+
+        // --name=value; длительности принимают суффиксы s, m, h
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Ожидался аргумент вида --имя=значение: " + arg);
+                }
+                String name = arg.substring(2, eq);
+                String value = arg.substring(eq + 1);
+                switch (name) {
+                    case "actors" -> options.actors = Integer.parseInt(value);
+                    case "duration" -> options.durationSeconds = parseSeconds(value);
+                    case "report" -> options.reportSeconds = parseSeconds(value);
+                    case "rate" -> options.rate = Integer.parseInt(value);
+                    case "preload" -> options.preload = Integer.parseInt(value);
+                    case "pool" -> options.poolSize = Integer.parseInt(value);
+                    case "mix" -> options.setMix(value);
+                    default -> throw new IllegalArgumentException("Неизвестный параметр: " + name);
+                }
+            }
+            if (options.actors < 1 || options.durationSeconds < 1 || options.reportSeconds < 1
+                    || options.rate < 0 || options.preload < 1 || options.poolSize < 1) {
+                throw new IllegalArgumentException("Некорректные параметры нагрузки");
+            }
+            return options;
+        }
+
+        // read=50,list=10,filter=25,write=15; неуказанные операции не выполняются
+        void setMix(String value) {
+            mix.clear();
+            for (String part : value.split(",")) {
+                String[] pair = part.trim().split("=");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Ожидалось операция=вес: " + part);
+                }
+                int weight = Integer.parseInt(pair[1].trim());
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Вес не может быть отрицательным: " + part);
+                }
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+            if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+                throw new IllegalArgumentException("Пустая смесь операций: " + value);
+            }
+        }
+
+        private static long parseSeconds(String value) {
+            char unit = value.charAt(value.length() - 1);
+            long multiplier = switch (unit) {
+                case 's' -> 1;
+                case 'm' -> 60;
+                case 'h' -> 3600;
+                default -> 0;
+            };
+            return multiplier == 0 ? Long.parseLong(value)
+                    : Long.parseLong(value.substring(0, value.length() - 1)) * multiplier;
+        }
+    }
+
+    // Итог прогона: по операциям за всё время и по интервалам отчёта
+    public static final class Result {
+        final Map<Operation, LatencyHistogram> latency = new EnumMap<>(Operation.class);
+        final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        final List<String> intervals = new ArrayList<>();
+        long elapsedNanos;
+        long poolTimeouts;
+
+        Result() {
+            for (Operation operation : Operation.values()) {
+                latency.put(operation, new LatencyHistogram());
+                errors.put(operation, new LongAdder());
+            }
+        }
+
+        public long getOperationCount() {
+            return latency.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+        }
+
+        public long getOperationCount(Operation operation) {
+            return latency.get(operation).getCount();
+        }
+
+        public long getErrorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public long getPoolTimeouts() {
+            return poolTimeouts;
+        }
+
+        public List<String> getIntervals() {
+            return intervals;
+        }
+
+        public double getThroughput() {
+            return TransferStats.rowsPerSecond(getOperationCount(), elapsedNanos);
+        }
+    }
+
+    private final Options options;
+    private final ConnectionPool pool;
+    private final TaskService service;
+    private final Operation[] schedule;
+    // Чтения и изменения идут по загруженным заранее id, удаляются только задачи, вставленные
+    // во время прогона: так false/null от сервиса - настоящая ошибка, а не удалённая строка
+    private final AtomicLong preloadedMaxId = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> inserted = new ConcurrentLinkedQueue<>();
+    private final Result result = new Result();
+    private final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+    private final LongAdder intervalErrors = new LongAdder();
+
+    public LoadTestTool(Options options, Path databaseFile) {
+        this.options = options;
+        this.pool = new ConnectionPool("jdbc:sqlite:" + databaseFile, options.poolSize);
+        new DatabaseInitializer(pool).initializeDatabase();
+        this.service = new TaskService(TimedTaskDao.wrap(new TaskDaoImpl(pool), new MetricsRegistry()));
+
+        // 100 ячеек по весам смеси: выбор операции - одно случайное число
+        List<Operation> slots = new ArrayList<>();
+        int total = options.mix.values().stream().mapToInt(Integer::intValue).sum();
+        for (Map.Entry<Operation, Integer> entry : options.mix.entrySet()) {
+            long share = Math.round(100.0 * entry.getValue() / total);
+            for (int i = 0; i < Math.max(entry.getValue() > 0 ? 1 : 0, share); i++) {
+                slots.add(entry.getKey());
+            }
+        }
+        this.schedule = slots.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path dir = Files.createTempDirectory("taskmanager-load");
+        try {
+            LoadTestTool tool = new LoadTestTool(options, dir.resolve("load.db"));
+            try {
+                tool.run();
+            } finally {
+                tool.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    public Result run() throws InterruptedException {
+        preload();
+        log.info("Нагрузка: {} акторов, {}", options.actors,
+                (options.rate > 0 ? "открытая модель, " + options.rate + " оп/с" : "закрытая модель")
+                        + ", смесь " + options.mix + ", " + options.durationSeconds + " с");
+
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long periodNanos = options.rate > 0 ? 1_000_000_000L / options.rate : 0;
+        AtomicLong ticket = new AtomicLong();
+        long timeoutsAtStart = pool.getTimeoutCount();
+
+        List<Thread> actors = new ArrayList<>(options.actors);
+        for (int i = 0; i < options.actors; i++) {
+            Thread actor = new Thread(() -> {
+                while (true) {
+                    long intendedStart;
+                    if (periodNanos > 0) {
+                        intendedStart = started + ticket.getAndIncrement() * periodNanos;
+                        if (intendedStart >= deadline) {
+                            return;
+                        }
+                        long wait = intendedStart - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    } else {
+                        intendedStart = System.nanoTime();
+                        if (intendedStart >= deadline) {
+                            return;
+                        }
+                    }
+                    execute(schedule[ThreadLocalRandom.current().nextInt(schedule.length)], intendedStart);
+                }
+            }, "load-" + i);
+            actor.setDaemon(true);
+            actors.add(actor);
+            actor.start();
+        }
+
+        long reportNanos = TimeUnit.SECONDS.toNanos(options.reportSeconds);
+        long lastReport = started;
+        long lastTimeouts = timeoutsAtStart;
+        while (System.nanoTime() < deadline) {
+            long sleep = Math.min(reportNanos, deadline - System.nanoTime());
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, sleep));
+            long now = System.nanoTime();
+            long timeouts = pool.getTimeoutCount();
+            report(now - started, now - lastReport, timeouts - lastTimeouts);
+            lastReport = now;
+            lastTimeouts = timeouts;
+        }
+        for (Thread actor : actors) {
+            actor.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        result.elapsedNanos = System.nanoTime() - started;
+        result.poolTimeouts = pool.getTimeoutCount() - timeoutsAtStart;
+        summarize();
+        return result;
+    }
+
+    public void close() {
+        pool.closeAllConnections();
+    }
+
+    private void preload() {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < options.preload; i++) {
+            batch.add(randomTask("Задача " + i));
+            if (batch.size() == 500 || i == options.preload - 1) {
+                for (Task stored : service.upsertAll(batch)) {
+                    preloadedMaxId.accumulateAndGet(stored.getId(), Math::max);
+                }
+                batch.clear();
+            }
+        }
+        log.info("Загружено задач: {}", options.preload);
+    }
+
+    private static Task randomTask(String title) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Task(title, "Описание " + title + " " + random.nextLong(),
+                LocalDate.now().plusDays(random.nextInt(-30, 60)),
+                Task.Priority.values()[random.nextInt(Task.Priority.values().length)],
+                CATEGORIES[random.nextInt(CATEGORIES.length)]);
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(preloadedMaxId.get());
+    }
+
+    private void execute(Operation operation, long intendedStart) {
+        boolean failed;
+        try {
+            failed = !perform(operation);
+        } catch (RuntimeException e) {
+            log.warn("Операция {} завершилась ошибкой: {}", operation, e.toString());
+            failed = true;
+        }
+        long latency = System.nanoTime() - intendedStart;
+        result.latency.get(operation).record(latency);
+        interval.get().record(latency);
+        if (failed) {
+            result.errors.get(operation).increment();
+            intervalErrors.increment();
+        }
+    }
+
+    // false - операция не удалась без исключения: сервис вернул false или null
+    private boolean perform(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case READ -> {
+                Task task = service.findById(randomId());
+                if (task == null) {
+                    return false;
+                }
+                service.getDescription(task);
+            }
+            case LIST -> service.findAllSummaries();
+            case FILTER -> {
+                switch (random.nextInt(3)) {
+                    case 0 -> service.findTasksByCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    case 1 -> service.findTodayTasks();
+                    default -> {
+                        LocalDate from = LocalDate.now().plusDays(random.nextInt(-30, 60));
+                        service.findTasksByDateRange(from, from.plusDays(7));
+                    }
+                }
+            }
+            case WRITE -> {
+                int kind = random.nextInt(10);
+                Long deleteId = kind < 9 ? null : inserted.poll();
+                if (kind < 5 || (kind >= 9 && deleteId == null)) {
+                    // Удалять пока нечего - вместо удаления вставка
+                    Task stored = service.upsert(randomTask("Новая задача"));
+                    if (stored == null) {
+                        return false;
+                    }
+                    inserted.add(stored.getId());
+                } else if (kind < 8) {
+                    Task task = randomTask("Изменённая задача");
+                    task.setId(randomId());
+                    return service.update(task);
+                } else if (kind < 9) {
+                    return service.markAsCompleted(randomId());
+                } else {
+                    return service.delete(deleteId);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void report(long elapsedNanos, long intervalNanos, long poolTimeouts) {
+        LatencyHistogram histogram = interval.getAndSet(new LatencyHistogram());
+        long errors = intervalErrors.sumThenReset();
+        // Строка нужна и в Result, поэтому собирается сразу, но тем же форматом "{}", что у Log
+        String line = Log.format(INTERVAL_LINE, new Object[]{
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), histogram.getCount(),
+                Math.round(TransferStats.rowsPerSecond(histogram.getCount(), intervalNanos)),
+                millis(histogram.getValueAtQuantile(0.5)), millis(histogram.getValueAtQuantile(0.99)),
+                millis(histogram.getValueAtQuantile(0.999)), millis(histogram.getMaxNanos()),
+                errors, poolTimeouts});
+        result.intervals.add(line);
+        log.info(line);
+    }
+
+    private void summarize() {
+        log.info("Итого: {} операций за {} с, {} оп/с, ошибок {}, таймаутов пула {}",
+                result.getOperationCount(), Math.round(result.elapsedNanos / 1e8) / 10.0,
+                Math.round(result.getThroughput()), result.getErrorCount(), result.poolTimeouts);
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = result.latency.get(operation);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            log.info("  {} ops={} p50={} p99={} p999={} max={} мс ошибок={}",
+                    operation, histogram.getCount(), millis(histogram.getValueAtQuantile(0.5)),
+                    millis(histogram.getValueAtQuantile(0.99)), millis(histogram.getValueAtQuantile(0.999)),
+                    millis(histogram.getMaxNanos()), result.errors.get(operation).sum());
+        }
+    }
+
+    // Миллисекунды с двумя знаками после запятой
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
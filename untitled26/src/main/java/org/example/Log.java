@@ -0,0 +1,175 @@
+package org.example;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// Логирование с уровнями. Проверка уровня - одно чтение volatile-поля, и только после неё
+// аргументы подставляются в шаблон "{}" (в вызывающем потоке, пока они не изменились),
+// поэтому выключенные сообщения почти ничего не стоят. Для горячих путей с дорогими аргументами -
+// isDebugEnabled()/isTraceEnabled() или вариант с Supplier.
+public final class Log {
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static volatile Level threshold = parseLevel(System.getProperty("taskmanager.log.level"), Level.INFO);
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0 && level != Level.OFF;
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void trace(String message, Object arg) {
+        if (isEnabled(Level.TRACE)) {
+            AsyncAppender.append(Level.TRACE, name, message, new Object[]{arg}, null);
+        }
+    }
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            AsyncAppender.append(Level.DEBUG, name, message, null, null);
+        }
+    }
+
+    public void debug(String message, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            AsyncAppender.append(Level.DEBUG, name, message, new Object[]{arg}, null);
+        }
+    }
+
+    public void debug(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            AsyncAppender.append(Level.DEBUG, name, message, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            AsyncAppender.append(Level.DEBUG, name, message.get(), null, null);
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            AsyncAppender.append(Level.INFO, name, message, null, null);
+        }
+    }
+
+    public void info(String message, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            AsyncAppender.append(Level.INFO, name, message, new Object[]{arg}, null);
+        }
+    }
+
+    public void info(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            AsyncAppender.append(Level.INFO, name, message, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void info(String message, Object arg1, Object arg2, Object... rest) {
+        if (isEnabled(Level.INFO)) {
+            Object[] args = new Object[2 + rest.length];
+            args[0] = arg1;
+            args[1] = arg2;
+            System.arraycopy(rest, 0, args, 2, rest.length);
+            AsyncAppender.append(Level.INFO, name, message, args, null);
+        }
+    }
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            AsyncAppender.append(Level.WARN, name, message, null, null);
+        }
+    }
+
+    public void warn(String message, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            AsyncAppender.append(Level.WARN, name, message, new Object[]{arg}, null);
+        }
+    }
+
+    public void warn(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            AsyncAppender.append(Level.WARN, name, message, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) {
+            AsyncAppender.append(Level.ERROR, name, message, null, null);
+        }
+    }
+
+    public void error(String message, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            AsyncAppender.append(Level.ERROR, name, message, new Object[]{arg}, null);
+        }
+    }
+
+    public void error(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            AsyncAppender.append(Level.ERROR, name, message, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            AsyncAppender.append(Level.ERROR, name, message, null, error);
+        }
+    }
+
+    // Подстановка аргументов вместо "{}" по порядку
+    static String format(String message, Object[] args) {
+        if (args == null || args.length == 0 || message == null) {
+            return message;
+        }
+
+        StringBuilder sb = new StringBuilder(message.length() + 32);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = message.indexOf("{}", start)) >= 0) {
+            sb.append(message, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        sb.append(message, start, message.length());
+        return sb.toString();
+    }
+}
@@ -1,36 +1,111 @@
 package org.example;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Main extends Application {
+    private static final Log log = Log.get(Main.class);
+    private static final java.nio.file.Path SNAPSHOT_PATH = java.nio.file.Paths.get("database", "tasks.snapshot");
+    private static final int WARM_UP_CONNECTIONS = 2;
 
     private ConnectionPool connectionPool;
     private TaskService taskService;
+    private TaskDao storageDao;
     private TaskDao taskDao;
-
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private MetricsHttpServer metricsServer;
+    // Назначается на потоке запуска после создания схемы
+    private volatile TaskApiServer apiServer;
+    private TaskArchive taskArchive;
+    private RetentionPurge retentionPurge;
+    private StorageMaintenance storageMaintenance;
+    private final JmxRegistry jmx = new JmxRegistry();
+
+    private final StartupTimeline startupTimeline = new StartupTimeline(metrics);
+    private ExecutorService startupExecutor;
+    private CompletableFuture<List<TaskRecord>> initialLoad;
+    private CompletableFuture<Void> apiStarted;
+
+    // Схема, прогрев пула и чтение снимка идут параллельно; начальная загрузка
+    // ждёт только схему и снимок и продолжается уже после показа окна
     @Override
     public void init() {
 
         try {
-            connectionPool = ConnectionPool.getInstance();
-
-            DatabaseInitializer dbInitializer = new DatabaseInitializer(connectionPool);
-            dbInitializer.initializeDatabase();
-
-            taskDao = new TaskDaoImpl(connectionPool);
-            taskService = new TaskService(taskDao);
+            AtomicInteger threadNumber = new AtomicInteger();
+            startupExecutor = Executors.newFixedThreadPool(3, runnable -> {
+                Thread thread = new Thread(runnable, "startup-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
 
-            if (taskDao instanceof TaskDaoImpl) {
-                ((TaskDaoImpl) taskDao).checkDatabaseFormat();
+            StorageBackend storage = StorageBackend.fromSystemProperty();
+            log.info("Хранилище: {} ({})", storage.getId(), storage.getUrl());
+            connectionPool = startupTimeline.time("pool", storage::createPool);
+            storageDao = storage.createDao(connectionPool);
+            taskDao = TimedTaskDao.wrap(storageDao, metrics);
+            taskService = new TaskService(taskDao, metrics);
+            metricsServer = MetricsHttpServer.startFromSystemProperty(metrics);
+
+            jmx.register("TaskCache", taskService);
+            jmx.register("Startup", startupTimeline);
+
+            // Без общего пула (journal, sharded) схему и пул DAO ведёт сам
+            CompletableFuture<Void> schema = CompletableFuture.completedFuture(null);
+            if (connectionPool != null) {
+                jmx.register("ConnectionPool", connectionPool);
+                jmx.register("SqliteSettings", new SqliteSettingsControl(connectionPool));
+
+                DatabaseInitializer dbInitializer = new DatabaseInitializer(connectionPool);
+                schema = CompletableFuture.runAsync(
+                        () -> startupTimeline.time("schema", dbInitializer::initializeDatabase), startupExecutor);
+                CompletableFuture.runAsync(
+                        () -> startupTimeline.time("pool-warmup", () -> connectionPool.warmUp(WARM_UP_CONNECTIONS)),
+                        startupExecutor);
+
+                taskArchive = new TaskArchive(connectionPool);
+                taskArchive.setDeletionListener(taskService::forgetTasks);
+                taskArchive.start(TaskArchive.DEFAULT_INTERVAL_MINUTES);
+                if (connectionPool.getDialect() instanceof SqliteDialect) {
+                    storageMaintenance = new StorageMaintenance(connectionPool);
+                    storageMaintenance.start();
+                }
+                retentionPurge = RetentionPurge.fromSystemProperty(connectionPool);
+                if (retentionPurge != null) {
+                    retentionPurge.setDeletionListener(taskService::forgetTasks);
+                    retentionPurge.start(RetentionPurge.DEFAULT_INTERVAL_MINUTES);
+                }
             }
+            CompletableFuture<Void> snapshot = CompletableFuture.runAsync(
+                    () -> startupTimeline.time("snapshot", () ->
+                            taskService.restoreSnapshot(TaskSnapshotFile.read(SNAPSHOT_PATH))),
+                    startupExecutor);
+
+            // API отвечает из тех же таблиц, поэтому открывается только после создания схемы
+            apiStarted = schema.thenRunAsync(() -> {
+                if (System.getProperty(TaskApiServer.PORT_PROPERTY) != null) {
+                    apiServer = TaskApiServer.startFromSystemProperty(taskService);
+                }
+            }, startupExecutor);
+
+            initialLoad = schema.thenCombine(snapshot, (ignored, ignoredToo) -> null)
+                    .thenApplyAsync(ignored ->
+                            startupTimeline.time("initial-load", () -> taskService.findAllSummaryRecords()), startupExecutor);
 
-            int taskCount = taskService.findAll().size();
+            // Снимок читается через mmap за миллисекунды, а окну он нужен сразу
+            snapshot.join();
 
         } catch (Exception e) {
-            System.err.println(e.getMessage());
-            e.printStackTrace();
+            log.error(e.getMessage(), e);
             throw new RuntimeException();
         }
     }
@@ -39,10 +114,12 @@ public class Main extends Application {
     public void start(Stage primaryStage) {
 
         try {
-            if (taskService == null) {
-            }
-
-            TaskView taskView = new TaskView(taskService);
+            // Первый кадр отмечается, когда таблица получила результат начальной загрузки,
+            // а не на первом импульсе после show(): окно к этому времени может быть пустым
+            TaskView taskView = startupTimeline.time("view", () ->
+                    new TaskView(taskService,
+                            connectionPool != null ? new TaskBulkTransfer(connectionPool) : null, initialLoad,
+                            this::markFirstFrameOnNextPulse));
 
             Scene scene = new Scene(taskView.getView(), 1200, 800);
             primaryStage.setScene(scene);
@@ -58,8 +135,7 @@ public class Main extends Application {
             primaryStage.show();
 
         } catch (Exception e) {
-            System.err.println(e.getMessage());
-            e.printStackTrace();
+            log.error(e.getMessage(), e);
 
         }
     }
@@ -67,19 +143,90 @@ public class Main extends Application {
     @Override
     public void stop() {
 
+        if (apiServer != null) {
+            apiServer.stop();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+        jmx.unregisterAll();
+        if (taskArchive != null) {
+            taskArchive.stop();
+        }
+        if (retentionPurge != null) {
+            retentionPurge.stop();
+        }
+        if (storageMaintenance != null) {
+            storageMaintenance.stop();
+        }
+
+        if (startupExecutor != null) {
+            startupExecutor.shutdownNow();
+        }
+
+        if (taskService != null) {
+            try {
+                TaskSnapshotFile.Snapshot snapshot = taskService.captureSnapshot();
+                if (snapshot != null) {
+                    TaskSnapshotFile.write(SNAPSHOT_PATH, snapshot);
+                }
+            } catch (Exception e) {
+                log.error("Не удалось сохранить снимок задач: {}", e.getMessage());
+            }
+        }
+
         if (connectionPool != null) {
             connectionPool.closeAllConnections();
         }
+        if (storageDao instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) storageDao).close();
+            } catch (Exception e) {
+                log.error("Ошибка закрытия хранилища: {}", e.getMessage());
+            }
+        }
 
     }
 
+    // Данные уже в таблице; ближайший импульс отрисует их
+    private void markFirstFrameOnNextPulse() {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                startupTimeline.markFirstFrame();
+                stop();
+            }
+        }.start();
+    }
+
+    // Без окна: то же хранилище, кэш и фоновые задачи, что в init(), плюс JSON API
+    // (порт -Dtaskmanager.api.port); останавливается по Ctrl+C или SIGTERM
+    private static void runHeadless() {
+        Main app = new Main();
+        app.init();
+        app.initialLoad.join();
+        app.apiStarted.join();
+        if (app.apiServer == null) {
+            app.apiServer = TaskApiServer.startFromSystemProperty(app.taskService);
+        }
+        if (app.apiServer == null) {
+            app.stop();
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(app::stop, "shutdown"));
+        log.info("Запущено без окна, API на порту {}", app.apiServer.getPort());
+    }
+
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--headless")) {
+            runHeadless();
+            return;
+        }
 
         try {
             launch(args);
         } catch (Exception e) {
-            System.err.println(e.getMessage());
-            e.printStackTrace();
+            log.error(e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,68 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Локальная точка /metrics в формате Prometheus. Слушает только 127.0.0.1;
+// включается свойством -Dtaskmanager.metrics.port=<порт>
+public class MetricsHttpServer {
+    public static final String PORT_PROPERTY = "taskmanager.metrics.port";
+    private static final Log log = Log.get(MetricsHttpServer.class);
+
+    private final HttpServer server;
+
+    public MetricsHttpServer(MetricsRegistry registry, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> handle(exchange, registry));
+    }
+
+    // null, если порт не задан или сервер не удалось запустить
+    public static MetricsHttpServer startFromSystemProperty(MetricsRegistry registry) {
+        String value = System.getProperty(PORT_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            MetricsHttpServer server = new MetricsHttpServer(registry, Integer.parseInt(value.trim()));
+            server.start();
+            return server;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Не удалось запустить сервер метрик на порту {}: {}", value, e.getMessage());
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+        log.info("Метрики доступны на http://127.0.0.1:{}/metrics", getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange, MetricsRegistry registry) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Реестр метрик операций. Имена вида "dao.findAll", "service.cacheRefresh"
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    // Число строк берётся из результата: размер списка, 0/1 для Optional и boolean
+    public <T> T time(String name, Supplier<T> action) {
+        OperationMetrics metrics = operation(name);
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            metrics.recordError(System.nanoTime() - started);
+            throw e;
+        }
+        metrics.record(System.nanoTime() - started, rowsOf(result));
+        return result;
+    }
+
+    public void time(String name, Runnable action) {
+        time(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> sorted = new ArrayList<>(operations.values());
+        sorted.sort(Comparator.comparing(OperationMetrics::getName));
+        return sorted;
+    }
+
+    private static long rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+        return 1;
+    }
+
+    // Текстовый формат Prometheus (exposition format 0.0.4)
+    public String toPrometheusText() {
+        List<OperationMetrics> snapshot = getOperations();
+        StringBuilder sb = new StringBuilder(256 + snapshot.size() * 512);
+
+        sb.append("# HELP taskmanager_operation_duration_seconds Длительность операций\n");
+        sb.append("# TYPE taskmanager_operation_duration_seconds summary\n");
+        for (OperationMetrics metrics : snapshot) {
+            String label = escapeLabel(metrics.getName());
+            LatencyHistogram latency = metrics.getLatency();
+            for (double quantile : QUANTILES) {
+                sb.append("taskmanager_operation_duration_seconds{operation=\"").append(label)
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(latency.getValueAtQuantile(quantile))).append('\n');
+            }
+            sb.append("taskmanager_operation_duration_seconds_sum{operation=\"").append(label).append("\"} ")
+                    .append(seconds(latency.getSumNanos())).append('\n');
+            sb.append("taskmanager_operation_duration_seconds_count{operation=\"").append(label).append("\"} ")
+                    .append(latency.getCount()).append('\n');
+        }
+
+        sb.append("# HELP taskmanager_operation_rows_total Строк возвращено операциями\n");
+        sb.append("# TYPE taskmanager_operation_rows_total counter\n");
+        for (OperationMetrics metrics : snapshot) {
+            sb.append("taskmanager_operation_rows_total{operation=\"").append(escapeLabel(metrics.getName()))
+                    .append("\"} ").append(metrics.getRows()).append('\n');
+        }
+
+        sb.append("# HELP taskmanager_operation_errors_total Операции, завершившиеся исключением\n");
+        sb.append("# TYPE taskmanager_operation_errors_total counter\n");
+        for (OperationMetrics metrics : snapshot) {
+            sb.append("taskmanager_operation_errors_total{operation=\"").append(escapeLabel(metrics.getName()))
+                    .append("\"} ").append(metrics.getErrors()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Короткая сводка для строки состояния: самые медленные по p99 операции
+    public String formatStatus(int limit) {
+        List<OperationMetrics> active = new ArrayList<>();
+        for (OperationMetrics metrics : operations.values()) {
+            if (metrics.getCount() > 0) {
+                active.add(metrics);
+            }
+        }
+        if (active.isEmpty()) {
+            return "Метрики: нет данных";
+        }
+        active.sort(Comparator.comparingDouble((OperationMetrics metrics) -> metrics.getQuantileMillis(0.99)).reversed());
+
+        StringBuilder sb = new StringBuilder("p50/p99, мс:");
+        for (int i = 0; i < Math.min(limit, active.size()); i++) {
+            OperationMetrics metrics = active.get(i);
+            sb.append(i == 0 ? " " : "; ").append(metrics.getName()).append(' ')
+                    .append(String.format(Locale.ROOT, "%.1f/%.1f",
+                            metrics.getQuantileMillis(0.5), metrics.getQuantileMillis(0.99)));
+            if (metrics.getErrors() > 0) {
+                sb.append(" (ошибок: ").append(metrics.getErrors()).append(')');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
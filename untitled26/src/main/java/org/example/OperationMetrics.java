@@ -0,0 +1,44 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Метрики одной операции: задержки, число возвращённых строк и ошибок
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, long rowCount) {
+        latency.record(nanos);
+        rows.add(rowCount);
+    }
+
+    public void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    // Ошибка вызова, время которого уже учтено через record()
+    public void countError() {
+        errors.increment();
+    }
+
+    public String getName() { return name; }
+
+    public LatencyHistogram getLatency() { return latency; }
+
+    public long getCount() { return latency.getCount(); }
+
+    public long getRows() { return rows.sum(); }
+
+    public long getErrors() { return errors.sum(); }
+
+    public double getQuantileMillis(double quantile) {
+        return latency.getValueAtQuantile(quantile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR: выдача соединения из ConnectionPool; длительность события - время ожидания
+@Name("org.example.PoolCheckout")
+@Label("Pool Checkout")
+@Category({"Task Manager", "Database"})
+@Description("Получение соединения из пула")
+public class PoolCheckoutEvent extends Event {
+    @Label("New Connection")
+    boolean newConnection;
+
+    @Label("Waited")
+    @Description("Свободных соединений не было, поток ждал возврата")
+    boolean waited;
+
+    @Label("Timed Out")
+    boolean timedOut;
+
+    @Label("Open Connections")
+    int openConnections;
+}
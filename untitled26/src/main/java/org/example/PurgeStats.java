@@ -0,0 +1,30 @@
+package org.example;
+
+public class PurgeStats {
+    private final long scannedRows;
+    private final long deletedRows;
+    private final int transactions;
+    private final long elapsedNanos;
+
+    public PurgeStats(long scannedRows, long deletedRows, int transactions, long elapsedNanos) {
+        this.scannedRows = scannedRows;
+        this.deletedRows = deletedRows;
+        this.transactions = transactions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getScannedRows() { return scannedRows; }
+
+    public long getDeletedRows() { return deletedRows; }
+
+    public int getTransactions() { return transactions; }
+
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    @Override
+    public String toString() {
+        return String.format("Просмотрено: %d, удалено: %d, транзакций: %d, время: %d мс, скорость: %.0f строк/с",
+                scannedRows, deletedRows, transactions, getElapsedMillis(),
+                TransferStats.rowsPerSecond(deletedRows, elapsedNanos));
+    }
+}
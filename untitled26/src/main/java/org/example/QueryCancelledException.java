@@ -0,0 +1,17 @@
+package org.example;
+
+// Запрос прерван: отменён через CancellationToken или превысил таймаут
+public class QueryCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean timedOut;
+
+    public QueryCancelledException(String method, boolean timedOut, Throwable cause) {
+        super((timedOut ? "Превышено время выполнения запроса " : "Запрос отменён ") + method, cause);
+        this.timedOut = timedOut;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
@@ -0,0 +1,186 @@
+package org.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+// Правило повторения серии задач: каждые interval дней, недель (по выбранным дням недели) или месяцев
+// начиная со start. Конец - дата until или число повторений; ограничение числом пересчитывается
+// в дату последнего повторения, поэтому развёртка окна не зависит от того, как задан конец.
+// Месячные повторения берут число из start; в коротких месяцах - последний день месяца.
+public final class RecurrenceRule {
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    static final int MAX_COUNT = 10000;
+    private static final int NO_COUNT = 0;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int weekdays; // WEEKLY: бит 0 - понедельник, бит 6 - воскресенье
+    private final LocalDate start;
+    private final LocalDate until; // последнее возможное повторение; null - без конца
+    private final int count;
+
+    private RecurrenceRule(Frequency frequency, int interval, int weekdays, LocalDate start, LocalDate until, int count) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.start = start;
+        this.until = until;
+        this.count = count;
+    }
+
+    // Для хранилища: правило из столбцов task_series
+    static RecurrenceRule of(Frequency frequency, int interval, int weekdays, LocalDate start, LocalDate until, int count) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал повторения должен быть положительным: " + interval);
+        }
+        if (start.toEpochDay() < 0) {
+            throw new IllegalArgumentException("Серия не может начинаться раньше 1970 года: " + start);
+        }
+        if (frequency == Frequency.WEEKLY && (weekdays & 0x7F) == 0) {
+            throw new IllegalArgumentException("Для еженедельной серии нужен хотя бы один день недели");
+        }
+        if (until != null && until.isBefore(start)) {
+            throw new IllegalArgumentException("Серия заканчивается раньше, чем начинается: " + until);
+        }
+        return new RecurrenceRule(frequency, interval, frequency == Frequency.WEEKLY ? weekdays & 0x7F : 0,
+                start, until, count);
+    }
+
+    public static RecurrenceRule daily(LocalDate start) {
+        return of(Frequency.DAILY, 1, 0, start, null, NO_COUNT);
+    }
+
+    // Без дней недели - день недели start
+    public static RecurrenceRule weekly(LocalDate start, DayOfWeek... days) {
+        int mask = 0;
+        for (DayOfWeek day : days.length > 0 ? days : new DayOfWeek[]{start.getDayOfWeek()}) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return of(Frequency.WEEKLY, 1, mask, start, null, NO_COUNT);
+    }
+
+    public static RecurrenceRule monthly(LocalDate start) {
+        return of(Frequency.MONTHLY, 1, 0, start, null, NO_COUNT);
+    }
+
+    public RecurrenceRule every(int value) {
+        RecurrenceRule rule = of(frequency, value, weekdays, start, null, NO_COUNT);
+        return count != NO_COUNT ? rule.times(count) : until != null ? rule.until(until) : rule;
+    }
+
+    public RecurrenceRule until(LocalDate value) {
+        return of(frequency, interval, weekdays, start, value, NO_COUNT);
+    }
+
+    public RecurrenceRule times(int value) {
+        if (value < 1 || value > MAX_COUNT) {
+            throw new IllegalArgumentException("Число повторений должно быть от 1 до " + MAX_COUNT + ": " + value);
+        }
+        RecurrenceRule unbounded = of(frequency, interval, weekdays, start, null, NO_COUNT);
+        LocalDate last = start;
+        int found = 0;
+        // Окна по году: повторений в году не больше 366, так что цикл короткий
+        for (LocalDate from = start; found < value; from = from.plusYears(1)) {
+            for (LocalDate date : unbounded.occurrencesBetween(from, from.plusYears(1).minusDays(1))) {
+                last = date;
+                if (++found == value) {
+                    break;
+                }
+            }
+        }
+        return of(frequency, interval, weekdays, start, last, value);
+    }
+
+    public Frequency getFrequency() { return frequency; }
+
+    public int getInterval() { return interval; }
+
+    public int getWeekdays() { return weekdays; }
+
+    public LocalDate getStart() { return start; }
+
+    public LocalDate getUntil() { return until; }
+
+    // 0 - конец задан датой или не задан
+    public int getCount() { return count; }
+
+    public boolean occursOn(LocalDate date) {
+        return !occurrencesBetween(date, date).isEmpty();
+    }
+
+    // Даты повторений в [from, to] по возрастанию. Перебираются только периоды, попадающие в окно:
+    // первый из них вычисляется арифметически, без прохода от начала серии
+    public List<LocalDate> occurrencesBetween(LocalDate from, LocalDate to) {
+        LocalDate first = from.isBefore(start) ? start : from;
+        LocalDate last = until != null && until.isBefore(to) ? until : to;
+        List<LocalDate> dates = new ArrayList<>();
+        if (first.isAfter(last)) {
+            return dates;
+        }
+
+        switch (frequency) {
+            case DAILY -> {
+                long offset = ceilToInterval(ChronoUnit.DAYS.between(start, first));
+                for (LocalDate date = start.plusDays(offset); !date.isAfter(last); date = date.plusDays(interval)) {
+                    dates.add(date);
+                }
+            }
+            case WEEKLY -> {
+                LocalDate startWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                LocalDate firstWeek = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                long weeks = ChronoUnit.WEEKS.between(startWeek, firstWeek);
+                for (LocalDate week = startWeek.plusWeeks(ceilToInterval(weeks)); !week.isAfter(last);
+                     week = week.plusWeeks(interval)) {
+                    for (int day = 0; day < 7; day++) {
+                        LocalDate date = week.plusDays(day);
+                        if ((weekdays & (1 << day)) != 0 && !date.isBefore(first) && !date.isAfter(last)) {
+                            dates.add(date);
+                        }
+                    }
+                }
+            }
+            case MONTHLY -> {
+                long months = ceilToInterval(ChronoUnit.MONTHS.between(start.withDayOfMonth(1), first.withDayOfMonth(1)));
+                for (LocalDate date = start.plusMonths(months); !date.isAfter(last);
+                     months += interval, date = start.plusMonths(months)) {
+                    if (!date.isBefore(first)) {
+                        dates.add(date);
+                    }
+                }
+            }
+        }
+        return dates;
+    }
+
+    // Наименьшее кратное interval, не меньшее value
+    private long ceilToInterval(long value) {
+        return (value + interval - 1) / interval * interval;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(frequency.name()).append(" every ").append(interval);
+        if (frequency == Frequency.WEEKLY) {
+            sb.append(" on ");
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if ((weekdays & (1 << (day.getValue() - 1))) != 0) {
+                    sb.append(day.name(), 0, 3).append(' ');
+                }
+            }
+            sb.setLength(sb.length() - 1);
+        }
+        sb.append(" from ").append(start);
+        if (count != NO_COUNT) {
+            sb.append(" x").append(count);
+        }
+        if (until != null) {
+            sb.append(" until ").append(until);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,317 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Повторяющиеся задачи: серия хранится одной строкой task_series с правилом повторения,
+// а повторения разворачиваются только в пределах запрошенного окна дат.
+// Состояние хранится лишь для повторений, отличающихся от правила (task_series_exceptions):
+// выполненные и пропущенные. Снятие отметки удаляет строку - повторение снова идёт по правилу.
+// Повторения не попадают в tasks, журнал изменений и кэш TaskService: их id отрицательные
+// и кодируют серию и дату, так что по id повторение находится без отдельной таблицы.
+public class RecurringTasks {
+    private static final Log log = Log.get(RecurringTasks.class);
+    // Id повторения: -(id серии * DAY_SPAN + номер дня от 1970-01-01); DAY_SPAN дней - около 11 тысяч лет
+    static final long DAY_SPAN = 1L << 22;
+    private static final String COMPLETED = "C";
+    private static final String SKIPPED = "S";
+
+    private static final String COLUMNS = "id, title, description, priority, category, frequency, " +
+            "interval_count, weekdays, start_date, end_date, occurrence_count";
+
+    // Порядок "due_date ASC, priority DESC" из запросов DAO. priority там текст, поэтому DESC -
+    // по имени (MEDIUM, LOW, HIGH), как BY_DUE_DATE_THEN_PRIORITY в ShardedTaskDao. Им же TaskService
+    // сортирует задачи вместе с повторениями; сортировка устойчивая, равные строки не переставляются
+    static final Comparator<Task> OCCURRENCE_ORDER = Comparator
+            .comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(task -> task.getPriority() != null ? task.getPriority().name() : null,
+                    Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final ConnectionPool connectionPool;
+
+    public RecurringTasks(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    private record Series(long id, Task template, RecurrenceRule rule) {
+    }
+
+    public static boolean isOccurrenceId(Long id) {
+        return id != null && id < 0;
+    }
+
+    public static long occurrenceId(long seriesId, LocalDate date) {
+        return -(seriesId * DAY_SPAN + date.toEpochDay());
+    }
+
+    public static long seriesIdOf(long occurrenceId) {
+        return -occurrenceId / DAY_SPAN;
+    }
+
+    public static LocalDate dateOf(long occurrenceId) {
+        return LocalDate.ofEpochDay(-occurrenceId % DAY_SPAN);
+    }
+
+    // Название, описание, приоритет и категория берутся из template; срок задаёт правило
+    public long createSeries(Task template, RecurrenceRule rule) {
+        String sql = "INSERT INTO task_series (title, description, priority, category, frequency, " +
+                "interval_count, weekdays, start_date, end_date, occurrence_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, template.getTitle());
+                stmt.setString(2, template.getDescription());
+                stmt.setString(3, (template.getPriority() != null ? template.getPriority() : Task.Priority.MEDIUM).name());
+                stmt.setString(4, template.getCategory());
+                stmt.setString(5, rule.getFrequency().name());
+                stmt.setInt(6, rule.getInterval());
+                stmt.setInt(7, rule.getWeekdays());
+                stmt.setString(8, rule.getStart().toString());
+                stmt.setString(9, rule.getUntil() != null ? rule.getUntil().toString() : null);
+                stmt.setInt(10, rule.getCount());
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("СУБД не вернула id серии");
+                    }
+                    long id = keys.getLong(1);
+                    log.debug("Создана серия {}: {}", id, rule);
+                    return id;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось создать серию задач", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Исключения серии удаляются каскадом
+    public boolean deleteSeries(long seriesId) {
+        return update("deleteSeries", "DELETE FROM task_series WHERE id = ?", seriesId) > 0;
+    }
+
+    public long countSeries() {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM task_series");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.error("Ошибка подсчёта серий: {}", e.getMessage());
+            return 0;
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Повторения всех серий в [from, to] с учётом исключений; пропущенные не возвращаются
+    public List<Task> findOccurrences(LocalDate from, LocalDate to) {
+        List<Task> occurrences = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return occurrences;
+        }
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            List<Series> series = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT " + COLUMNS + " FROM task_series " +
+                    "WHERE start_date <= ? AND (end_date IS NULL OR end_date >= ?)")) {
+                stmt.setString(1, to.toString());
+                stmt.setString(2, from.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        series.add(mapSeries(rs));
+                    }
+                }
+            }
+            if (series.isEmpty()) {
+                return occurrences;
+            }
+
+            Map<Long, String> states = new HashMap<>();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT series_id, occurrence_date, state " +
+                    "FROM task_series_exceptions WHERE occurrence_date >= ? AND occurrence_date <= ?")) {
+                stmt.setString(1, from.toString());
+                stmt.setString(2, to.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        states.put(occurrenceId(rs.getLong(1), LocalDate.parse(rs.getString(2))), rs.getString(3));
+                    }
+                }
+            }
+
+            for (Series item : series) {
+                for (LocalDate date : item.rule().occurrencesBetween(from, to)) {
+                    String state = states.get(occurrenceId(item.id(), date));
+                    if (!SKIPPED.equals(state)) {
+                        occurrences.add(occurrence(item, date, COMPLETED.equals(state)));
+                    }
+                }
+            }
+            occurrences.sort(OCCURRENCE_ORDER);
+        } catch (SQLException e) {
+            log.error("Ошибка развёртки повторяющихся задач: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+        return occurrences;
+    }
+
+    // Пустой результат, если серии нет, дата не по правилу или повторение пропущено
+    public Optional<Task> findOccurrence(long occurrenceId) {
+        long seriesId = seriesIdOf(occurrenceId);
+        LocalDate date = dateOf(occurrenceId);
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            Series series = findSeries(connection, seriesId);
+            if (series == null || !series.rule().occursOn(date)) {
+                return Optional.empty();
+            }
+            String state = findState(connection, seriesId, date);
+            return SKIPPED.equals(state) ? Optional.empty()
+                    : Optional.of(occurrence(series, date, COMPLETED.equals(state)));
+        } catch (SQLException e) {
+            log.error("Ошибка чтения повторения {}: {}", occurrenceId, e.getMessage());
+            return Optional.empty();
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Отметка совпадает с правилом (не выполнено) - исключение удаляется
+    public boolean setCompleted(long occurrenceId, boolean completed) {
+        return setState(occurrenceId, completed ? COMPLETED : null);
+    }
+
+    // Повторение исчезает из окна, остальная серия не меняется
+    public boolean skip(long occurrenceId) {
+        return setState(occurrenceId, SKIPPED);
+    }
+
+    // Удаление и вставка вместо upsert: так одинаково для SQLite и H2
+    private boolean setState(long occurrenceId, String state) {
+        long seriesId = seriesIdOf(occurrenceId);
+        LocalDate date = dateOf(occurrenceId);
+        Connection connection = null;
+        try {
+            // Внутри TaskService.inTransaction фиксирует внешняя транзакция
+            boolean ownTransaction = !connectionPool.isInTransaction();
+            connection = connectionPool.getConnection();
+            // Проверки идут уже в транзакции: между ними и записью серию не удалят и не пропустят
+            if (ownTransaction) {
+                connectionPool.getDialect().beginWriteTransaction(connection);
+            }
+            Series series = findSeries(connection, seriesId);
+            if (series == null || !series.rule().occursOn(date) || SKIPPED.equals(findState(connection, seriesId, date))) {
+                return false;
+            }
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM task_series_exceptions WHERE series_id = ? AND occurrence_date = ?")) {
+                delete.setLong(1, seriesId);
+                delete.setString(2, date.toString());
+                delete.executeUpdate();
+            }
+            if (state != null) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO task_series_exceptions (series_id, occurrence_date, state) VALUES (?, ?, ?)")) {
+                    insert.setLong(1, seriesId);
+                    insert.setString(2, date.toString());
+                    insert.setString(3, state);
+                    insert.executeUpdate();
+                }
+            }
+            if (ownTransaction) {
+                connection.commit();
+            }
+            return true;
+        } catch (SQLException e) {
+            log.error("Ошибка изменения повторения {}: {}", occurrenceId, e.getMessage());
+            return false;
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    private Series findSeries(Connection connection, long seriesId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT " + COLUMNS + " FROM task_series WHERE id = ?")) {
+            stmt.setLong(1, seriesId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapSeries(rs) : null;
+            }
+        }
+    }
+
+    private String findState(Connection connection, long seriesId, LocalDate date) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT state FROM task_series_exceptions WHERE series_id = ? AND occurrence_date = ?")) {
+            stmt.setLong(1, seriesId);
+            stmt.setString(2, date.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private int update(String operation, String sql, long id) {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setLong(1, id);
+                return stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            log.error("Ошибка в {}: {}", operation, e.getMessage());
+            return 0;
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    private static Series mapSeries(ResultSet rs) throws SQLException {
+        Task template = new Task(rs.getString("title"), rs.getString("description"), null,
+                Task.Priority.valueOf(rs.getString("priority")), rs.getString("category"));
+        String endDate = rs.getString("end_date");
+        RecurrenceRule rule = RecurrenceRule.of(RecurrenceRule.Frequency.valueOf(rs.getString("frequency")),
+                rs.getInt("interval_count"), rs.getInt("weekdays"), LocalDate.parse(rs.getString("start_date")),
+                endDate != null ? LocalDate.parse(endDate) : null, rs.getInt("occurrence_count"));
+        return new Series(rs.getLong("id"), template, rule);
+    }
+
+    private static Task occurrence(Series series, LocalDate date, boolean completed) {
+        Task template = series.template();
+        Task task = new Task(template.getTitle(), template.getDescription(), date,
+                template.getPriority(), template.getCategory());
+        task.setId(occurrenceId(series.id(), date));
+        task.setCompleted(completed);
+        task.setCreatedAt(null);
+        return task;
+    }
+}
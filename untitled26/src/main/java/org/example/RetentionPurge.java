@@ -0,0 +1,249 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Удаление задач по правилам хранения. Таблица проходится по возрастанию id порциями
+// по chunkSize строк: каждая порция - своя короткая транзакция, между ними пауза, чтобы другие писатели
+// получили блокировку, а общая скорость ограничена maxRowsPerSecond.
+// Удаления идут обычным DELETE, поэтому попадают в журнал изменений, и кэш TaskService
+// (а с ним и снимок) синхронизируется как после любых других изменений; кэш задач по id
+// узнаёт об удалении через TaskDeletionListener.
+public class RetentionPurge {
+    private static final Log log = Log.get(RetentionPurge.class);
+    public static final String RULES_PROPERTY = "taskmanager.retention.rules";
+    public static final int DEFAULT_INTERVAL_MINUTES = Integer.getInteger("taskmanager.retention.intervalMinutes", 24 * 60);
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int DEFAULT_MAX_ROWS_PER_SECOND = 2000;
+    private static final long PAUSE_BETWEEN_CHUNKS_MS = 20;
+    // Повторы порции, не получившей блокировку записи даже после busy_timeout
+    static final int MAX_BUSY_ATTEMPTS = 3;
+    private static final long BUSY_RETRY_PAUSE_MS = 200;
+
+    public interface ProgressListener {
+        void onProgress(long deletedRows, double fractionDone);
+    }
+
+    private final ConnectionPool connectionPool;
+    private final List<RetentionRule> rules;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+    private ScheduledExecutorService scheduler;
+    private volatile TaskDeletionListener deletionListener;
+
+    public RetentionPurge(ConnectionPool connectionPool, List<RetentionRule> rules) {
+        this(connectionPool, rules, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_ROWS_PER_SECOND);
+    }
+
+    public RetentionPurge(ConnectionPool connectionPool, List<RetentionRule> rules, int chunkSize, int maxRowsPerSecond) {
+        if (rules.isEmpty() || chunkSize < 1 || maxRowsPerSecond < 1) {
+            throw new IllegalArgumentException("Некорректные параметры очистки: правил " + rules.size() +
+                    ", chunkSize=" + chunkSize + ", maxRowsPerSecond=" + maxRowsPerSecond);
+        }
+        this.connectionPool = connectionPool;
+        this.rules = List.copyOf(rules);
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    // Вызывается после фиксации каждой порции с удалёнными строками
+    public void setDeletionListener(TaskDeletionListener deletionListener) {
+        this.deletionListener = deletionListener;
+    }
+
+    // null, если правила не заданы
+    public static RetentionPurge fromSystemProperty(ConnectionPool connectionPool) {
+        String rules = System.getProperty(RULES_PROPERTY);
+        if (rules == null || rules.isBlank()) {
+            return null;
+        }
+        return new RetentionPurge(connectionPool, RetentionRule.parse(rules));
+    }
+
+    public synchronized void start(long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retention-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                purge(null);
+            } catch (RuntimeException e) {
+                log.error("Ошибка очистки по правилам хранения: {}", e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        log.info("Очистка по правилам {} каждые {} мин", rules, intervalMinutes);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public PurgeStats purge(ProgressListener listener) {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        long[] range = idRange();
+        long scanned = 0;
+        long deleted = 0;
+        int transactions = 0;
+
+        if (range != null) {
+            long minId = range[0];
+            // Задачи, добавленные во время очистки, не просматриваются
+            long maxId = range[1];
+            long afterId = minId - 1;
+            while (afterId < maxId) {
+                long[] chunk = purgeChunk(afterId, maxId, today);
+                if (chunk[0] == 0) {
+                    break;
+                }
+                scanned += chunk[0];
+                deleted += chunk[1];
+                transactions++;
+                afterId = chunk[2];
+                if (listener != null) {
+                    listener.onProgress(deleted, (double) (afterId - minId + 1) / (maxId - minId + 1));
+                }
+                if (!pause(started, deleted)) {
+                    log.warn("Очистка прервана на id {}", afterId);
+                    break;
+                }
+            }
+        }
+
+        PurgeStats stats = new PurgeStats(scanned, deleted, transactions, System.nanoTime() - started);
+        if (deleted > 0) {
+            log.info("Очистка по правилам хранения: {}", stats);
+        }
+        return stats;
+    }
+
+    // Пауза между транзакциями плюс ожидание, если удаляем быстрее maxRowsPerSecond.
+    // false, если поток прерван
+    private boolean pause(long started, long deleted) {
+        long expectedNanos = deleted * 1_000_000_000L / maxRowsPerSecond;
+        long aheadMillis = (expectedNanos - (System.nanoTime() - started)) / 1_000_000;
+        try {
+            Thread.sleep(Math.max(PAUSE_BETWEEN_CHUNKS_MS, aheadMillis));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long[] idRange() {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT MIN(id), MAX(id) FROM tasks");
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    return new long[] {rs.getLong(1), rs.getLong(2)};
+                }
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось определить диапазон id", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Занятая база не прерывает очистку: порция повторяется с паузой, и только после
+    // MAX_BUSY_ATTEMPTS попыток ошибка уходит наверх
+    private long[] purgeChunk(long afterId, long maxId, LocalDate today) {
+        SqlDialect dialect = connectionPool.getDialect();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return purgeChunkOnce(afterId, maxId, today);
+            } catch (SQLException e) {
+                if (!dialect.isBusy(e) || attempt == MAX_BUSY_ATTEMPTS) {
+                    throw new RuntimeException("Ошибка очистки задач после id " + afterId, e);
+                }
+                log.warn("База занята, порция после id {} будет повторена: {}", afterId, e.getMessage());
+                try {
+                    Thread.sleep(BUSY_RETRY_PAUSE_MS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Очистка прервана на id " + afterId, interrupted);
+                }
+            }
+        }
+    }
+
+    // Чтение и удаление в одной транзакции: задача, изменённая после проверки правил,
+    // не будет удалена по устаревшим данным. Блокировка записи берётся в начале транзакции:
+    // отложенная транзакция в WAL не смогла бы перейти от чтения к удалению, если другой
+    // писатель успел закоммитить. Результат: {просмотрено, удалено, последний id}
+    private long[] purgeChunkOnce(long afterId, long maxId, LocalDate today) throws SQLException {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            connectionPool.getDialect().beginWriteTransaction(connection);
+
+            long scanned = 0;
+            long lastId = afterId;
+            List<Long> expired = new ArrayList<>();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, due_date, completed, category FROM tasks WHERE id > ? AND id <= ? ORDER BY id LIMIT ?")) {
+                select.setLong(1, afterId);
+                select.setLong(2, maxId);
+                select.setInt(3, chunkSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        scanned++;
+                        lastId = rs.getLong("id");
+                        LocalDate dueDate = JdbcTaskDao.parseDueDate(rs.getString("due_date"));
+                        boolean completed = rs.getBoolean("completed");
+                        String category = rs.getString("category");
+                        for (RetentionRule rule : rules) {
+                            if (rule.matches(dueDate, completed, category, today)) {
+                                expired.add(lastId);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (!expired.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tasks WHERE id = ?")) {
+                    for (Long id : expired) {
+                        delete.setLong(1, id);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+            connection.commit();
+            TaskDeletionListener listener = deletionListener;
+            if (listener != null && !expired.isEmpty()) {
+                listener.onTasksDeleted(expired);
+            }
+            return new long[] {scanned, expired.size(), lastId};
+
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+}
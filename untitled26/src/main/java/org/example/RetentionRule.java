@@ -0,0 +1,107 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Правило хранения: задача удаляется, если выполнены все заданные условия.
+// Строковая форма для -Dtaskmanager.retention.rules: правила через ';', условия через ',':
+// "completed,age=365;category=Черновики,age=30"
+public final class RetentionRule {
+    private static final int ANY_AGE = -1;
+
+    private final int olderThanDays; // по сроку задачи
+    private final boolean completedOnly;
+    private final String category;
+
+    private RetentionRule(int olderThanDays, boolean completedOnly, String category) {
+        this.olderThanDays = olderThanDays;
+        this.completedOnly = completedOnly;
+        this.category = category;
+    }
+
+    private static int checkAge(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Возраст не может быть отрицательным: " + days);
+        }
+        return days;
+    }
+
+    public static RetentionRule olderThan(int days) {
+        return new RetentionRule(checkAge(days), false, null);
+    }
+
+    public static RetentionRule completed() {
+        return new RetentionRule(ANY_AGE, true, null);
+    }
+
+    public static RetentionRule inCategory(String category) {
+        return new RetentionRule(ANY_AGE, false, category);
+    }
+
+    public RetentionRule andOlderThan(int days) {
+        return new RetentionRule(checkAge(days), completedOnly, category);
+    }
+
+    public RetentionRule andCompleted() {
+        return new RetentionRule(olderThanDays, true, category);
+    }
+
+    public RetentionRule andCategory(String value) {
+        return new RetentionRule(olderThanDays, completedOnly, value);
+    }
+
+    public boolean matches(LocalDate dueDate, boolean completed, String taskCategory, LocalDate today) {
+        if (completedOnly && !completed) {
+            return false;
+        }
+        if (category != null && !category.equals(taskCategory)) {
+            return false;
+        }
+        return olderThanDays == ANY_AGE || dueDate.isBefore(today.minusDays(olderThanDays));
+    }
+
+    public static List<RetentionRule> parse(String text) {
+        List<RetentionRule> rules = new ArrayList<>();
+        for (String ruleText : text.split(";")) {
+            if (ruleText.isBlank()) {
+                continue;
+            }
+            RetentionRule rule = null;
+            for (String condition : ruleText.split(",")) {
+                String[] parts = condition.trim().split("=", 2);
+                String key = parts[0].trim().toLowerCase(Locale.ROOT);
+                RetentionRule next;
+                if (key.equals("completed") && parts.length == 1) {
+                    next = rule != null ? rule.andCompleted() : completed();
+                } else if (key.equals("age") && parts.length == 2) {
+                    int days = Integer.parseInt(parts[1].trim());
+                    next = rule != null ? rule.andOlderThan(days) : olderThan(days);
+                } else if (key.equals("category") && parts.length == 2) {
+                    next = rule != null ? rule.andCategory(parts[1].trim()) : inCategory(parts[1].trim());
+                } else {
+                    throw new IllegalArgumentException("Неизвестное условие хранения: " + condition);
+                }
+                rule = next;
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        List<String> conditions = new ArrayList<>();
+        if (completedOnly) {
+            conditions.add("completed");
+        }
+        if (category != null) {
+            conditions.add("category=" + category);
+        }
+        if (olderThanDays != ANY_AGE) {
+            conditions.add("age=" + olderThanDays);
+        }
+        return String.join(",", conditions);
+    }
+}
@@ -0,0 +1,383 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Задачи разложены по N файлам SQLite, у каждого свой пул и свой писатель,
+// поэтому записи в разные шарды не ждут друг друга.
+// Шард зашит в id: id = локальный id * N + номер шарда, так что поиск по id идёт
+// в один файл, а новые задачи раскладываются по кругу. Выборки по всем задачам
+// запрашивают шарды параллельно и сливают уже отсортированные ответы (k-way merge).
+// Число шардов записано в каждом файле и не может меняться без переноса данных.
+public class ShardedTaskDao implements TaskDao, AutoCloseable {
+    private static final Log log = Log.get(ShardedTaskDao.class);
+    public static final int DEFAULT_SHARD_COUNT = Integer.getInteger("taskmanager.shards", 4);
+    private static final int POOL_SIZE_PER_SHARD = 2;
+
+    // Порядок совпадает с ORDER BY в JdbcTaskDao
+    private static final Comparator<Task> BY_DUE_DATE = Comparator.comparing(Task::getDueDate);
+    private static final Comparator<Task> BY_DUE_DATE_THEN_PRIORITY = BY_DUE_DATE
+            .thenComparing(task -> task.getPriority().name(), Comparator.reverseOrder());
+    private static final Comparator<Task> BY_PRIORITY_DESC =
+            Comparator.comparing((Task task) -> task.getPriority().name()).reversed();
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<JdbcTaskDao> shards = new ArrayList<>();
+    private final ExecutorService executor;
+    private final AtomicLong nextShard = new AtomicLong();
+
+    public ShardedTaskDao(Path dir, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        for (int i = 0; i < shardCount; i++) {
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("tasks-" + i + ".db"), POOL_SIZE_PER_SHARD);
+            pools.add(pool);
+            new DatabaseInitializer(pool).initializeDatabase();
+            checkShardInfo(pool, i, shardCount);
+            shards.add(new JdbcTaskDao(pool));
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Шардированное хранилище: {} ({} шардов)", dir, shardCount);
+    }
+
+    // Защита от открытия тех же файлов с другим числом шардов: id разошлись бы по чужим файлам
+    private static void checkShardInfo(ConnectionPool pool, int index, int count) {
+        Connection connection = null;
+        try {
+            connection = pool.getConnection();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS shard_info (shard_index INTEGER NOT NULL, shard_count INTEGER NOT NULL)");
+                try (ResultSet rs = stmt.executeQuery("SELECT shard_index, shard_count FROM shard_info")) {
+                    if (rs.next()) {
+                        if (rs.getInt(1) != index || rs.getInt(2) != count) {
+                            throw new IllegalStateException("Файл " + pool.getUrl() + " принадлежит шарду " +
+                                    rs.getInt(1) + " из " + rs.getInt(2) + ", ожидался " + index + " из " + count);
+                        }
+                        return;
+                    }
+                }
+                stmt.executeUpdate("INSERT INTO shard_info (shard_index, shard_count) VALUES (" + index + ", " + count + ")");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (connection != null) {
+                pool.releaseConnection(connection);
+            }
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    int shardOf(long id) {
+        return (int) (id % shards.size());
+    }
+
+    private long toGlobalId(long localId, int shard) {
+        return localId * shards.size() + shard;
+    }
+
+    private long toLocalId(long id) {
+        return id / shards.size();
+    }
+
+    // Шарду уходит копия с локальным id: объект вызывающего не меняется даже на время вызова
+    private static Task withLocalId(Task task, Long localId) {
+        Task copy = new Task(task.getTitle(), task.getDescription(), task.getDueDate(),
+                task.getPriority(), task.getCategory());
+        copy.setId(localId);
+        copy.setCompleted(task.isCompleted());
+        copy.setCreatedAt(task.getCreatedAt());
+        return copy;
+    }
+
+    private Task withGlobalId(Task task, int shard) {
+        task.setId(toGlobalId(task.getId(), shard));
+        return task;
+    }
+
+    // Токен отмены живёт в ThreadLocal, поэтому передаётся в потоки шардов явно
+    private <T> List<T> fanOut(Function<JdbcTaskDao, T> query) {
+        return fanOutByShard((index, shard) -> query.apply(shard));
+    }
+
+    // Запрос получает номер шарда, когда параметры у шардов разные
+    private <T> List<T> fanOutByShard(BiFunction<Integer, JdbcTaskDao, T> query) {
+        CancellationToken token = CancellationToken.current();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int index = i;
+            JdbcTaskDao shard = shards.get(i);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> CancellationToken.callWith(token, () -> query.apply(index, shard)), executor));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private List<Task> fanOutTasks(Function<JdbcTaskDao, List<Task>> query, Comparator<Task> order) {
+        List<List<Task>> results = fanOut(query);
+        for (int shard = 0; shard < results.size(); shard++) {
+            for (Task task : results.get(shard)) {
+                withGlobalId(task, shard);
+            }
+        }
+        return merge(results, order);
+    }
+
+    private static final class Cursor {
+        final List<Task> tasks;
+        int next;
+
+        Cursor(List<Task> tasks) {
+            this.tasks = tasks;
+        }
+
+        Task current() {
+            return tasks.get(next);
+        }
+    }
+
+    // Слияние отсортированных списков: O(n log k) вместо сортировки всего результата
+    static List<Task> merge(List<List<Task>> sorted, Comparator<Task> order) {
+        int total = 0;
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(a.current(), b.current()));
+        for (List<Task> tasks : sorted) {
+            total += tasks.size();
+            if (!tasks.isEmpty()) {
+                heap.add(new Cursor(tasks));
+            }
+        }
+
+        List<Task> merged = new ArrayList<>(total);
+        while (!heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            merged.add(cursor.current());
+            if (++cursor.next < cursor.tasks.size()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        int shard = shardOf(id);
+        return shards.get(shard).findById(toLocalId(id)).map(task -> withGlobalId(task, shard));
+    }
+
+    // id раскладываются по шардам, каждый шард получает один findByIds
+    @Override
+    public List<Task> findByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> unique = new LinkedHashSet<>(ids);
+        List<List<Long>> localIds = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            localIds.add(new ArrayList<>());
+        }
+        for (Long id : unique) {
+            localIds.get(shardOf(id)).add(toLocalId(id));
+        }
+
+        Map<Long, Task> found = new HashMap<>(unique.size() * 2);
+        List<List<Task>> results = fanOutByShard((index, shard) -> localIds.get(index).isEmpty()
+                ? List.<Task>of() : shard.findByIds(localIds.get(index)));
+        for (int shard = 0; shard < results.size(); shard++) {
+            for (Task task : results.get(shard)) {
+                found.put(withGlobalId(task, shard).getId(), task);
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>(found.size());
+        for (Long id : unique) {
+            Task task = found.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return fanOutTasks(JdbcTaskDao::findAll, BY_DUE_DATE);
+    }
+
+    @Override
+    public List<Task> findAllSummaries() {
+        return fanOutTasks(JdbcTaskDao::findAllSummaries, BY_DUE_DATE);
+    }
+
+    @Override
+    public Optional<String> findDescription(Long id) {
+        return shards.get(shardOf(id)).findDescription(toLocalId(id));
+    }
+
+    @Override
+    public Long save(Task task) {
+        int shard = (int) Math.floorMod(nextShard.getAndIncrement(), (long) shards.size());
+        Long localId = shards.get(shard).save(task);
+        return localId != null ? toGlobalId(localId, shard) : null;
+    }
+
+    // Задача с id остаётся в своём шарде, новая идёт в следующий по кругу
+    private int shardForWrite(Task task) {
+        return task.getId() != null ? shardOf(task.getId())
+                : (int) Math.floorMod(nextShard.getAndIncrement(), (long) shards.size());
+    }
+
+    @Override
+    public Task upsert(Task task) {
+        Long id = task.getId();
+        int shard = shardForWrite(task);
+        Task stored = shards.get(shard).upsert(withLocalId(task, id != null ? toLocalId(id) : null));
+        return stored != null ? withGlobalId(stored, shard) : null;
+    }
+
+    // Каждый шард сохраняет свою часть одной транзакцией; атомарности между шардами нет:
+    // если шард не смог сохранить свою часть, её задач нет в результате
+    @Override
+    public List<Task> upsertAll(List<Task> tasks) {
+        List<List<Task>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        int[] shardOfTask = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            shardOfTask[i] = shardForWrite(task);
+            byShard.get(shardOfTask[i]).add(withLocalId(task, task.getId() != null ? toLocalId(task.getId()) : null));
+        }
+
+        List<List<Task>> results = fanOutByShard((index, shard) -> byShard.get(index).isEmpty()
+                ? List.<Task>of() : shard.upsertAll(byShard.get(index)));
+
+        int[] next = new int[shards.size()];
+        List<Task> stored = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            int shard = shardOfTask[i];
+            List<Task> shardResult = results.get(shard);
+            if (next[shard] < shardResult.size()) {
+                stored.add(withGlobalId(shardResult.get(next[shard]++), shard));
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return shards.get(shardOf(id)).delete(toLocalId(id));
+    }
+
+    @Override
+    public boolean update(Task task) {
+        if (task.getId() == null) {
+            return false;
+        }
+        long id = task.getId();
+        return shards.get(shardOf(id)).update(withLocalId(task, toLocalId(id)));
+    }
+
+    @Override
+    public List<Task> findByCompleted(boolean completed) {
+        return fanOutTasks(shard -> shard.findByCompleted(completed), BY_DUE_DATE);
+    }
+
+    @Override
+    public List<Task> findByDueDate(LocalDate dueDate) {
+        return fanOutTasks(shard -> shard.findByDueDate(dueDate), BY_PRIORITY_DESC);
+    }
+
+    @Override
+    public List<Task> findOverdueTasks() {
+        return fanOutTasks(JdbcTaskDao::findOverdueTasks, BY_DUE_DATE);
+    }
+
+    @Override
+    public List<Task> findTodayTasks() {
+        return fanOutTasks(JdbcTaskDao::findTodayTasks, BY_PRIORITY_DESC);
+    }
+
+    @Override
+    public boolean markAsCompleted(Long id) {
+        return shards.get(shardOf(id)).markAsCompleted(toLocalId(id));
+    }
+
+    @Override
+    public List<Task> findTasksByCategory(String category) {
+        return fanOutTasks(shard -> shard.findTasksByCategory(category), BY_DUE_DATE);
+    }
+
+    @Override
+    public List<Task> findTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        return fanOutTasks(shard -> shard.findTasksByDateRange(startDate, endDate), BY_DUE_DATE_THEN_PRIORITY);
+    }
+
+    @Override
+    public long getTaskCount() {
+        long count = 0;
+        for (Long shardCount : fanOut(JdbcTaskDao::getTaskCount)) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    @Override
+    public List<String> getAllCategories() {
+        TreeSet<String> categories = new TreeSet<>();
+        for (List<String> shardCategories : fanOut(JdbcTaskDao::getAllCategories)) {
+            categories.addAll(shardCategories);
+        }
+        return new ArrayList<>(categories);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (ConnectionPool pool : pools) {
+            pool.closeAllConnections();
+        }
+    }
+}
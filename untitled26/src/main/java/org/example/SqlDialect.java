@@ -0,0 +1,66 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Различия СУБД, которые нужны пулу, инициализации схемы и DAO
+public interface SqlDialect {
+    String getName();
+
+    String getDriverClassName();
+
+    // Файл базы, для которого нужно создать каталог; null - база в памяти или каталог создаёт драйвер
+    Path getDatabaseFile(String url);
+
+    void configureConnection(Connection connection) throws SQLException;
+
+    void applySettings(Connection connection, SqliteSettings settings) throws SQLException;
+
+    void createSchema(Statement stmt) throws SQLException;
+
+    // Ведёт ли схема журнал изменений task_changes
+    boolean supportsChangeLog();
+
+    // Вставка или обновление по id одним запросом, возвращающим сохранённую строку.
+    // Параметры: id (null - новая задача), title, description, completed, due_date (yyyy-MM-dd),
+    // priority, category. Столбцы результата: id, title, description, completed, due_date,
+    // priority, category, created_at. Задача с несуществующим id вставляется с новым id
+    String upsertSql();
+
+    // Строка импорта: вставка с заданным id или замена задачи с тем же id, без возврата строки.
+    // Параметры: id (null - новая задача), title, description, completed, due_date (yyyy-MM-dd),
+    // priority, category, created_at (null - текущее время у новой, прежнее у заменяемой)
+    String importSql();
+
+    // После вставки строк с явным id: следующий автоматический id должен быть больше любого
+    // id задачи, в том числе архивной
+    void restartTaskIds(Connection connection) throws SQLException;
+
+    // Запрос контрольной точки; null, если СУБД её не поддерживает
+    String checkpointSql();
+
+    // Ослабленная надёжность записи на время массового импорта
+    void setBulkLoad(Connection connection, boolean enabled) throws SQLException;
+
+    // Запрос прерван через Statement.cancel или по таймауту
+    boolean isInterrupted(SQLException e);
+
+    // Транзакция, которая сразу берёт блокировку записи: чтение и запись в ней
+    // не упираются в повышение блокировки посреди транзакции
+    void beginWriteTransaction(Connection connection) throws SQLException;
+
+    // Блокировка не получена за время ожидания; операцию можно повторить
+    boolean isBusy(SQLException e);
+
+    static SqlDialect forUrl(String url) {
+        if (url.startsWith("jdbc:h2:")) {
+            return new H2Dialect();
+        }
+        if (url.startsWith("jdbc:sqlite:")) {
+            return new SqliteDialect();
+        }
+        throw new IllegalArgumentException("Неподдерживаемый URL базы данных: " + url);
+    }
+}
@@ -0,0 +1,277 @@
+package org.example;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteConnectionConfig;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class SqliteDialect implements SqlDialect {
+    static final int CHANGE_LOG_RETAINED = 10000;
+    static final int CHANGE_LOG_COMPACT_EVERY = 1000;
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_INTERRUPT = 9;
+    // Последняя разовая миграция данных (см. migrate)
+    private static final int SCHEMA_VERSION = 1;
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.sqlite.JDBC";
+    }
+
+    @Override
+    public Path getDatabaseFile(String url) {
+        String file = url.substring("jdbc:sqlite:".length());
+        if (file.isEmpty() || file.startsWith(":memory:")) {
+            return null;
+        }
+        return Paths.get(file);
+    }
+
+    @Override
+    public void configureConnection(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+        }
+    }
+
+    @Override
+    public void applySettings(Connection connection, SqliteSettings settings) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA cache_size = " + settings.getCacheSize());
+            stmt.execute("PRAGMA mmap_size = " + settings.getMmapSize());
+        }
+    }
+
+    @Override
+    public void createSchema(Statement stmt) throws SQLException {
+        enableIncrementalVacuum(stmt);
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS tasks (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                title TEXT NOT NULL,
+                description TEXT,
+                completed BOOLEAN DEFAULT FALSE,
+                due_date TEXT NOT NULL,  -- SQLite хранит даты как TEXT
+                created_at TEXT DEFAULT (datetime('now', 'localtime')),
+                priority TEXT DEFAULT 'MEDIUM',
+                category TEXT
+            )
+            """);
+
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_due_date ON tasks(due_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_completed ON tasks(completed)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_priority ON tasks(priority)");
+        migrate(stmt);
+
+        createChangeLog(stmt);
+
+        // Архив завершённых задач (TaskArchive): id сохраняется, due_date всегда yyyy-MM-dd
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS tasks_archive (
+                id INTEGER PRIMARY KEY,
+                title TEXT NOT NULL,
+                description TEXT,
+                due_date TEXT NOT NULL,
+                created_at TEXT,
+                priority TEXT,
+                category TEXT,
+                archived_at TEXT DEFAULT (datetime('now', 'localtime'))
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_archive_due_date ON tasks_archive(due_date)");
+
+        // Серии повторяющихся задач (RecurringTasks): даты yyyy-MM-dd, end_date - последнее повторение
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS task_series (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                title TEXT NOT NULL,
+                description TEXT,
+                priority TEXT DEFAULT 'MEDIUM',
+                category TEXT,
+                frequency TEXT NOT NULL,  -- DAILY / WEEKLY / MONTHLY
+                interval_count INTEGER NOT NULL DEFAULT 1,
+                weekdays INTEGER NOT NULL DEFAULT 0,  -- WEEKLY: бит 0 - понедельник
+                start_date TEXT NOT NULL,
+                end_date TEXT,
+                occurrence_count INTEGER NOT NULL DEFAULT 0,
+                created_at TEXT DEFAULT (datetime('now', 'localtime'))
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_series_start_date ON task_series(start_date)");
+        // Только повторения, отличающиеся от правила
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS task_series_exceptions (
+                series_id INTEGER NOT NULL REFERENCES task_series(id) ON DELETE CASCADE,
+                occurrence_date TEXT NOT NULL,
+                state TEXT NOT NULL,  -- C: выполнено, S: пропущено
+                PRIMARY KEY (series_id, occurrence_date)
+            )
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_series_exceptions_date ON task_series_exceptions(occurrence_date)");
+    }
+
+    // Только для новой базы, до первой таблицы: старые базы остаются как были
+    // (StorageMaintenance это учитывает). WAL к этому времени уже включён, и режим
+    // применяет VACUUM - на пустой базе он ничего не стоит
+    private void enableIncrementalVacuum(Statement stmt) throws SQLException {
+        boolean empty;
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+            empty = rs.next() && rs.getLong(1) == 0;
+        }
+        if (empty) {
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+        }
+    }
+
+    // Разовые преобразования данных; выполненные отмечаются в PRAGMA user_version,
+    // чтобы не сканировать таблицы при каждом старте
+    private void migrate(Statement stmt) throws SQLException {
+        int version;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (version < 1) {
+            // Старый save() писал due_date миллисекундами: такие строки не попадали в выборки
+            // по датам и сортировались отдельно от yyyy-MM-dd. Столбец TEXT хранит их строкой
+            // цифр; прочие значения не трогаем, иначе мусор превратился бы в 1970-01-01
+            stmt.execute("""
+                UPDATE tasks SET due_date = date(due_date / 1000, 'unixepoch', 'localtime')
+                WHERE due_date <> '' AND due_date NOT GLOB '*[^0-9]*'
+                """);
+        }
+        if (version < SCHEMA_VERSION) {
+            stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+        }
+    }
+
+    private void createChangeLog(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS task_changes (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                task_id INTEGER NOT NULL,
+                operation TEXT NOT NULL  -- I / U / D
+            )
+            """);
+
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_tasks_insert AFTER INSERT ON tasks
+            BEGIN
+                INSERT INTO task_changes (task_id, operation) VALUES (NEW.id, 'I');
+            END
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_tasks_update AFTER UPDATE ON tasks
+            BEGIN
+                INSERT INTO task_changes (task_id, operation) VALUES (NEW.id, 'U');
+            END
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_tasks_delete AFTER DELETE ON tasks
+            BEGIN
+                INSERT INTO task_changes (task_id, operation) VALUES (OLD.id, 'D');
+            END
+            """);
+
+        // Компактизация: каждые CHANGE_LOG_COMPACT_EVERY записей удаляем всё старше CHANGE_LOG_RETAINED
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_task_changes_compact AFTER INSERT ON task_changes
+            WHEN NEW.seq %% %d = 0
+            BEGIN
+                DELETE FROM task_changes WHERE seq <= NEW.seq - %d;
+            END
+            """.formatted(CHANGE_LOG_COMPACT_EVERY, CHANGE_LOG_RETAINED));
+    }
+
+    @Override
+    public boolean supportsChangeLog() {
+        return true;
+    }
+
+    // Подзапрос даёт NULL для несуществующего id, и AUTOINCREMENT выдаёт новый
+    @Override
+    public String upsertSql() {
+        return """
+            INSERT INTO tasks (id, title, description, completed, due_date, priority, category)
+            VALUES ((SELECT id FROM tasks WHERE id = ?), ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(id) DO UPDATE SET title = excluded.title, description = excluded.description,
+                completed = excluded.completed, due_date = excluded.due_date,
+                priority = excluded.priority, category = excluded.category
+            RETURNING id, title, description, completed, due_date, priority, category, created_at
+            """;
+    }
+
+    // Нумерованные параметры: created_at нужен и во вставке, и в обновлении
+    @Override
+    public String importSql() {
+        return """
+            INSERT INTO tasks (id, title, description, completed, due_date, priority, category, created_at)
+            VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, COALESCE(?8, datetime('now', 'localtime')))
+            ON CONFLICT(id) DO UPDATE SET title = excluded.title, description = excluded.description,
+                completed = excluded.completed, due_date = excluded.due_date,
+                priority = excluded.priority, category = excluded.category,
+                created_at = COALESCE(?8, tasks.created_at)
+            """;
+    }
+
+    // AUTOINCREMENT сам поднимает sqlite_sequence до наибольшего вставленного id,
+    // а в архив попадают только id, уже выданные tasks
+    @Override
+    public void restartTaskIds(Connection connection) {
+    }
+
+    @Override
+    public String checkpointSql() {
+        return "PRAGMA wal_checkpoint(TRUNCATE)";
+    }
+
+    @Override
+    public void setBulkLoad(Connection connection, boolean enabled) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous = " + (enabled ? "OFF" : "NORMAL"));
+        }
+    }
+
+    @Override
+    public boolean isInterrupted(SQLException e) {
+        return e.getErrorCode() == SQLITE_INTERRUPT;
+    }
+
+    // BEGIN IMMEDIATE. В WAL отложенная транзакция, начавшая с чтения, получает SQLITE_BUSY
+    // при первой записи, если другой писатель успел закоммитить, и busy_timeout не помогает.
+    // Режим возвращается сразу после BEGIN: драйвер начинает следующую транзакцию уже
+    // при commit, и с IMMEDIATE соединение держало бы блокировку до возврата в пул
+    @Override
+    public void beginWriteTransaction(Connection connection) throws SQLException {
+        SQLiteConnectionConfig config = connection.unwrap(SQLiteConnection.class).getConnectionConfig();
+        SQLiteConfig.TransactionMode mode = config.getTransactionMode();
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        try {
+            connection.setAutoCommit(false);
+        } finally {
+            config.setTransactionMode(mode);
+        }
+    }
+
+    // Код ошибки - основной: SQLITE_BUSY_SNAPSHOT и другие расширенные коды сюда же
+    @Override
+    public boolean isBusy(SQLException e) {
+        return (e.getErrorCode() & 0xff) == SQLITE_BUSY;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+// Настройки соединений SQLite, которые можно менять без перезапуска
+public final class SqliteSettings {
+    public static final SqliteSettings DEFAULT = new SqliteSettings(10000, 268435456L);
+
+    private final int cacheSize; // PRAGMA cache_size: >0 - страниц, <0 - КиБ
+    private final long mmapSize; // PRAGMA mmap_size, байт; 0 - без mmap
+
+    public SqliteSettings(int cacheSize, long mmapSize) {
+        if (mmapSize < 0) {
+            throw new IllegalArgumentException("mmap_size не может быть отрицательным: " + mmapSize);
+        }
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+    }
+
+    public int getCacheSize() { return cacheSize; }
+
+    public long getMmapSize() { return mmapSize; }
+
+    public SqliteSettings withCacheSize(int value) {
+        return new SqliteSettings(value, mmapSize);
+    }
+
+    public SqliteSettings withMmapSize(long value) {
+        return new SqliteSettings(cacheSize, value);
+    }
+
+    @Override
+    public String toString() {
+        return "cache_size=" + cacheSize + ", mmap_size=" + mmapSize;
+    }
+}
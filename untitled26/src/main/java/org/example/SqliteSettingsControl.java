@@ -0,0 +1,42 @@
+package org.example;
+
+import java.sql.SQLException;
+
+// Управление настройками SQLite пула через JMX
+public class SqliteSettingsControl implements SqliteSettingsMXBean {
+    private final ConnectionPool connectionPool;
+
+    public SqliteSettingsControl(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public int getCacheSize() {
+        return connectionPool.getSettings().getCacheSize();
+    }
+
+    @Override
+    public void setCacheSize(int cacheSize) {
+        connectionPool.updateSettings(connectionPool.getSettings().withCacheSize(cacheSize));
+    }
+
+    @Override
+    public long getMmapSize() {
+        return connectionPool.getSettings().getMmapSize();
+    }
+
+    @Override
+    public void setMmapSize(long mmapSize) {
+        connectionPool.updateSettings(connectionPool.getSettings().withMmapSize(mmapSize));
+    }
+
+    @Override
+    public String checkpoint() {
+        try {
+            return connectionPool.checkpoint();
+        } catch (SQLException e) {
+            // Клиенту JMX не нужен класс исключения драйвера
+            throw new IllegalStateException("Ошибка контрольной точки WAL: " + e.getMessage());
+        }
+    }
+}
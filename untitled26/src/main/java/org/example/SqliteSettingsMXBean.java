@@ -0,0 +1,14 @@
+package org.example;
+
+// JMX: org.example:type=SqliteSettings
+public interface SqliteSettingsMXBean {
+    int getCacheSize();
+
+    void setCacheSize(int cacheSize);
+
+    long getMmapSize();
+
+    void setMmapSize(long mmapSize);
+
+    String checkpoint();
+}
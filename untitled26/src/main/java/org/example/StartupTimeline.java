@@ -0,0 +1,105 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+// Время фаз запуска и время до первого кадра с загруженными задачами (от старта JVM).
+// Фазы и первый кадр попадают в MetricsRegistry как операции startup.*
+public class StartupTimeline implements StartupTimelineMXBean {
+    private static final Log log = Log.get(StartupTimeline.class);
+    private final long startNanos = System.nanoTime();
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final MetricsRegistry metrics;
+    private volatile long timeToFirstFrameMillis = -1;
+
+    public StartupTimeline(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    public static final class Phase {
+        private final String name;
+        private final String thread;
+        private final long startOffsetNanos;
+        private final long durationNanos;
+
+        Phase(String name, String thread, long startOffsetNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startOffsetNanos = startOffsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName() { return name; }
+
+        public String getThread() { return thread; }
+
+        public long getStartOffsetMillis() { return startOffsetNanos / 1_000_000; }
+
+        public long getDurationMillis() { return durationNanos / 1_000_000; }
+    }
+
+    public <T> T time(String name, Supplier<T> action) {
+        long started = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long duration = System.nanoTime() - started;
+            phases.add(new Phase(name, Thread.currentThread().getName(), started - startNanos, duration));
+            metrics.operation("startup." + name).record(duration, 0);
+        }
+    }
+
+    public void time(String name, Runnable action) {
+        time(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Вызывается на первом кадре, в котором таблица показывает результат начальной загрузки
+    public synchronized void markFirstFrame() {
+        if (timeToFirstFrameMillis < 0) {
+            timeToFirstFrameMillis = System.currentTimeMillis() - jvmStartMillis;
+            metrics.operation("startup.firstFrame").record(timeToFirstFrameMillis * 1_000_000, 0);
+            log.info(formatSummary());
+        }
+    }
+
+    @Override
+    public long getTimeToFirstFrameMillis() {
+        return timeToFirstFrameMillis;
+    }
+
+    // В порядке начала фаз; повторная фаза с тем же именем суммируется
+    @Override
+    public Map<String, Long> getPhaseDurationsMillis() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (Phase phase : getPhases()) {
+            durations.merge(phase.getName(), phase.getDurationMillis(), Long::sum);
+        }
+        return durations;
+    }
+
+    public List<Phase> getPhases() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingLong(phase -> phase.startOffsetNanos));
+        return sorted;
+    }
+
+    public String formatSummary() {
+        StringBuilder sb = new StringBuilder("Фазы запуска:\n");
+        for (Phase phase : getPhases()) {
+            sb.append(String.format("  %-16s +%5d мс  %5d мс  [%s]%n",
+                    phase.getName(), phase.getStartOffsetMillis(), phase.getDurationMillis(), phase.getThread()));
+        }
+        sb.append("Первый кадр с задачами: ").append(timeToFirstFrameMillis).append(" мс от старта JVM");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+import java.util.Map;
+
+// JMX: org.example:type=Startup
+public interface StartupTimelineMXBean {
+    // -1, пока первый кадр с загруженными задачами не показан
+    long getTimeToFirstFrameMillis();
+
+    Map<String, Long> getPhaseDurationsMillis();
+}
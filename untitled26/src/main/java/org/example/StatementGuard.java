@@ -0,0 +1,76 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Таймаут и отмена одного запроса. sqlite-jdbc учитывает setQueryTimeout только при
+// ожидании блокировки, а уже идущий запрос не прерывает, поэтому по истечении времени
+// запрос прерывается через Statement.cancel из отдельного потока.
+// Охранник владеет запросом: close() снимает таймаут и закрывает сам запрос.
+final class StatementGuard implements AutoCloseable {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "query-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PreparedStatement statement;
+    private final CancellationToken token;
+    private final ScheduledFuture<?> timeout;
+
+    private StatementGuard(PreparedStatement statement, String method, int timeoutSeconds) {
+        this.statement = statement;
+        this.token = CancellationToken.current();
+        token.register(statement, method);
+        this.timeout = timeoutSeconds > 0
+                ? TIMER.schedule(() -> CancellationToken.cancelStatement(statement), timeoutSeconds, TimeUnit.SECONDS)
+                : null;
+    }
+
+    static StatementGuard prepare(Connection connection, String sql, String method,
+                                  int timeoutSeconds) throws SQLException {
+        return watch(connection.prepareStatement(sql), method, timeoutSeconds);
+    }
+
+    static StatementGuard prepare(Connection connection, String sql, int autoGeneratedKeys, String method,
+                                  int timeoutSeconds) throws SQLException {
+        return watch(connection.prepareStatement(sql, autoGeneratedKeys), method, timeoutSeconds);
+    }
+
+    private static StatementGuard watch(PreparedStatement statement, String method,
+                                        int timeoutSeconds) throws SQLException {
+        try {
+            statement.setQueryTimeout(timeoutSeconds);
+            return new StatementGuard(statement, method, timeoutSeconds);
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    PreparedStatement statement() {
+        return statement;
+    }
+
+    // Прерванный запрос (отменой или по таймауту) завершается ошибкой, код которой зависит от СУБД
+    static void rethrowIfInterrupted(SqlDialect dialect, SQLException e, String method) {
+        if (dialect.isInterrupted(e)) {
+            throw new QueryCancelledException(method, !CancellationToken.current().isCancelled(), e);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        token.unregister(statement);
+        statement.close();
+    }
+}
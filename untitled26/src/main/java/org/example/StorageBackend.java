@@ -0,0 +1,74 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Хранилище задач выбирается при запуске: -Dtaskmanager.storage=sqlite|h2-mem|h2-file|journal|sharded
+public enum StorageBackend {
+    SQLITE("sqlite", "jdbc:sqlite:database/tasks.db"),
+    // Данные живут, пока жива JVM; для тестов и коротких нагрузочных прогонов
+    H2_MEMORY("h2-mem", "jdbc:h2:mem:tasks;DB_CLOSE_DELAY=-1"),
+    H2_FILE("h2-file", "jdbc:h2:./database/tasks-h2"),
+    // Без JDBC: задачи в памяти, журнал и снимок в каталоге
+    JOURNAL("journal", "database/journal"),
+    // N файлов SQLite со своими пулами; N - -Dtaskmanager.shards
+    SHARDED("sharded", "database/shards");
+
+    public static final String PROPERTY = "taskmanager.storage";
+    private static final int POOL_SIZE = 3;
+
+    private final String id;
+    private final String url;
+
+    StorageBackend(String id, String url) {
+        this.id = id;
+        this.url = url;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // Одна база с общим пулом; у JOURNAL пула нет, у SHARDED пулы внутри DAO
+    public boolean hasSharedPool() {
+        return this != JOURNAL && this != SHARDED;
+    }
+
+    // null, если общего пула нет
+    public ConnectionPool createPool() {
+        if (!hasSharedPool()) {
+            return null;
+        }
+        return this == SQLITE ? ConnectionPool.getInstance() : new ConnectionPool(url, POOL_SIZE);
+    }
+
+    // Журнал изменений есть только у SQLite с общим пулом; с остальными TaskService перечитывает кэш целиком
+    public TaskDao createDao(ConnectionPool pool) throws IOException {
+        if (this == JOURNAL) {
+            return new JournaledTaskDao(Paths.get(url));
+        }
+        if (this == SHARDED) {
+            return new ShardedTaskDao(Paths.get(url), ShardedTaskDao.DEFAULT_SHARD_COUNT);
+        }
+        return pool.getDialect().supportsChangeLog() ? new TaskDaoImpl(pool) : new JdbcTaskDao(pool);
+    }
+
+    public static StorageBackend fromId(String id) {
+        String normalized = id.trim().toLowerCase(Locale.ROOT);
+        for (StorageBackend backend : values()) {
+            if (backend.id.equals(normalized)) {
+                return backend;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное хранилище: " + id);
+    }
+
+    public static StorageBackend fromSystemProperty() {
+        return fromId(System.getProperty(PROPERTY, SQLITE.id));
+    }
+}
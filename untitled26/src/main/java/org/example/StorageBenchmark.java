@@ -0,0 +1,117 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Сравнение SQLite (файл) и H2 (в памяти) на одном и том же наборе операций TaskDao.
+// Запуск: java org.example.StorageBenchmark [строк] [раундов], по умолчанию 10000 и 5.
+// Время каждой операции пишет TimedTaskDao; первый раунд - прогрев, в итог не входит
+public final class StorageBenchmark {
+    private static final Log log = Log.get(StorageBenchmark.class);
+    private static final int POOL_SIZE = 4;
+    private static final int READS_PER_ROUND = 1000;
+    private static final int UPDATES_PER_ROUND = 200;
+    private static final String[] OPERATIONS = {
+            "dao.findAllSummaries", "dao.findById", "dao.update",
+            "dao.findTasksByDateRange", "dao.getTaskCount"
+    };
+
+    private final int rows;
+    private final int rounds;
+
+    StorageBenchmark(int rows, int rounds) {
+        if (rows <= 0 || rounds <= 1) {
+            throw new IllegalArgumentException("Нужно строк > 0 и раундов > 1");
+        }
+        this.rows = rows;
+        this.rounds = rounds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        StorageBenchmark benchmark = new StorageBenchmark(rows, rounds);
+
+        Path dir = Files.createTempDirectory("taskmanager-bench");
+        try {
+            MetricsRegistry sqlite = benchmark.run("jdbc:sqlite:" + dir.resolve("bench.db"));
+            MetricsRegistry h2 = benchmark.run("jdbc:h2:mem:bench-" + UUID.randomUUID());
+            log.info("Строк: {}, раундов: {} (без прогрева), p50/p99 в мс", rows, rounds - 1);
+            for (String operation : OPERATIONS) {
+                log.info("  {}  sqlite {}  h2 {}", operation,
+                        summary(sqlite.operation(operation)), summary(h2.operation(operation)));
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    MetricsRegistry run(String url) {
+        ConnectionPool pool = new ConnectionPool(url, POOL_SIZE);
+        try {
+            new DatabaseInitializer(pool).initializeDatabase();
+            JdbcTaskDao storage = pool.getDialect().supportsChangeLog() ? new TaskDaoImpl(pool) : new JdbcTaskDao(pool);
+            List<Task> stored = storage.upsertAll(generateTasks());
+
+            Random random = new Random(42);
+            MetricsRegistry metrics = new MetricsRegistry();
+            for (int round = 0; round < rounds; round++) {
+                // Прогрев пишется в отдельный реестр и отбрасывается
+                TaskDao dao = TimedTaskDao.wrap(storage, round == 0 ? new MetricsRegistry() : metrics);
+                runRound(dao, stored, random);
+            }
+            // Реестр последнего wrap остаётся у DAO; больше он не используется
+            storage.setMetrics(null);
+            return metrics;
+        } finally {
+            pool.closeAllConnections();
+        }
+    }
+
+    private void runRound(TaskDao dao, List<Task> stored, Random random) {
+        dao.findAllSummaries();
+        for (int i = 0; i < READS_PER_ROUND; i++) {
+            dao.findById(stored.get(random.nextInt(stored.size())).getId());
+        }
+        for (int i = 0; i < UPDATES_PER_ROUND; i++) {
+            Task task = stored.get(random.nextInt(stored.size()));
+            task.setTitle("Задача " + task.getId() + " / " + i);
+            dao.update(task);
+        }
+        LocalDate start = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(300));
+        dao.findTasksByDateRange(start, start.plusDays(30));
+        dao.getTaskCount();
+    }
+
+    private List<Task> generateTasks() {
+        Task.Priority[] priorities = Task.Priority.values();
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        List<Task> tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tasks.add(new Task("Задача " + i, "Описание " + i, start.plusDays(i % 365),
+                    priorities[i % priorities.length], "Категория " + (i % 10)));
+        }
+        return tasks;
+    }
+
+    private static String summary(OperationMetrics metrics) {
+        return Math.round(metrics.getQuantileMillis(0.5) * 100) / 100.0 + "/"
+                + Math.round(metrics.getQuantileMillis(0.99) * 100) / 100.0;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Фоновое обслуживание файла SQLite:
+//  - wal_checkpoint: PASSIVE, когда WAL подрос, TRUNCATE, когда он стал большим;
+//  - PRAGMA optimize раз в optimizeInterval;
+//  - incremental_vacuum в простое: за прошлый интервал пул никому не выдавал соединений
+//    и ни одно не занято сейчас (в том числе закреплённое под транзакцию inTransaction).
+// Каждый запуск пишется в лог с длительностью и числом освобождённых байт.
+public class StorageMaintenance {
+    private static final Log log = Log.get(StorageMaintenance.class);
+    static final long PASSIVE_WAL_BYTES = Long.getLong("taskmanager.maintenance.walPassiveMb", 4) * 1024 * 1024;
+    static final long TRUNCATE_WAL_BYTES = Long.getLong("taskmanager.maintenance.walTruncateMb", 64) * 1024 * 1024;
+    static final long CHECK_INTERVAL_SECONDS = 30;
+    static final long OPTIMIZE_INTERVAL_MINUTES = 6 * 60;
+    static final int VACUUM_PAGES_PER_RUN = 1000;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final ConnectionPool connectionPool;
+    private final Path databaseFile;
+    private final Path walFile;
+    private ScheduledExecutorService scheduler;
+
+    private long lastOptimizeNanos = System.nanoTime();
+    private long checkoutsAtLastTick = -1;
+    private boolean vacuumUnavailableLogged;
+
+    public StorageMaintenance(ConnectionPool connectionPool) {
+        if (!(connectionPool.getDialect() instanceof SqliteDialect)) {
+            throw new IllegalArgumentException("Обслуживание поддерживается только для SQLite: " + connectionPool.getUrl());
+        }
+        this.connectionPool = connectionPool;
+        this.databaseFile = connectionPool.getDialect().getDatabaseFile(connectionPool.getUrl());
+        this.walFile = databaseFile != null ? databaseFile.resolveSibling(databaseFile.getFileName() + "-wal") : null;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Ошибка обслуживания базы: {}", e.getMessage());
+            }
+        }, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        log.info("Обслуживание базы: WAL PASSIVE от {} байт, TRUNCATE от {} байт", PASSIVE_WAL_BYTES, TRUNCATE_WAL_BYTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    synchronized void tick() {
+        long checkouts = connectionPool.getCheckoutCount();
+        // Долгая транзакция не берёт новых соединений, но держит своё
+        boolean idle = checkouts == checkoutsAtLastTick && connectionPool.getActiveConnections() == 0;
+
+        long walBytes = sizeOf(walFile);
+        if (walBytes >= TRUNCATE_WAL_BYTES) {
+            checkpoint("TRUNCATE");
+        } else if (walBytes >= PASSIVE_WAL_BYTES) {
+            checkpoint("PASSIVE");
+        }
+
+        if (System.nanoTime() - lastOptimizeNanos >= TimeUnit.MINUTES.toNanos(OPTIMIZE_INTERVAL_MINUTES)) {
+            optimize();
+        }
+
+        if (idle) {
+            incrementalVacuum(VACUUM_PAGES_PER_RUN);
+        }
+        // Свои обращения к пулу не считаются активностью
+        checkoutsAtLastTick = connectionPool.getCheckoutCount();
+    }
+
+    // mode: PASSIVE не ждёт читателей и писателей, TRUNCATE ждёт и обнуляет файл WAL.
+    // Возвращает, на сколько байт уменьшился WAL
+    public synchronized long checkpoint(String mode) {
+        long walBefore = sizeOf(walFile);
+        long started = System.nanoTime();
+        String result = run("PRAGMA wal_checkpoint(" + mode + ")", rs ->
+                "busy=" + rs.getInt(1) + ", log=" + rs.getInt(2) + ", checkpointed=" + rs.getInt(3));
+        long reclaimed = walBefore - sizeOf(walFile);
+        log.info("wal_checkpoint({}): {} мс, освобождено {} байт ({})", mode, millisSince(started), reclaimed, result);
+        return reclaimed;
+    }
+
+    public synchronized void optimize() {
+        long started = System.nanoTime();
+        run("PRAGMA optimize", rs -> null);
+        lastOptimizeNanos = System.nanoTime();
+        log.info("PRAGMA optimize: {} мс", millisSince(started));
+    }
+
+    // Возвращает, на сколько байт уменьшился файл базы; 0, если свободных страниц нет
+    // или база создана без auto_vacuum = INCREMENTAL
+    public synchronized long incrementalVacuum(int pages) {
+        Integer autoVacuum = run("PRAGMA auto_vacuum", rs -> rs.getInt(1));
+        if (autoVacuum == null || autoVacuum != AUTO_VACUUM_INCREMENTAL) {
+            if (!vacuumUnavailableLogged) {
+                vacuumUnavailableLogged = true;
+                log.info("incremental_vacuum недоступен: база создана с auto_vacuum = {}", autoVacuum);
+            }
+            return 0;
+        }
+        Integer freePages = run("PRAGMA freelist_count", rs -> rs.getInt(1));
+        if (freePages == null || freePages == 0) {
+            return 0;
+        }
+
+        long fileBefore = sizeOf(databaseFile) + sizeOf(walFile);
+        long started = System.nanoTime();
+        update("PRAGMA incremental_vacuum(" + pages + ")");
+        // Освобождённые страницы отрезаются от файла только после переноса WAL в базу
+        run("PRAGMA wal_checkpoint(PASSIVE)", rs -> null);
+        long reclaimed = fileBefore - sizeOf(databaseFile) - sizeOf(walFile);
+        log.info("incremental_vacuum({}): свободных страниц {}, {} мс, освобождено {} байт",
+                pages, freePages, millisSince(started), reclaimed);
+        return reclaimed;
+    }
+
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    // Первая строка результата или null
+    private <T> T run(String sql, RowReader<T> reader) {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (Statement stmt = connection.createStatement()) {
+                if (!stmt.execute(sql)) {
+                    return null;
+                }
+                try (ResultSet rs = stmt.getResultSet()) {
+                    T first = null;
+                    boolean firstRow = true;
+                    while (rs.next()) {
+                        if (firstRow) {
+                            first = reader.read(rs);
+                            firstRow = false;
+                        }
+                    }
+                    return first;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Ошибка " + sql + ": " + e.getMessage(), e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // incremental_vacuum освобождает по странице за шаг; execute() делает один шаг,
+    // executeUpdate() выполняет прагму до конца
+    private void update(String sql) {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(sql);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Ошибка " + sql + ": " + e.getMessage(), e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return file != null && Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long millisSince(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,429 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// JSON API над TaskService для скриптов и других клиентов: один процесс, один пул и общий кэш.
+// Списки и статистика считаются по кэшу кратких задач; у них есть ETag, и на
+// If-None-Match с тем же значением сервер отвечает 304 без тела.
+//   GET    /api/tasks?completed=&category=&priority=&due=today|overdue&from=&to=&q=&offset=&limit=
+//   GET    /api/tasks/{id}          задача с описанием
+//   POST   /api/tasks               создать, 201
+//   PUT    /api/tasks/{id}          изменить
+//   POST   /api/tasks/{id}/complete отметить выполненной
+//   DELETE /api/tasks/{id}          удалить, 204
+//   GET    /api/categories, GET /api/stats
+// Слушает только 127.0.0.1: аутентификации нет
+public class TaskApiServer {
+    public static final String PORT_PROPERTY = "taskmanager.api.port";
+    public static final int DEFAULT_PORT = 8085;
+    static final int DEFAULT_THREADS = Integer.getInteger("taskmanager.api.threads", 32);
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    private static final Log log = Log.get(TaskApiServer.class);
+
+    private final TaskService taskService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public TaskApiServer(TaskService taskService, int port, int threads) throws IOException {
+        this.taskService = taskService;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // Виртуальных потоков в Java 17 нет: обработчики идут в ограниченном пуле,
+        // лишние запросы ждут в очереди, а не открывают новые соединения с базой
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "task-api-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    // Порт из -Dtaskmanager.api.port или DEFAULT_PORT; null, если сервер не удалось запустить
+    public static TaskApiServer startFromSystemProperty(TaskService taskService) {
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        try {
+            TaskApiServer server = new TaskApiServer(taskService, port, DEFAULT_THREADS);
+            server.start();
+            return server;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Не удалось запустить API на порту {}: {}", port, e.getMessage());
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+        log.info("API задач доступно на http://127.0.0.1:{}/api/tasks", getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (ApiException e) {
+                sendError(exchange, e.status, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (QueryCancelledException e) {
+                sendError(exchange, 503, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Ошибка API {}: {}", exchange.getRequestMethod() + " " + exchange.getRequestURI(), e.getMessage());
+                sendError(exchange, 500, "Внутренняя ошибка");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        switch (path[0]) {
+            case "tasks" -> {
+                if (path.length == 1) {
+                    switch (method) {
+                        case "GET" -> sendCached(exchange, () -> listTasks(query));
+                        case "POST" -> createTask(exchange);
+                        default -> throw new ApiException(405, "Метод не поддерживается: " + method);
+                    }
+                } else if (path.length == 2) {
+                    long id = parseId(path[1]);
+                    switch (method) {
+                        case "GET" -> sendJson(exchange, 200, taskJson(requireTask(id)));
+                        case "PUT" -> updateTask(exchange, id);
+                        case "DELETE" -> {
+                            if (!taskService.delete(id)) {
+                                throw new ApiException(404, "Задача не найдена: " + id);
+                            }
+                            sendEmpty(exchange, 204);
+                        }
+                        default -> throw new ApiException(405, "Метод не поддерживается: " + method);
+                    }
+                } else if (path.length == 3 && "complete".equals(path[2]) && "POST".equals(method)) {
+                    long id = parseId(path[1]);
+                    if (!taskService.markAsCompleted(id)) {
+                        throw new ApiException(404, "Задача не найдена: " + id);
+                    }
+                    sendJson(exchange, 200, taskJson(requireTask(id)));
+                } else {
+                    throw new ApiException(404, "Неизвестный путь");
+                }
+            }
+            case "categories" -> {
+                requireGet(method, path);
+                sendCached(exchange, this::categoriesJson);
+            }
+            case "stats" -> {
+                requireGet(method, path);
+                sendCached(exchange, this::statsJson);
+            }
+            default -> throw new ApiException(404, "Неизвестный путь");
+        }
+    }
+
+    private static void requireGet(String method, String[] path) {
+        if (path.length != 1) {
+            throw new ApiException(404, "Неизвестный путь");
+        }
+        if (!"GET".equals(method)) {
+            throw new ApiException(405, "Метод не поддерживается: " + method);
+        }
+    }
+
+    private String listTasks(Map<String, String> query) {
+        // Фильтры по общему снимку записей: без копий задач, даты сравниваются номерами дней
+        Predicate<TaskRecord> filter = task -> true;
+        String completed = query.get("completed");
+        if (completed != null) {
+            boolean value = Boolean.parseBoolean(completed);
+            filter = filter.and(task -> task.completed() == value);
+        }
+        String category = query.get("category");
+        if (category != null) {
+            filter = filter.and(task -> category.equals(task.category()));
+        }
+        String priority = query.get("priority");
+        if (priority != null) {
+            Task.Priority value = Task.Priority.valueOf(priority.toUpperCase());
+            filter = filter.and(task -> task.priority() == value);
+        }
+        int today = (int) LocalDate.now().toEpochDay();
+        String due = query.get("due");
+        if ("today".equals(due)) {
+            filter = filter.and(task -> !task.completed() && task.dueEpochDay() == today);
+        } else if ("overdue".equals(due)) {
+            filter = filter.and(task -> !task.completed() && task.dueEpochDay() < today);
+        } else if (due != null) {
+            throw new IllegalArgumentException("Параметр due: today или overdue");
+        }
+        if (query.containsKey("from")) {
+            int from = (int) LocalDate.parse(query.get("from")).toEpochDay();
+            filter = filter.and(task -> task.dueEpochDay() >= from);
+        }
+        if (query.containsKey("to")) {
+            int to = (int) LocalDate.parse(query.get("to")).toEpochDay();
+            filter = filter.and(task -> task.dueEpochDay() <= to);
+        }
+        String text = query.get("q");
+        if (text != null) {
+            String needle = text.toLowerCase();
+            filter = filter.and(task -> task.title() != null && task.title().toLowerCase().contains(needle));
+        }
+
+        int offset = parseInt(query, "offset", 0);
+        int limit = Math.min(parseInt(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Некорректные offset/limit: " + offset + "/" + limit);
+        }
+
+        List<TaskRecord> matching = new ArrayList<>();
+        for (TaskRecord task : taskService.findAllSummaryRecords()) {
+            if (filter.test(task)) {
+                matching.add(task);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(64 + Math.min(limit, matching.size()) * 160);
+        sb.append("{\"total\":").append(matching.size())
+                .append(",\"offset\":").append(offset)
+                .append(",\"limit\":").append(limit)
+                .append(",\"items\":[");
+        for (int i = offset; i < Math.min(matching.size(), offset + limit); i++) {
+            if (i > offset) {
+                sb.append(',');
+            }
+            sb.append(TaskJson.toJson(matching.get(i)));
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String categoriesJson() {
+        StringBuilder sb = new StringBuilder("[");
+        for (String category : new TreeMap<>(taskService.getCategoryStatistics()).keySet()) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            TaskJson.appendString(sb, category);
+        }
+        return sb.append(']').toString();
+    }
+
+    // Всё по одному снимку кэша, без отдельных запросов на каждый счётчик
+    private String statsJson() {
+        List<TaskRecord> tasks = taskService.findAllSummaryRecords();
+        int today = (int) LocalDate.now().toEpochDay();
+        long completed = 0;
+        long overdue = 0;
+        long dueToday = 0;
+        Map<String, Long> categories = new TreeMap<>();
+        for (TaskRecord task : tasks) {
+            if (task.completed()) {
+                completed++;
+            } else if (task.dueEpochDay() < today) {
+                overdue++;
+            } else if (task.dueEpochDay() == today) {
+                dueToday++;
+            }
+            if (task.category() != null && !task.category().isBlank()) {
+                categories.merge(task.category(), 1L, Long::sum);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"total\":").append(tasks.size())
+                .append(",\"completed\":").append(completed)
+                .append(",\"pending\":").append(tasks.size() - completed)
+                .append(",\"overdue\":").append(overdue)
+                .append(",\"today\":").append(dueToday)
+                .append(",\"categories\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : categories.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            TaskJson.appendString(sb, entry.getKey());
+            sb.append(':').append(entry.getValue());
+        }
+        return sb.append("}}").toString();
+    }
+
+    private void createTask(HttpExchange exchange) throws IOException {
+        Task task = readTask(exchange);
+        task.setId(null);
+        Task stored = taskService.upsert(task);
+        if (stored == null) {
+            throw new IllegalStateException("Не удалось сохранить задачу");
+        }
+        exchange.getResponseHeaders().set("Location", "/api/tasks/" + stored.getId());
+        sendJson(exchange, 201, taskJson(stored));
+    }
+
+    private void updateTask(HttpExchange exchange, long id) throws IOException {
+        Task task = readTask(exchange);
+        task.setId(id);
+        if (!taskService.update(task)) {
+            throw new ApiException(404, "Задача не найдена: " + id);
+        }
+        sendJson(exchange, 200, taskJson(requireTask(id)));
+    }
+
+    private static Task readTask(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Task task = TaskJson.toTask(TaskJson.parseObject(body));
+        if (task.getTitle() == null || task.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Не указано название задачи");
+        }
+        if (task.getDueDate() == null) {
+            throw new IllegalArgumentException("Не указан срок задачи");
+        }
+        return task;
+    }
+
+    private Task requireTask(long id) {
+        Task task = taskService.findById(id);
+        if (task == null) {
+            throw new ApiException(404, "Задача не найдена: " + id);
+        }
+        return task;
+    }
+
+    // Описание в кэше задач может отсутствовать, тогда оно берётся из кэша описаний
+    private String taskJson(Task task) {
+        StringBuilder sb = new StringBuilder(256);
+        TaskJson.appendTask(sb, task.getId(), task.getTitle(), taskService.getDescription(task), task.isCompleted(),
+                task.getDueDate() != null ? task.getDueDate().toString() : null,
+                task.getPriority() != null ? task.getPriority().name() : null,
+                task.getCategory(),
+                task.getCreatedAt() != null ? task.getCreatedAt().toString() : null);
+        return sb.toString();
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Некорректный id: " + value);
+        }
+    }
+
+    private static int parseInt(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом: " + value);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    // ETag - номер снимка задач, день и запрос: снимок тот же - тело тоже, его даже не строим.
+    // День входит в метку, потому что today/overdue зависят от текущей даты
+    private void sendCached(HttpExchange exchange, Supplier<String> json) throws IOException {
+        taskService.findAllSummaryRecords();
+        String request = exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getRawQuery();
+        String etag = "\"" + taskService.getSummaryVersion() + "-" + LocalDate.now().toEpochDay()
+                + "-" + Integer.toHexString(request.hashCode()) + "\"";
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        boolean notModified = ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"));
+        // Тело строится до заголовков: ошибка в параметрах уходит как 400 без ETag
+        byte[] body = notModified ? null : json.get().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (notModified) {
+            sendEmpty(exchange, 304);
+            return;
+        }
+        send(exchange, 200, body);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        TaskJson.appendString(sb, message);
+        sendJson(exchange, status, sb.append('}').toString());
+    }
+
+    // Ответ без тела сервер JDK завершает прямо в sendResponseHeaders и закрывает соединение,
+    // если тело запроса не дочитано до конца. Признак конца ставится только чтением или close(),
+    // даже при Content-Length: 0, поэтому без close() keep-alive молча обрывался
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.getRequestBody().close();
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Архив: завершённые задачи со сроком старше afterDays переносятся из tasks в tasks_archive
+// небольшими пакетами, по транзакции на пакет, чтобы не держать блокировку записи.
+// Горячие запросы TaskDao и кэш TaskService видят только tasks; удаление из tasks
+// попадает в журнал изменений, так что кэш забывает перенесённые задачи при следующей синхронизации,
+// а кэш задач по id - сразу, через TaskDeletionListener.
+// Время завершения не хранится, поэтому возраст считается по сроку задачи.
+public class TaskArchive {
+    private static final Log log = Log.get(TaskArchive.class);
+    public static final int DEFAULT_AFTER_DAYS = Integer.getInteger("taskmanager.archive.afterDays", 90);
+    public static final int DEFAULT_INTERVAL_MINUTES = Integer.getInteger("taskmanager.archive.intervalMinutes", 60);
+    static final int DEFAULT_BATCH_SIZE = 200;
+
+    private static final String COLUMNS = "id, title, description, due_date, created_at, priority, category";
+
+    private final ConnectionPool connectionPool;
+    private final int afterDays;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+    private volatile TaskDeletionListener deletionListener;
+
+    public TaskArchive(ConnectionPool connectionPool) {
+        this(connectionPool, DEFAULT_AFTER_DAYS, DEFAULT_BATCH_SIZE);
+    }
+
+    public TaskArchive(ConnectionPool connectionPool, int afterDays, int batchSize) {
+        if (afterDays < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Некорректные параметры архива: afterDays=" + afterDays + ", batchSize=" + batchSize);
+        }
+        this.connectionPool = connectionPool;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+    }
+
+    // Вызывается после фиксации каждого пакета с перенесёнными задачами
+    public void setDeletionListener(TaskDeletionListener deletionListener) {
+        this.deletionListener = deletionListener;
+    }
+
+    public synchronized void start(long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Первый проход не в момент старта, когда приложение и так загружает данные
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archiveAll();
+            } catch (RuntimeException e) {
+                log.error("Ошибка архивации: {}", e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        log.info("Архивация завершённых задач старше {} дн., каждые {} мин", afterDays, intervalMinutes);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Все подходящие задачи, пакет за пакетом; между пакетами блокировка свободна для других писателей
+    public int archiveAll() {
+        long started = System.nanoTime();
+        LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+        int total = 0;
+        while (true) {
+            Map<Long, LocalDate> candidates = findCandidates(cutoff);
+            // Перенесённые строки уходят из tasks, так что следующий запрос вернёт следующий пакет.
+            // Ничего не перенесено - все кандидаты успели вернуть в работу; остальное - в следующий проход
+            int moved = moveToArchive(candidates);
+            total += moved;
+            if (candidates.size() < batchSize || moved == 0) {
+                break;
+            }
+            Thread.yield();
+        }
+        if (total > 0) {
+            log.info("В архив перенесено задач: {}, {} мс", total, (System.nanoTime() - started) / 1_000_000);
+        }
+        return total;
+    }
+
+    // До batchSize завершённых задач со сроком раньше cutoff. Отбор идёт по idx_due_date:
+    // условие completed <> FALSE, в отличие от равенства, не уводит план на idx_completed,
+    // где пришлось бы перебрать все завершённые задачи
+    private Map<Long, LocalDate> findCandidates(LocalDate cutoff) {
+        String sql = "SELECT id, due_date FROM tasks WHERE due_date < ? AND completed <> FALSE LIMIT ?";
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, cutoff.toString());
+                stmt.setInt(2, batchSize);
+                Map<Long, LocalDate> candidates = new LinkedHashMap<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        candidates.put(rs.getLong(1), JdbcTaskDao.parseDueDate(rs.getString(2)));
+                    }
+                }
+                return candidates;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось выбрать задачи для архива", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Одна транзакция на пакет; задача, которую успели вернуть в работу, остаётся на месте
+    private int moveToArchive(Map<Long, LocalDate> candidates) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        String insertSql = "INSERT INTO tasks_archive (" + COLUMNS + ") " +
+                "SELECT id, title, description, ?, created_at, priority, category " +
+                "FROM tasks WHERE id = ? AND completed = TRUE";
+        String deleteSql = "DELETE FROM tasks WHERE id = ?";
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            connection.setAutoCommit(false);
+            List<Long> moved = new ArrayList<>();
+            try (PreparedStatement insert = connection.prepareStatement(insertSql);
+                 PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                for (Map.Entry<Long, LocalDate> candidate : candidates.entrySet()) {
+                    insert.setString(1, candidate.getValue().toString());
+                    insert.setLong(2, candidate.getKey());
+                    if (insert.executeUpdate() == 1) {
+                        delete.setLong(1, candidate.getKey());
+                        delete.executeUpdate();
+                        moved.add(candidate.getKey());
+                    }
+                }
+            }
+            connection.commit();
+            TaskDeletionListener listener = deletionListener;
+            if (listener != null && !moved.isEmpty()) {
+                listener.onTasksDeleted(moved);
+            }
+            return moved.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось перенести задачи в архив", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    public long countArchived() {
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM tasks_archive");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.error("Ошибка подсчёта архива: {}", e.getMessage());
+            return 0;
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+    }
+
+    // Поиск по подстроке в названии и описании, самые поздние сроки первыми
+    public List<Task> searchArchive(String text, int limit) {
+        String pattern = "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return queryArchive("SELECT " + COLUMNS + " FROM tasks_archive " +
+                "WHERE title LIKE ? ESCAPE '\\' OR description LIKE ? ESCAPE '\\' " +
+                "ORDER BY due_date DESC LIMIT ?", pattern, pattern, limit);
+    }
+
+    public List<Task> findArchivedByDateRange(LocalDate startDate, LocalDate endDate) {
+        return queryArchive("SELECT " + COLUMNS + " FROM tasks_archive " +
+                "WHERE due_date >= ? AND due_date <= ? ORDER BY due_date ASC",
+                startDate.toString(), endDate.toString());
+    }
+
+    private List<Task> queryArchive(String sql, Object... parameters) {
+        List<Task> tasks = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    stmt.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        tasks.add(mapRow(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Ошибка запроса к архиву: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+        return tasks;
+    }
+
+    private static Task mapRow(ResultSet rs) throws SQLException {
+        Task task = new Task();
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        task.setDescription(rs.getString("description"));
+        task.setCompleted(true);
+        task.setDueDate(JdbcTaskDao.parseDueDate(rs.getString("due_date")));
+        String priority = rs.getString("priority");
+        if (priority != null && !priority.trim().isEmpty()) {
+            try {
+                task.setPriority(Task.Priority.valueOf(priority));
+            } catch (IllegalArgumentException e) {
+                task.setPriority(Task.Priority.MEDIUM);
+            }
+        } else {
+            task.setPriority(Task.Priority.MEDIUM);
+        }
+        task.setCategory(rs.getString("category"));
+        return task;
+    }
+}
@@ -0,0 +1,477 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Потоковый импорт/экспорт задач: строки идут напрямую между файлом и JDBC,
+// без промежуточных объектов Task, поэтому память не зависит от размера файла
+public class TaskBulkTransfer {
+    private static final Log log = Log.get(TaskBulkTransfer.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_EVERY = 20_000;
+    private static final int PROGRESS_EVERY = 10_000;
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final String[] COLUMNS =
+            {"id", "title", "description", "completed", "due_date", "priority", "category", "created_at"};
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int COMPLETED = 3;
+    private static final int DUE_DATE = 4;
+    private static final int PRIORITY = 5;
+    private static final int CATEGORY = 6;
+    private static final int CREATED_AT = 7;
+
+    private final ConnectionPool connectionPool;
+
+    public enum Format {
+        CSV,
+        JSONL;
+
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson") || lower.endsWith(".json")) {
+                return JSONL;
+            }
+            return CSV;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(long rows, double rowsPerSecond);
+    }
+
+    public TaskBulkTransfer(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    // bulkMode: ослабленная надёжность записи на время импорта (SQLite: synchronous = OFF); при сбое питания можно потерять последние пакеты.
+    // Строка с id заменяет задачу с тем же id (или вставляется с ним), поэтому повторный импорт
+    // своего же экспорта не плодит копии; без id - новая задача. id архивной задачи отклоняется:
+    // иначе TaskArchive не сможет перенести такую задачу в архив
+    public TransferStats importFile(Path file, Format format, boolean bulkMode,
+                                    ProgressListener listener) throws IOException, SQLException {
+        SqlDialect dialect = connectionPool.getDialect();
+        long started = System.nanoTime();
+        long rows = 0;
+        long rejected = 0;
+        boolean explicitIds = false;
+        Connection connection = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowReader rowReader = format == Format.CSV ? new CsvRowReader(reader) : new JsonLinesRowReader(reader);
+            String[] row = new String[COLUMNS.length];
+
+            connection = connectionPool.getConnection();
+            if (bulkMode) {
+                dialect.setBulkLoad(connection, true);
+            }
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement stmt = connection.prepareStatement(dialect.importSql());
+                 PreparedStatement archived = connection.prepareStatement("SELECT 1 FROM tasks_archive WHERE id = ?")) {
+                int pending = 0;
+                while (rowReader.next(row)) {
+                    if (!bindRow(stmt, archived, row)) {
+                        rejected++;
+                        continue;
+                    }
+                    stmt.addBatch();
+                    rows++;
+                    explicitIds |= row[ID] != null && !row[ID].isBlank();
+
+                    if (++pending == BATCH_SIZE) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                    if (rows % COMMIT_EVERY == 0) {
+                        connection.commit();
+                    }
+                    if (listener != null && rows % PROGRESS_EVERY == 0) {
+                        listener.onProgress(rows, TransferStats.rowsPerSecond(rows, System.nanoTime() - started));
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+                connection.commit();
+                connection.setAutoCommit(true);
+            }
+            if (explicitIds) {
+                dialect.restartTaskIds(connection);
+            }
+        } finally {
+            if (connection != null) {
+                try {
+                    restoreAfterImport(connection, bulkMode);
+                } finally {
+                    connectionPool.releaseConnection(connection);
+                }
+            }
+        }
+
+        TransferStats stats = new TransferStats(rows, rejected, System.nanoTime() - started);
+        log.info("Импорт {}: {}", file, stats);
+        return stats;
+    }
+
+    // Каждый шаг - отдельно: сбой одного не должен помешать остальным и возврату соединения
+    private void restoreAfterImport(Connection connection, boolean bulkMode) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось откатить незавершённый импорт: {}", e.getMessage());
+        }
+        if (bulkMode) {
+            try {
+                connectionPool.getDialect().setBulkLoad(connection, false);
+            } catch (SQLException e) {
+                log.warn("Не удалось вернуть synchronous = NORMAL: {}", e.getMessage());
+            }
+        }
+    }
+
+    public TransferStats exportFile(Path file, Format format,
+                                    ProgressListener listener) throws IOException, SQLException {
+        String sql = "SELECT id, title, description, completed, due_date, priority, category, created_at " +
+                "FROM tasks ORDER BY id ASC";
+        long started = System.nanoTime();
+        long rows = 0;
+        Connection connection = null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            StringBuilder line = new StringBuilder(256);
+
+            if (format == Format.CSV) {
+                line.append(String.join(",", COLUMNS)).append('\n');
+                write(channel, buffer, line);
+            }
+
+            connection = connectionPool.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        appendRow(line, format, rs);
+                        write(channel, buffer, line);
+                        rows++;
+
+                        if (listener != null && rows % PROGRESS_EVERY == 0) {
+                            listener.onProgress(rows, TransferStats.rowsPerSecond(rows, System.nanoTime() - started));
+                        }
+                    }
+                }
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            if (connection != null) {
+                connectionPool.releaseConnection(connection);
+            }
+        }
+
+        TransferStats stats = new TransferStats(rows, 0, System.nanoTime() - started);
+        log.info("Экспорт {}: {}", file, stats);
+        return stats;
+    }
+
+    private static boolean bindRow(PreparedStatement stmt, PreparedStatement archived, String[] row) throws SQLException {
+        Long id = null;
+        String rawId = row[ID] != null ? row[ID].trim() : "";
+        if (!rawId.isEmpty()) {
+            try {
+                id = Long.parseLong(rawId);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (id <= 0 || isArchived(archived, id)) {
+                return false;
+            }
+        }
+
+        String title = row[TITLE];
+        if (title == null || title.trim().isEmpty()) {
+            return false;
+        }
+
+        String rawDueDate = row[DUE_DATE] != null ? row[DUE_DATE].trim() : "";
+        if (rawDueDate.isEmpty()) {
+            return false;
+        }
+        LocalDate dueDate;
+        try {
+            dueDate = rawDueDate.matches("\\d+") ? JdbcTaskDao.parseDueDate(rawDueDate) : LocalDate.parse(rawDueDate);
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        Task.Priority priority = Task.Priority.MEDIUM;
+        if (row[PRIORITY] != null) {
+            try {
+                priority = Task.Priority.valueOf(row[PRIORITY].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                priority = Task.Priority.MEDIUM;
+            }
+        }
+
+        String completed = row[COMPLETED];
+        String createdAt = row[CREATED_AT];
+
+        String storedCreatedAt = createdAt != null && !createdAt.isEmpty() ? createdAt.replace('T', ' ') : null;
+        if (id != null) {
+            stmt.setLong(1, id);
+        } else {
+            stmt.setNull(1, Types.BIGINT);
+        }
+        stmt.setString(2, title.trim());
+        stmt.setString(3, row[DESCRIPTION]);
+        stmt.setBoolean(4, "true".equalsIgnoreCase(completed) || "1".equals(completed));
+        stmt.setString(5, dueDate.toString());
+        stmt.setString(6, priority.name());
+        stmt.setString(7, row[CATEGORY]);
+        // Без created_at в файле у заменяемой задачи остаётся прежнее время создания
+        stmt.setString(8, storedCreatedAt);
+        return true;
+    }
+
+    private static boolean isArchived(PreparedStatement archived, long id) throws SQLException {
+        archived.setLong(1, id);
+        try (ResultSet rs = archived.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private static void appendRow(StringBuilder line, Format format, ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        String title = rs.getString("title");
+        String description = rs.getString("description");
+        boolean completed = rs.getBoolean("completed");
+        String dueDate = JdbcTaskDao.parseDueDate(rs.getString("due_date")).toString();
+        String priority = rs.getString("priority");
+        String category = rs.getString("category");
+        String createdAt = rs.getString("created_at");
+
+        if (format == Format.JSONL) {
+            TaskJson.appendTask(line, id, title, description, completed, dueDate, priority, category, createdAt);
+        } else {
+            line.append(id).append(',');
+            appendCsv(line, title).append(',');
+            appendCsv(line, description).append(',');
+            line.append(completed).append(',');
+            appendCsv(line, dueDate).append(',');
+            appendCsv(line, priority).append(',');
+            appendCsv(line, category).append(',');
+            appendCsv(line, createdAt);
+        }
+        line.append('\n');
+    }
+
+    // null пишется пустым полем, пустая строка - как ""
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0 ||
+                value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        return line.append(value);
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, StringBuilder line) throws IOException {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        line.setLength(0);
+
+        if (bytes.length > buffer.remaining()) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        if (bytes.length > buffer.capacity()) {
+            ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+            return;
+        }
+        buffer.put(bytes);
+    }
+
+    private interface RowReader {
+        boolean next(String[] row) throws IOException;
+    }
+
+    private static final class JsonLinesRowReader implements RowReader {
+        private final BufferedReader reader;
+
+        JsonLinesRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean next(String[] row) throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Arrays.fill(row, null);
+                Map<String, Object> json;
+                try {
+                    json = TaskJson.parseObject(line);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Пропущена некорректная строка JSON: {}", e.getMessage());
+                    return true; // строка без полей будет отклонена в bindRow
+                }
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    Object value = json.get(COLUMNS[i]);
+                    row[i] = value != null ? value.toString() : null;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class CsvRowReader implements RowReader {
+        private final Reader reader;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int[] columnIndexes;
+        private int lookahead = -2;
+
+        CsvRowReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean next(String[] row) throws IOException {
+            if (columnIndexes == null) {
+                if (!readRecord()) {
+                    return false;
+                }
+                columnIndexes = new int[fields.size()];
+                List<String> known = Arrays.asList(COLUMNS);
+                for (int i = 0; i < fields.size(); i++) {
+                    String name = fields.get(i) != null ? fields.get(i).trim().toLowerCase(Locale.ROOT) : "";
+                    columnIndexes[i] = known.indexOf(name);
+                }
+            }
+
+            if (!readRecord()) {
+                return false;
+            }
+
+            Arrays.fill(row, null);
+            for (int i = 0; i < fields.size() && i < columnIndexes.length; i++) {
+                if (columnIndexes[i] >= 0) {
+                    row[columnIndexes[i]] = fields.get(i);
+                }
+            }
+            return true;
+        }
+
+        // RFC 4180: кавычки, "" внутри кавычек, переводы строк внутри полей
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            boolean any = false;
+
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(next);
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    endField(wasQuoted);
+                    wasQuoted = false;
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            unread(next);
+                        }
+                    }
+                    if (fields.isEmpty() && field.length() == 0 && !wasQuoted) {
+                        any = false; // пустая строка
+                        continue;
+                    }
+                    endField(wasQuoted);
+                    return true;
+                } else {
+                    field.append((char) c);
+                }
+            }
+
+            if (!any) {
+                return false;
+            }
+            endField(wasQuoted);
+            return true;
+        }
+
+        private void endField(boolean wasQuoted) {
+            fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+            field.setLength(0);
+        }
+
+        private int read() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            lookahead = c;
+        }
+    }
+}
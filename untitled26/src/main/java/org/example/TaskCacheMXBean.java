@@ -0,0 +1,26 @@
+package org.example;
+
+// JMX: org.example:type=TaskCache
+public interface TaskCacheMXBean {
+    int getCachedTaskCount();
+
+    boolean isCacheValid();
+
+    long getSummaryHitCount();
+
+    long getSummaryRefreshCount();
+
+    long getSummaryVersion();
+
+    int getTaskCacheSize();
+
+    double getTaskCacheHitRate();
+
+    int getDescriptionCacheSize();
+
+    long getCacheTimeoutMillis();
+
+    void setCacheTimeoutMillis(long millis);
+
+    void flushCache();
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+public class TaskChange {
+    private final long seq;
+    private final long taskId;
+    private final Operation operation;
+
+    public enum Operation {
+        INSERT("I"),
+        UPDATE("U"),
+        DELETE("D");
+
+        private final String code;
+
+        Operation(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public static Operation fromCode(String code) {
+            for (Operation operation : values()) {
+                if (operation.code.equals(code)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестная операция: " + code);
+        }
+    }
+
+    public TaskChange(long seq, long taskId, Operation operation) {
+        this.seq = seq;
+        this.taskId = taskId;
+        this.operation = operation;
+    }
+
+    public long getSeq() { return seq; }
+
+    public long getTaskId() { return taskId; }
+
+    public Operation getOperation() { return operation; }
+
+    @Override
+    public String toString() {
+        return "TaskChange{" +
+                "seq=" + seq +
+                ", taskId=" + taskId +
+                ", operation=" + operation +
+                '}';
+    }
+}
@@ -0,0 +1,10 @@
+package org.example;
+
+import java.util.List;
+
+// Журнал изменений таблицы tasks, который ведут триггеры (см. SqliteDialect.createChangeLog)
+public interface TaskChangeLog {
+    long getLatestChangeSeq();
+
+    List<TaskChange> findChangesSince(long seq, int limit);
+}
@@ -1,12 +1,23 @@
 package org.example;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TaskDao {
     Optional<Task> findById(Long id);
+    // В порядке ids (повторы - один раз), ненайденные пропускаются
+    List<Task> findByIds(Collection<Long> ids);
     List<Task> findAll();
+    // Без description: для списков, описание подгружается через findDescription
+    List<Task> findAllSummaries();
+    Optional<String> findDescription(Long id);
     Long save(Task task);
+    // Вставка (id null или такой задачи нет - с новым id) или обновление по id;
+    // возвращает сохранённую задачу, null при ошибке
+    Task upsert(Task task);
+    // Сохранённые задачи в том же порядке; при ошибке - пустой список
+    List<Task> upsertAll(List<Task> tasks);
     boolean delete(Long id);
     boolean update(Task task);
 
@@ -0,0 +1,9 @@
+package org.example;
+
+import java.util.List;
+
+// Фоновые задания (TaskArchive, RetentionPurge) удаляют строки мимо TaskService.
+// Журнал изменений догоняет только кэш списка, поэтому задания сообщают удалённые id сами
+public interface TaskDeletionListener {
+    void onTasksDeleted(List<Long> ids);
+}
@@ -0,0 +1,292 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+// Файлы JournaledTaskDao: журнал операций (только дописывание) и снимок, после записи
+// которого журнал обнуляется. Запись журнала: длина, CRC32, операция PUT (задача целиком)
+// или DELETE (id). Повторное применение записей безопасно, поэтому сбой между записью
+// снимка и обнулением журнала ничего не портит.
+final class TaskJournal implements AutoCloseable {
+    private static final Log log = Log.get(TaskJournal.class);
+    static final String JOURNAL_FILE = "tasks.journal";
+    static final String SNAPSHOT_FILE = "tasks.journal.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x544A534E; // "TJSN"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    private static final int RECORD_HEADER_SIZE = 4 + 4;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    interface Replay {
+        void put(Task task);
+
+        void delete(long id);
+    }
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+
+    // Логические позиции (байт, записанных за всё время) для группового fsync:
+    // поток, дописавший запись, ждёт, пока synced не дойдёт до его позиции
+    private volatile long appended;
+    private volatile long synced;
+    private final Object syncLock = new Object();
+    private long syncCount;
+    private int recordCount;
+
+    TaskJournal(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        this.journalFile = dir.resolve(JOURNAL_FILE);
+        this.snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Снимок, затем журнал; возвращает следующий свободный id по данным снимка
+    synchronized long recover(Replay replay) throws IOException {
+        long nextId = readSnapshot(replay);
+
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+
+        long goodPosition = 0;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            byte operation = payload.get();
+            if (operation == PUT) {
+                Task task = decodeTask(payload);
+                nextId = Math.max(nextId, task.getId() + 1);
+                replay.put(task);
+            } else if (operation == DELETE) {
+                long id = payload.getLong();
+                nextId = Math.max(nextId, id + 1);
+                replay.delete(id);
+            } else {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            goodPosition = buffer.position();
+            recordCount++;
+        }
+
+        // Хвост, недописанный при сбое, отбрасываем
+        if (goodPosition < size) {
+            log.warn("Журнал задач обрезан до последней целой записи: {} -> {} байт", size, goodPosition);
+            channel.truncate(goodPosition);
+            channel.force(false);
+        }
+        channel.position(goodPosition);
+        log.info("Журнал задач восстановлен: {} записей", recordCount);
+        return nextId;
+    }
+
+    synchronized long appendPut(Task task) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(1 + estimateTaskSize(task)).order(ByteOrder.LITTLE_ENDIAN);
+        payload.put(PUT);
+        encodeTask(payload, task);
+        return append(payload.flip());
+    }
+
+    synchronized long appendDelete(long id) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        payload.put(DELETE);
+        payload.putLong(id);
+        return append(payload.flip());
+    }
+
+    private long append(ByteBuffer payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(payload.remaining());
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        long start = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            // Недописанная запись оборвала бы восстановление всех последующих
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+        recordCount++;
+        appended += record.limit();
+        return appended;
+    }
+
+    // Один fsync покрывает все записи, дописанные к его началу, поэтому
+    // параллельные писатели платят за него вместе
+    void awaitDurable(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target = appended;
+            channel.force(false);
+            syncCount++;
+            synced = target;
+        }
+    }
+
+    // Вызывающий не должен дописывать журнал, пока снимок пишется
+    synchronized void writeSnapshot(Collection<Task> tasks, long nextId) throws IOException {
+        long size = 0;
+        for (Task task : tasks) {
+            size += estimateTaskSize(task);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Снимок журнала слишком велик: " + size + " байт");
+        }
+        ByteBuffer payload = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        for (Task task : tasks) {
+            encodeTask(payload, task);
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SNAPSHOT_MAGIC);
+        header.putInt(SNAPSHOT_VERSION);
+        header.putLong(nextId);
+        header.putLong(crc.getValue());
+        header.putInt(tasks.size());
+        header.flip();
+
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            while (payload.hasRemaining()) {
+                out.write(payload);
+            }
+            out.force(false);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized (syncLock) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(false);
+            synced = appended;
+        }
+        recordCount = 0;
+    }
+
+    private long readSnapshot(Replay replay) throws IOException {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return 1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < SNAPSHOT_HEADER_SIZE
+                || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Снимок журнала имеет неизвестный формат: " + snapshotFile);
+        }
+        long nextId = buffer.getLong();
+        long expectedCrc = buffer.getLong();
+        int count = buffer.getInt();
+
+        // Без снимка журнал неполон, поэтому повреждённый снимок - ошибка, а не повод начать с нуля
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Контрольная сумма снимка журнала не совпадает: " + snapshotFile);
+        }
+        for (int i = 0; i < count; i++) {
+            replay.put(decodeTask(buffer));
+        }
+        return nextId;
+    }
+
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    long getSyncCount() {
+        synchronized (syncLock) {
+            return syncCount;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private static int estimateTaskSize(Task task) {
+        return 8 + 4 + 1 + 1 + 8
+                + stringSize(task.getTitle()) + stringSize(task.getDescription()) + stringSize(task.getCategory());
+    }
+
+    private static int stringSize(String value) {
+        return 4 + (value != null ? value.length() * 3 : 0);
+    }
+
+    private static void encodeTask(ByteBuffer buffer, Task task) {
+        buffer.putLong(task.getId());
+        buffer.putInt((int) task.getDueDate().toEpochDay());
+        buffer.put((byte) (task.isCompleted() ? 1 : 0));
+        buffer.put((byte) task.getPriority().ordinal());
+        buffer.putLong(task.getCreatedAt() != null ? task.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+        TaskSnapshotFile.putString(buffer, task.getTitle());
+        TaskSnapshotFile.putString(buffer, task.getDescription());
+        TaskSnapshotFile.putString(buffer, task.getCategory());
+    }
+
+    private static Task decodeTask(ByteBuffer buffer) {
+        Task task = new Task();
+        task.setId(buffer.getLong());
+        task.setDueDate(LocalDate.ofEpochDay(buffer.getInt()));
+        task.setCompleted(buffer.get() == 1);
+        task.setPriority(Task.Priority.values()[buffer.get()]);
+        long createdAt = buffer.getLong();
+        task.setCreatedAt(createdAt != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(createdAt, 0, ZoneOffset.UTC) : null);
+        task.setTitle(TaskSnapshotFile.getString(buffer));
+        task.setDescription(TaskSnapshotFile.getString(buffer));
+        String category = TaskSnapshotFile.getString(buffer);
+        task.setCategory(category != null ? category.intern() : null);
+        return task;
+    }
+}
@@ -0,0 +1,303 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Минимальный JSON без внешних зависимостей: задачи в формате JSON Lines
+public final class TaskJson {
+
+    private TaskJson() {
+    }
+
+    public static String toJson(Task task) {
+        StringBuilder sb = new StringBuilder(128);
+        appendTask(sb,
+                task.getId(),
+                task.getTitle(),
+                task.getDescription(),
+                task.isCompleted(),
+                task.getDueDate() != null ? task.getDueDate().toString() : null,
+                task.getPriority() != null ? task.getPriority().name() : null,
+                task.getCategory(),
+                task.getCreatedAt() != null ? task.getCreatedAt().toString() : null);
+        return sb.toString();
+    }
+
+    public static String toJson(TaskRecord task) {
+        StringBuilder sb = new StringBuilder(128);
+        LocalDate dueDate = task.dueDate();
+        LocalDateTime createdAt = task.createdAt();
+        appendTask(sb,
+                task.id(),
+                task.title(),
+                task.description(),
+                task.completed(),
+                dueDate != null ? dueDate.toString() : null,
+                task.priority() != null ? task.priority().name() : null,
+                task.category(),
+                createdAt != null ? createdAt.toString() : null);
+        return sb.toString();
+    }
+
+    public static void appendTask(StringBuilder sb, Long id, String title, String description,
+                                  boolean completed, String dueDate, String priority,
+                                  String category, String createdAt) {
+        sb.append("{\"id\":").append(id);
+        sb.append(",\"title\":");
+        appendString(sb, title);
+        sb.append(",\"description\":");
+        appendString(sb, description);
+        sb.append(",\"completed\":").append(completed);
+        sb.append(",\"due_date\":");
+        appendString(sb, dueDate);
+        sb.append(",\"priority\":");
+        appendString(sb, priority);
+        sb.append(",\"category\":");
+        appendString(sb, category);
+        sb.append(",\"created_at\":");
+        appendString(sb, createdAt);
+        sb.append('}');
+    }
+
+    public static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    public static Task toTask(Map<String, Object> json) {
+        Task task = new Task();
+
+        Object id = json.get("id");
+        if (id instanceof Number) {
+            task.setId(((Number) id).longValue());
+        }
+        task.setTitle(asString(json.get("title")));
+        task.setDescription(asString(json.get("description")));
+        task.setCompleted(Boolean.TRUE.equals(json.get("completed")));
+
+        String dueDate = asString(json.get("due_date"));
+        task.setDueDate(dueDate != null ? LocalDate.parse(dueDate) : null);
+
+        String priority = asString(json.get("priority"));
+        task.setPriority(priority != null ? Task.Priority.valueOf(priority) : Task.Priority.MEDIUM);
+        task.setCategory(asString(json.get("category")));
+
+        String createdAt = asString(json.get("created_at"));
+        if (createdAt != null) {
+            task.setCreatedAt(LocalDateTime.parse(createdAt.replace(' ', 'T')));
+        }
+        return task;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String json) {
+        Object value = new Parser(json).parseDocument();
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался JSON-объект");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        private final String json;
+        private int pos;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Object parseDocument() {
+            Object value = parseValue();
+            skipWhitespace();
+            if (pos != json.length()) {
+                throw error("Лишние символы после JSON");
+            }
+            return value;
+        }
+
+        private Object parseValue() {
+            skipWhitespace();
+            if (pos >= json.length()) {
+                throw error("Неожиданный конец JSON");
+            }
+
+            char c = json.charAt(pos);
+            switch (c) {
+                case '{':
+                    return parseObject();
+                case '[':
+                    return parseArray();
+                case '"':
+                    return parseString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    return parseNumber();
+            }
+        }
+
+        private Map<String, Object> parseObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                consume(':');
+                object.put(key, parseValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    consume('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> parseArray() {
+            List<Object> array = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+
+            while (true) {
+                array.add(parseValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    consume(']');
+                    return array;
+                }
+            }
+        }
+
+        private String parseString() {
+            consume('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+
+                if (pos >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) {
+                            throw error("Неполная escape-последовательность");
+                        }
+                        sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+            throw error("Незакрытая строка");
+        }
+
+        private Number parseNumber() {
+            int start = pos;
+            while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String number = json.substring(start, pos);
+            if (number.isEmpty()) {
+                throw error("Неожиданный символ '" + json.charAt(start) + "'");
+            }
+            if (number.contains(".") || number.contains("e") || number.contains("E")) {
+                return Double.parseDouble(number);
+            }
+            return Long.parseLong(number);
+        }
+
+        private void expect(String literal) {
+            if (!json.startsWith(literal, pos)) {
+                throw error("Ожидалось " + literal);
+            }
+            pos += literal.length();
+        }
+
+        private void consume(char expected) {
+            if (peek() != expected) {
+                throw error("Ожидался символ '" + expected + "'");
+            }
+            pos++;
+        }
+
+        private char peek() {
+            return pos < json.length() ? json.charAt(pos) : '\0';
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " (позиция " + pos + ")");
+        }
+    }
+}
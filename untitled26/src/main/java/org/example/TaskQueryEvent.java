@@ -0,0 +1,45 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: один SQL-запрос JdbcTaskDao
+@Name("org.example.TaskQuery")
+@Label("Task Query")
+@Category({"Task Manager", "Database"})
+@Description("Запрос JdbcTaskDao: метод, идентификатор SQL и число строк")
+@StackTrace(false)
+public class TaskQueryEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("SQL Id")
+    @Description("Хэш текста SQL: одинаков для одного и того же запроса")
+    String sqlId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Прочитано строк для SELECT, изменено - для INSERT/UPDATE/DELETE")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    // Строки заполняются только для события, которое будет записано: при выключенном
+    // JFR begin() и этот вызов ничего не стоят, а хэш SQL не считается
+    void commit(String method, String sql) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.sql = sql;
+            this.sqlId = Integer.toHexString(sql.hashCode());
+            commit();
+        }
+    }
+}
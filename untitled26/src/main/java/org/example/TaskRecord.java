@@ -0,0 +1,73 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Неизменяемая задача для общих кэшей: экземпляры раздаются без копирования.
+// Поля компактные: id без упаковки, срок - номер дня, создание - секунды UTC (как в TaskJournal),
+// категория интернирована. Изменения - через with-методы, возвращающие новую запись
+public record TaskRecord(long id, String title, String description, boolean completed, int dueEpochDay,
+                         Task.Priority priority, String category, long createdAtEpochSecond) {
+
+    // Без срока - в конец списка, как nullsLast в порядке кэша
+    public static final int NO_DUE_DATE = Integer.MAX_VALUE;
+    public static final long NO_CREATED_AT = Long.MIN_VALUE;
+
+    public TaskRecord {
+        category = category != null ? category.intern() : null;
+    }
+
+    public static TaskRecord of(Task task) {
+        if (task.getId() == null) {
+            throw new IllegalArgumentException("Задача без id не может попасть в кэш: " + task);
+        }
+        return new TaskRecord(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted(),
+                task.getDueDate() != null ? (int) task.getDueDate().toEpochDay() : NO_DUE_DATE,
+                task.getPriority(), task.getCategory(),
+                task.getCreatedAt() != null ? task.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : NO_CREATED_AT);
+    }
+
+    // Изменяемая копия для UI и DAO
+    public Task toTask() {
+        Task task = new Task(title, description, dueDate(), priority, category);
+        task.setId(id);
+        task.setCompleted(completed);
+        task.setCreatedAt(createdAt());
+        return task;
+    }
+
+    public LocalDate dueDate() {
+        return dueEpochDay != NO_DUE_DATE ? LocalDate.ofEpochDay(dueEpochDay) : null;
+    }
+
+    public LocalDateTime createdAt() {
+        return createdAtEpochSecond != NO_CREATED_AT
+                ? LocalDateTime.ofEpochSecond(createdAtEpochSecond, 0, ZoneOffset.UTC) : null;
+    }
+
+    public TaskRecord withTitle(String title) {
+        return new TaskRecord(id, title, description, completed, dueEpochDay, priority, category, createdAtEpochSecond);
+    }
+
+    public TaskRecord withDescription(String description) {
+        return new TaskRecord(id, title, description, completed, dueEpochDay, priority, category, createdAtEpochSecond);
+    }
+
+    public TaskRecord withCompleted(boolean completed) {
+        return new TaskRecord(id, title, description, completed, dueEpochDay, priority, category, createdAtEpochSecond);
+    }
+
+    public TaskRecord withDueDate(LocalDate dueDate) {
+        return new TaskRecord(id, title, description, completed,
+                dueDate != null ? (int) dueDate.toEpochDay() : NO_DUE_DATE, priority, category, createdAtEpochSecond);
+    }
+
+    public TaskRecord withPriority(Task.Priority priority) {
+        return new TaskRecord(id, title, description, completed, dueEpochDay, priority, category, createdAtEpochSecond);
+    }
+
+    public TaskRecord withCategory(String category) {
+        return new TaskRecord(id, title, description, completed, dueEpochDay, priority, category, createdAtEpochSecond);
+    }
+}
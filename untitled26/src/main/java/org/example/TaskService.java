@@ -1,21 +1,107 @@
 package org.example;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
-public class TaskService {
+public class TaskService implements TaskCacheMXBean {
+    private static final Log log = Log.get(TaskService.class);
     private final TaskDao taskDao;
+    private final TaskChangeLog changeLog;
+    private final MetricsRegistry metrics;
+    private final RecurringTasks recurringTasks; // null для хранилищ без JDBC
+
+    // Читатели берут снимок одной volatile-ссылкой, без блокировки и копии;
+    // перестроения идут по одному под refreshLock
+    private final AtomicReference<SummarySnapshot> summaries = new AtomicReference<>(SummarySnapshot.EMPTY);
+    private final Object refreshLock = new Object();
+    private static final long DEFAULT_CACHE_TIMEOUT_MS = 30000; // 30 секунд
+    private volatile long cacheTimeoutMs = DEFAULT_CACHE_TIMEOUT_MS;
+    private final LongAdder summaryHits = new LongAdder();
+    private final LongAdder summaryRefreshes = new LongAdder();
+    // Больше изменений дешевле перечитать целиком
+    private static final int MAX_INCREMENTAL_CHANGES = 500;
+    private static final int DESCRIPTION_CACHE_SIZE = 200;
+    private static final int TASK_CACHE_SIZE = 1000;
+
+    private final LruCache<Long, String> descriptionCache = new LruCache<>(DESCRIPTION_CACHE_SIZE);
+    private final TinyLfuCache<Long, TaskRecord> taskCache = new TinyLfuCache<>(TASK_CACHE_SIZE);
+    // Растёт перед каждой записью в taskCache и descriptionCache со стороны изменений: строка,
+    // прочитанная из базы до изменения, не должна лечь в кэш после его инвалидации
+    private final AtomicLong taskCacheWrites = new AtomicLong();
+
+    private final ThreadLocal<TaskTransaction> currentTransaction = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T run(TaskTransaction transaction);
+    }
+
+    // Тот же порядок, что и ORDER BY due_date в TaskDaoImpl.findAll; задачи без срока - в конце
+    private static final Comparator<TaskRecord> CACHE_ORDER = Comparator
+            .comparingInt(TaskRecord::dueEpochDay)
+            .thenComparingLong(TaskRecord::id);
+
+    // Неизменяемый снимок списка задач. Каждая публикация получает новый номер версии,
+    // поэтому перестроение, начатое до инвалидации, не сделает снимок снова действительным
+    private static final class SummarySnapshot {
+        static final SummarySnapshot EMPTY = new SummarySnapshot(null, 0, false, 0, -1, false);
+
+        final List<TaskRecord> tasks; // null - список ещё не загружен или сброшен
+        final long version;
+        final boolean valid;
+        final long loadedAt;
+        final long syncedSeq; // -1: кэш не привязан к журналу изменений
+        final boolean restored;
+
+        SummarySnapshot(List<TaskRecord> tasks, long version, boolean valid, long loadedAt, long syncedSeq, boolean restored) {
+            this.tasks = tasks;
+            this.version = version;
+            this.valid = valid;
+            this.loadedAt = loadedAt;
+            this.syncedSeq = syncedSeq;
+            this.restored = restored;
+        }
 
-    private List<Task> cachedTasks = null;
-    private boolean cacheValid = false;
-    private long lastCacheTime = 0;
-    private static final long CACHE_TIMEOUT_MS = 30000; // 30 секунд
+        SummarySnapshot invalidated(boolean keepTasks) {
+            return new SummarySnapshot(keepTasks ? tasks : null, version + 1, false, loadedAt, syncedSeq, restored);
+        }
+
+        int size() {
+            return tasks != null ? tasks.size() : 0;
+        }
+    }
 
     public TaskService(TaskDao taskDao) {
+        this(taskDao, new MetricsRegistry());
+    }
+
+    public TaskService(TaskDao taskDao, MetricsRegistry metrics) {
         this.taskDao = taskDao;
+        this.changeLog = taskDao instanceof TaskChangeLog ? (TaskChangeLog) taskDao : null;
+        this.metrics = metrics;
+        ConnectionPool pool = connectionPool();
+        this.recurringTasks = pool != null ? new RecurringTasks(pool) : null;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
     }
 
     public Long save(Task task) {
@@ -24,87 +110,553 @@ public class TaskService {
     }
 
     public boolean update(Task task) {
+        if (RecurringTasks.isOccurrenceId(task.getId())) {
+            // Поля повторения задаёт серия; отдельно хранится только отметка о выполнении
+            log.warn("Повторение {} нельзя изменить отдельно от серии", task.getId());
+            return false;
+        }
+        invalidateCache();
+        invalidateTask(task.getId());
+        boolean updated = taskDao.update(task);
+        invalidateTask(task.getId());
+        return updated;
+    }
+
+    // Сохранённая строка приходит из того же запроса и сразу кладётся в кэш задач
+    public Task upsert(Task task) {
+        invalidateCache();
+        if (task.getId() != null) {
+            invalidateTask(task.getId());
+        }
+        Task stored = taskDao.upsert(task);
+        if (stored != null) {
+            storeTask(stored);
+        } else if (task.getId() != null) {
+            invalidateTask(task.getId());
+        }
+        return stored;
+    }
+
+    public List<Task> upsertAll(List<Task> tasks) {
+        invalidateCache();
+        for (Task task : tasks) {
+            if (task.getId() != null) {
+                invalidateTask(task.getId());
+            }
+        }
+        List<Task> stored = taskDao.upsertAll(tasks);
+        for (Task task : stored) {
+            storeTask(task);
+        }
+        return stored;
+    }
+
+    // Несколько изменений одной транзакцией на одном соединении: один commit (и один fsync)
+    // вместо своего на каждое, а другие потоки не видят промежуточного состояния.
+    // Исключение из work откатывает всё. Вложенный вызов на том же потоке становится
+    // точкой сохранения внешней транзакции. Кэш обновляется один раз, после фиксации
+    public <T> T inTransaction(TransactionWork<T> work) {
+        TaskTransaction outer = currentTransaction.get();
+        if (outer != null) {
+            Savepoint savepoint = outer.savepoint();
+            try {
+                T result = work.run(outer);
+                outer.releaseSavepoint(savepoint);
+                return result;
+            } catch (RuntimeException e) {
+                outer.rollbackTo(savepoint);
+                throw e;
+            }
+        }
+
+        ConnectionPool pool = connectionPool();
+        if (pool == null) {
+            throw new UnsupportedOperationException("Транзакции поддерживаются только для хранилищ JDBC");
+        }
+        Connection connection;
+        try {
+            connection = pool.pin();
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось начать транзакцию", e);
+        }
+
+        TaskTransaction transaction = new TaskTransaction(taskDao, connection);
+        currentTransaction.set(transaction);
+        boolean committed = false;
+        try {
+            T result = work.run(transaction);
+            connection.commit();
+            committed = true;
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось зафиксировать транзакцию", e);
+        } finally {
+            currentTransaction.remove();
+            pool.unpin(connection);
+            if (committed) {
+                applyCommitted(transaction);
+            }
+        }
+    }
+
+    // Пул JdbcTaskDao; null для хранилищ без JDBC (журнал, шарды)
+    private ConnectionPool connectionPool() {
+        TaskDao dao = taskDao instanceof TimedTaskDao ? ((TimedTaskDao) taskDao).getDelegate() : taskDao;
+        return dao instanceof JdbcTaskDao ? ((JdbcTaskDao) dao).getConnectionPool() : null;
+    }
+
+    private void applyCommitted(TaskTransaction transaction) {
+        if (transaction.getTouchedIds().isEmpty() && transaction.getStoredTasks().isEmpty()) {
+            return;
+        }
         invalidateCache();
-        return taskDao.update(task);
+        for (Long id : transaction.getTouchedIds()) {
+            invalidateTask(id);
+        }
+        for (Task stored : transaction.getStoredTasks().values()) {
+            storeTask(stored);
+        }
     }
 
+    // Для повторения серии - пропуск этого дня
     public boolean delete(Long id) {
+        if (RecurringTasks.isOccurrenceId(id)) {
+            return recurringTasks != null && recurringTasks.skip(id);
+        }
         invalidateCache();
-        return taskDao.delete(id);
+        invalidateTask(id);
+        boolean deleted = taskDao.delete(id);
+        invalidateTask(id);
+        return deleted;
     }
 
     public Task findById(Long id) {
-        return taskDao.findById(id).orElse(null);
+        if (id == null) {
+            return null;
+        }
+        if (RecurringTasks.isOccurrenceId(id)) {
+            return recurringTasks != null ? recurringTasks.findOccurrence(id).orElse(null) : null;
+        }
+
+        TaskRecord cached = taskCache.get(id);
+        if (cached != null) {
+            CacheDecisionEvent.commit("task", CacheDecisionEvent.HIT, id, taskCache.size());
+            return cached.toTask();
+        }
+
+        long writes = taskCacheWrites.get();
+        Task task = taskDao.findById(id).orElse(null);
+        if (task != null) {
+            cacheLoaded(task, writes);
+        }
+        CacheDecisionEvent.commit("task", CacheDecisionEvent.MISS, id, taskCache.size());
+        return task;
+    }
+
+    // Задачи из кэша отдаются сразу, остальные читаются одним findByIds; порядок - как в ids
+    public List<Task> findByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        Map<Long, Task> found = new HashMap<>(unique.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            TaskRecord cached = taskCache.get(id);
+            if (cached != null) {
+                found.put(id, cached.toTask());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long writes = taskCacheWrites.get();
+            for (Task task : taskDao.findByIds(missing)) {
+                cacheLoaded(task, writes);
+                found.put(task.getId(), task);
+            }
+        }
+        CacheDecisionEvent.commit("task", missing.isEmpty() ? CacheDecisionEvent.HIT : CacheDecisionEvent.MISS,
+                0, taskCache.size());
+
+        List<Task> tasks = new ArrayList<>(found.size());
+        for (Long id : unique) {
+            Task task = found.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private void invalidateTask(Long id) {
+        taskCacheWrites.incrementAndGet();
+        taskCache.invalidate(id);
+        descriptionCache.remove(id);
+        CacheDecisionEvent.commit("task", CacheDecisionEvent.INVALIDATE, id != null ? id : 0, taskCache.size());
+    }
+
+    // Строка, только что записанная в базу; в кэше - неизменяемая запись, вызывающий может менять stored
+    private void storeTask(Task stored) {
+        taskCacheWrites.incrementAndGet();
+        taskCache.put(stored.getId(), TaskRecord.of(stored));
+        descriptionCache.remove(stored.getId());
+    }
+
+    // То же для описания, прочитанного отдельным запросом
+    private void descriptionLoaded(Long id, String description, long writesBeforeRead) {
+        if (currentTransaction.get() != null) {
+            return;
+        }
+        descriptionCache.put(id, description);
+        if (taskCacheWrites.get() != writesBeforeRead) {
+            descriptionCache.remove(id);
+        }
+    }
+
+    // Строка, прочитанная при промахе. Если с начала чтения было изменение, строка могла
+    // устареть: её убираем сами или её уберёт инвалидация изменения, идущая следом
+    private void cacheLoaded(Task task, long writesBeforeRead) {
+        // Строка, прочитанная внутри транзакции, может быть ещё не зафиксирована
+        if (currentTransaction.get() != null) {
+            return;
+        }
+        taskCache.put(task.getId(), TaskRecord.of(task));
+        if (taskCacheWrites.get() != writesBeforeRead) {
+            taskCache.invalidate(task.getId());
+        }
+    }
+
+    // В кэше неизменяемые записи; наружу каждый раз уходит новая Task из toTask(),
+    // так что правка полученной задачи (например, в окне редактирования) кэш не меняет
+    public TinyLfuCache<Long, TaskRecord> getTaskCache() {
+        return taskCache;
     }
 
     public List<Task> findAll() {
-        System.out.println("TaskService.findAll() - " + Thread.currentThread().getName());
+        log.debug("findAll() - {}", Thread.currentThread().getName());
+
+        try {
+            return taskDao.findAll();
+        } catch (Exception e) {
+            log.error("Ошибка в findAll", e);
 
-        if (cacheValid && cachedTasks != null &&
-                System.currentTimeMillis() - lastCacheTime < CACHE_TIMEOUT_MS) {
-            System.out.println("Используем кэшированные задачи: " + cachedTasks.size());
-            return new ArrayList<>(cachedTasks); // Возвращаем копию
+            List<Task> tasks = findAllSimple();
+            return tasks != null ? tasks : new ArrayList<>();
         }
+    }
+
+    // Запасной путь JdbcTaskDao; null, если DAO его не поддерживает
+    private List<Task> findAllSimple() {
+        TaskDao dao = taskDao instanceof TimedTaskDao ? ((TimedTaskDao) taskDao).getDelegate() : taskDao;
+        return dao instanceof JdbcTaskDao ? ((JdbcTaskDao) dao).findAllSimple() : null;
+    }
 
+    // Задачи без описания для списков; описание - через getDescription.
+    // Каждый вызов получает свои изменяемые Task, общий снимок они не затрагивают
+    public List<Task> findAllSummaries() {
+        return toTasks(findAllSummaryRecords());
+    }
+
+    // Тот же список без копирования: общий неизменяемый снимок для тех, кому хватает чтения
+    public List<TaskRecord> findAllSummaryRecords() {
+        return metrics.time("service.findAllSummaries", this::loadSummaries);
+    }
+
+    // Чтение можно прервать через token; тогда бросается QueryCancelledException, а кэш остаётся прежним
+    public List<Task> findAllSummaries(CancellationToken token) {
+        return CancellationToken.callWith(token, this::findAllSummaries);
+    }
+
+    public List<TaskRecord> findAllSummaryRecords(CancellationToken token) {
+        return CancellationToken.callWith(token, this::findAllSummaryRecords);
+    }
+
+    private List<TaskRecord> loadSummaries() {
+        // На потоке inTransaction чтение видит незафиксированные строки, а номера журнала после
+        // отката выдаются заново: такой результат не публикуется и не продвигает синхронизацию
+        if (currentTransaction.get() != null) {
+            return toRecords(taskDao.findAllSummaries());
+        }
+        SummarySnapshot seen = summaries.get();
+        if (isFresh(seen)) {
+            return hit(seen);
+        }
+
+        synchronized (refreshLock) {
+            // Пока ждали, снимок мог перестроить другой поток: второй раз базу не читаем
+            SummarySnapshot current = summaries.get();
+            if (isFresh(current) || current != seen && current.valid && current.tasks != null) {
+                return hit(current);
+            }
+
+            try {
+                summaryRefreshes.increment();
+                SummarySnapshot refreshed = metrics.time("service.cacheRefresh", () -> syncCache(current));
+                CacheDecisionEvent.commit("summaries", CacheDecisionEvent.REFRESH, 0, refreshed.size());
+                return refreshed.tasks;
+
+            } catch (QueryCancelledException e) {
+                // Запасное чтение тоже упрётся в отмену или таймаут
+                throw e;
+            } catch (Exception e) {
+                log.error("Ошибка в findAllSummaries", e);
+
+                List<Task> tasks = findAllSimple();
+                if (tasks != null) {
+                    return publish(current, toRecords(tasks), true, -1, false).tasks;
+                }
+
+                return Collections.emptyList();
+            }
+        }
+    }
+
+    private boolean isFresh(SummarySnapshot snapshot) {
+        return snapshot.valid && snapshot.tasks != null &&
+                System.currentTimeMillis() - snapshot.loadedAt < cacheTimeoutMs;
+    }
+
+    private List<TaskRecord> hit(SummarySnapshot snapshot) {
+        log.debug("Используем кэшированные задачи: {}", snapshot.tasks.size());
+        summaryHits.increment();
+        CacheDecisionEvent.commit("summaries", CacheDecisionEvent.HIT, 0, snapshot.tasks.size());
+        return snapshot.tasks;
+    }
+
+    // Публикует новый снимок. Если с момента base кэш инвалидировали, снимок публикуется
+    // недействительным: данные могли быть прочитаны до записи, но пригодны для догонки по журналу
+    private SummarySnapshot publish(SummarySnapshot base, List<TaskRecord> tasks, boolean valid, long syncedSeq,
+                                    boolean restored) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            SummarySnapshot current = summaries.get();
+            SummarySnapshot next = new SummarySnapshot(tasks, current.version + 1, valid && current == base,
+                    now, syncedSeq, restored);
+            if (summaries.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+    public String getDescription(Task task) {
+        if (task == null) {
+            return null;
+        }
+        if (task.getDescription() != null || task.getId() == null) {
+            return task.getDescription();
+        }
+
+        String description = descriptionCache.get(task.getId());
+        if (description == null) {
+            long writes = taskCacheWrites.get();
+            description = taskDao.findDescription(task.getId()).orElse("");
+            descriptionLoaded(task.getId(), description, writes);
+            CacheDecisionEvent.commit("description", CacheDecisionEvent.MISS, task.getId(), descriptionCache.size());
+        } else {
+            CacheDecisionEvent.commit("description", CacheDecisionEvent.HIT, task.getId(), descriptionCache.size());
+        }
+        return description;
+    }
+
+    private SummarySnapshot syncCache(SummarySnapshot base) {
+        if (changeLog == null || base.tasks == null || base.syncedSeq < 0) {
+            return reloadCache(base);
+        }
+
+        List<TaskChange> changes;
         try {
-            List<Task> tasks = taskDao.findAll();
-            System.out.println("Загружено из БД: " + tasks.size() + " задач");
+            changes = changeLog.findChangesSince(base.syncedSeq, MAX_INCREMENTAL_CHANGES + 1);
+        } catch (Exception e) {
+            log.warn("Журнал изменений недоступен: {}", e.getMessage());
+            return reloadCache(base);
+        }
+
+        if (changes.size() > MAX_INCREMENTAL_CHANGES ||
+                !changes.isEmpty() && changes.get(0).getSeq() != base.syncedSeq + 1) {
+            // Слишком много изменений или нужные записи уже удалены компактизацией
+            return reloadCache(base);
+        }
+        if (changes.isEmpty() && base.restored && changeLog.getLatestChangeSeq() != base.syncedSeq) {
+            // Снимок новее базы: база заменена или восстановлена из копии
+            return reloadCache(base);
+        }
+
+        if (changes.isEmpty()) {
+            return publish(base, base.tasks, true, base.syncedSeq, false);
+        }
+        List<TaskRecord> tasks = applyChanges(base.tasks, changes);
+        return publish(base, tasks, true, changes.get(changes.size() - 1).getSeq(), false);
+    }
+
+    private SummarySnapshot reloadCache(SummarySnapshot base) {
+        // Номер берём до чтения таблицы: изменения, попавшие между запросами, применятся повторно
+        long seq = readLatestChangeSeq();
+        // Без журнала неизвестно, какие задачи изменились
+        taskCacheWrites.incrementAndGet();
+        taskCache.invalidateAll();
+        descriptionCache.clear();
+
+        List<Task> tasks = taskDao.findAllSummaries();
+        log.debug("Загружено из БД: {} задач", tasks.size());
+
+        return publish(base, toRecords(tasks), true, seq, false);
+    }
 
-            cachedTasks = new ArrayList<>(tasks);
-            cacheValid = true;
-            lastCacheTime = System.currentTimeMillis();
+    // Кэш из снимка считается устаревшим: первый findAllSummaries догонит его по журналу
+    public void restoreSnapshot(TaskSnapshotFile.Snapshot snapshot) {
+        if (changeLog == null || snapshot == null) {
+            return;
+        }
+        List<TaskRecord> tasks = toRecords(snapshot.getTasks());
+        synchronized (refreshLock) {
+            publish(null, tasks, false, snapshot.getChangeSeq(), true);
+        }
+    }
+
+    // null, если кэш не привязан к журналу и снимок нельзя будет проверить
+    public TaskSnapshotFile.Snapshot captureSnapshot() {
+        SummarySnapshot current = summaries.get();
+        if (current.tasks == null || current.syncedSeq < 0) {
+            return null;
+        }
+        return new TaskSnapshotFile.Snapshot(toTasks(current.tasks), current.syncedSeq);
+    }
 
-            return tasks;
+    // Текущее содержимое кэша без обращения к базе (может быть устаревшим)
+    public List<Task> peekCachedSummaries() {
+        return toTasks(peekCachedSummaryRecords());
+    }
+
+    public List<TaskRecord> peekCachedSummaryRecords() {
+        List<TaskRecord> tasks = summaries.get().tasks;
+        return tasks != null ? tasks : List.of();
+    }
+
+    // Отсортированный неизменяемый список записей для снимка
+    private static List<TaskRecord> toRecords(List<Task> tasks) {
+        List<TaskRecord> records = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            records.add(TaskRecord.of(task));
+        }
+        records.sort(CACHE_ORDER);
+        return Collections.unmodifiableList(records);
+    }
 
+    // Изменяемые копии для старых вызовов, которым нужна List<Task>
+    private static List<Task> toTasks(List<TaskRecord> records) {
+        List<Task> tasks = new ArrayList<>(records.size());
+        for (TaskRecord record : records) {
+            tasks.add(record.toTask());
+        }
+        return tasks;
+    }
+
+    // Номер текущего снимка; растёт при каждой перезагрузке, синхронизации и инвалидации
+    @Override
+    public long getSummaryVersion() {
+        return summaries.get().version;
+    }
+
+    private long readLatestChangeSeq() {
+        if (changeLog == null) {
+            return -1;
+        }
+        try {
+            return changeLog.getLatestChangeSeq();
         } catch (Exception e) {
-            System.err.println("Ошибка в findAll: " + e.getMessage());
-            e.printStackTrace();
-
-            if (taskDao instanceof TaskDaoImpl) {
-                List<Task> tasks = ((TaskDaoImpl) taskDao).findAllSimple();
-                cachedTasks = new ArrayList<>(tasks);
-                cacheValid = true;
-                lastCacheTime = System.currentTimeMillis();
-                return tasks;
+            log.warn("Журнал изменений недоступен: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // Новый список: старый снимок могут в это время читать другие потоки
+    private List<TaskRecord> applyChanges(List<TaskRecord> cached, List<TaskChange> changes) {
+        Map<Long, TaskChange.Operation> lastOperation = new LinkedHashMap<>();
+        for (TaskChange change : changes) {
+            lastOperation.put(change.getTaskId(), change.getOperation());
+        }
+
+        Set<Long> changedIds = new HashSet<>(lastOperation.keySet());
+        changedIds.forEach(this::invalidateTask);
+        List<TaskRecord> tasks = new ArrayList<>(cached.size() + changedIds.size());
+        for (TaskRecord task : cached) {
+            if (!changedIds.contains(task.id())) {
+                tasks.add(task);
             }
+        }
 
-            return new ArrayList<>();
+        for (Map.Entry<Long, TaskChange.Operation> entry : lastOperation.entrySet()) {
+            if (entry.getValue() == TaskChange.Operation.DELETE) {
+                continue;
+            }
+            long writes = taskCacheWrites.get();
+            taskDao.findById(entry.getKey()).ifPresent(task -> {
+                descriptionLoaded(task.getId(), task.getDescription() != null ? task.getDescription() : "", writes);
+                insertSorted(tasks, TaskRecord.of(task).withDescription(null));
+            });
         }
+
+        log.debug("Кэш синхронизирован по журналу: {} изменений", changes.size());
+        return Collections.unmodifiableList(tasks);
+    }
+
+    private static void insertSorted(List<TaskRecord> tasks, TaskRecord task) {
+        int index = Collections.binarySearch(tasks, task, CACHE_ORDER);
+        tasks.add(index < 0 ? -index - 1 : index, task);
     }
 
     public List<Task> findByCompleted(boolean completed) {
         try {
             return taskDao.findByCompleted(completed);
         } catch (Exception e) {
-            System.err.println("Ошибка в findByCompleted, используем фильтрацию: " + e.getMessage());
-            return findAll().stream()
-                    .filter(task -> task.isCompleted() == completed)
+            log.warn("Ошибка в findByCompleted, используем фильтрацию: {}", e.getMessage());
+            return findAllSummaryRecords().stream()
+                    .filter(task -> task.completed() == completed)
                     .limit(100) // Ограничиваем для производительности
+                    .map(TaskRecord::toTask)
                     .collect(Collectors.toList());
         }
     }
 
     public List<Task> findTodayTasks() {
+        List<Task> tasks;
         try {
-            return taskDao.findTodayTasks();
+            tasks = new ArrayList<>(taskDao.findTodayTasks());
         } catch (Exception e) {
-            System.err.println("Ошибка в findTodayTasks: " + e.getMessage());
-            return new ArrayList<>();
+            log.error("Ошибка в findTodayTasks: {}", e.getMessage());
+            tasks = new ArrayList<>();
         }
+        LocalDate today = LocalDate.now();
+        boolean merged = false;
+        for (Task occurrence : findOccurrences(today, today)) {
+            if (!occurrence.isCompleted()) {
+                tasks.add(occurrence);
+                merged = true;
+            }
+        }
+        if (merged) {
+            tasks.sort(RecurringTasks.OCCURRENCE_ORDER);
+        }
+        return tasks;
     }
 
     public List<Task> findOverdueTasks() {
         try {
             return taskDao.findOverdueTasks();
         } catch (Exception e) {
-            System.err.println("Ошибка в findOverdueTasks: " + e.getMessage());
+            log.error("Ошибка в findOverdueTasks: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
     public boolean markAsCompleted(Long id) {
+        if (RecurringTasks.isOccurrenceId(id)) {
+            return recurringTasks != null && recurringTasks.setCompleted(id, true);
+        }
         invalidateCache();
-        return taskDao.markAsCompleted(id);
+        invalidateTask(id);
+        boolean marked = taskDao.markAsCompleted(id);
+        invalidateTask(id);
+        return marked;
     }
 
     public List<Task> findTasksByCategory(String category) {
@@ -112,16 +664,18 @@ public class TaskService {
             return new ArrayList<>();
         }
 
-        if (cacheValid && cachedTasks != null) {
-            return cachedTasks.stream()
-                    .filter(task -> category.equalsIgnoreCase(task.getCategory()))
+        List<TaskRecord> cached = validSummaries();
+        if (cached != null) {
+            return cached.stream()
+                    .filter(task -> category.equalsIgnoreCase(task.category()))
+                    .map(TaskRecord::toTask)
                     .collect(Collectors.toList());
         }
 
         try {
             return taskDao.findTasksByCategory(category);
         } catch (Exception e) {
-            System.err.println("Ошибка в findTasksByCategory: " + e.getMessage());
+            log.error("Ошибка в findTasksByCategory: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -131,14 +685,10 @@ public class TaskService {
             return new ArrayList<>();
         }
 
-        if (cacheValid && cachedTasks != null) {
-            return cachedTasks.stream()
-                    .filter(task -> priority.equals(task.getPriority()))
-                    .collect(Collectors.toList());
-        }
-
-        return findAll().stream()
-                .filter(task -> priority.equals(task.getPriority()))
+        List<TaskRecord> cached = validSummaries();
+        return (cached != null ? cached : findAllSummaryRecords()).stream()
+                .filter(task -> priority.equals(task.priority()))
+                .map(TaskRecord::toTask)
                 .collect(Collectors.toList());
     }
 
@@ -146,8 +696,8 @@ public class TaskService {
         try {
             return taskDao.getTaskCount();
         } catch (Exception e) {
-            System.err.println("Ошибка в getTotalTaskCount: " + e.getMessage());
-            return findAll().size();
+            log.error("Ошибка в getTotalTaskCount: {}", e.getMessage());
+            return findAllSummaryRecords().size();
         }
     }
 
@@ -168,41 +718,139 @@ public class TaskService {
     }
 
     public Map<String, Long> getCategoryStatistics() {
-        if (cacheValid && cachedTasks != null) {
-            return cachedTasks.stream()
-                    .filter(task -> task.getCategory() != null && !task.getCategory().trim().isEmpty())
+        List<TaskRecord> cached = validSummaries();
+        if (cached != null) {
+            return cached.stream()
+                    .filter(task -> task.category() != null && !task.category().trim().isEmpty())
                     .collect(Collectors.groupingBy(
-                            Task::getCategory,
+                            TaskRecord::category,
                             Collectors.counting()
                     ));
         }
 
-        return findAll().stream()
-                .filter(task -> task.getCategory() != null && !task.getCategory().trim().isEmpty())
+        return findAllSummaryRecords().stream()
+                .filter(task -> task.category() != null && !task.category().trim().isEmpty())
                 .limit(1000) // Защита от переполнения
                 .collect(Collectors.groupingBy(
-                        Task::getCategory,
+                        TaskRecord::category,
                         Collectors.counting()
                 ));
     }
 
-    private void invalidateCache() {
-        cacheValid = false;
-        cachedTasks = null;
-        System.out.println("Кэш задач инвалидирован");
+    // Список действительного снимка без копии или null, если снимок устарел
+    private List<TaskRecord> validSummaries() {
+        SummarySnapshot current = summaries.get();
+        return current.valid ? current.tasks : null;
+    }
+
+    // Без журнала список сразу отбрасывается; с журналом остаётся для догонки по изменениям
+    public void invalidateCache() {
+        SummarySnapshot invalidated = summaries.updateAndGet(current -> current.invalidated(changeLog != null));
+        log.debug("Кэш задач инвалидирован");
+        CacheDecisionEvent.commit("summaries", CacheDecisionEvent.INVALIDATE, 0, invalidated.size());
+    }
+
+    // Строки, удалённые фоновым заданием уже после фиксации (TaskDeletionListener)
+    public void forgetTasks(List<Long> ids) {
+        invalidateCache();
+        ids.forEach(this::invalidateTask);
     }
 
 
     public List<Task> findTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<Task> tasks;
         try {
-            return taskDao.findTasksByDateRange(startDate, endDate);
+            tasks = new ArrayList<>(taskDao.findTasksByDateRange(startDate, endDate));
         } catch (Exception e) {
-            System.err.println("Ошибка в findTasksByDateRange: " + e.getMessage());
-            return findAll().stream()
+            log.error("Ошибка в findTasksByDateRange: {}", e.getMessage());
+            tasks = findAll().stream()
                     .filter(task -> task.getDueDate() != null)
                     .filter(task -> !task.getDueDate().isBefore(startDate) &&
                             !task.getDueDate().isAfter(endDate))
                     .collect(Collectors.toList());
         }
+        List<Task> occurrences = findOccurrences(startDate, endDate);
+        if (!occurrences.isEmpty()) {
+            tasks.addAll(occurrences);
+            tasks.sort(RecurringTasks.OCCURRENCE_ORDER);
+        }
+        return tasks;
+    }
+
+    // Повторения серий в окне [from, to]; вне окна ничего не разворачивается
+    public List<Task> findOccurrences(LocalDate from, LocalDate to) {
+        return recurringTasks != null ? recurringTasks.findOccurrences(from, to) : new ArrayList<>();
+    }
+
+    public long createSeries(Task template, RecurrenceRule rule) {
+        if (recurringTasks == null) {
+            throw new UnsupportedOperationException("Повторяющиеся задачи поддерживаются только для хранилищ JDBC");
+        }
+        return recurringTasks.createSeries(template, rule);
+    }
+
+    public boolean deleteSeries(long seriesId) {
+        return recurringTasks != null && recurringTasks.deleteSeries(seriesId);
+    }
+
+    @Override
+    public int getCachedTaskCount() {
+        return summaries.get().size();
+    }
+
+    @Override
+    public boolean isCacheValid() {
+        return summaries.get().valid;
+    }
+
+    @Override
+    public long getSummaryHitCount() {
+        return summaryHits.sum();
+    }
+
+    @Override
+    public long getSummaryRefreshCount() {
+        return summaryRefreshes.sum();
+    }
+
+    @Override
+    public int getTaskCacheSize() {
+        return taskCache.size();
+    }
+
+    @Override
+    public double getTaskCacheHitRate() {
+        return taskCache.getHitRate();
+    }
+
+    @Override
+    public int getDescriptionCacheSize() {
+        return descriptionCache.size();
+    }
+
+    @Override
+    public long getCacheTimeoutMillis() {
+        return cacheTimeoutMs;
+    }
+
+    @Override
+    public void setCacheTimeoutMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Время жизни кэша не может быть отрицательным: " + millis);
+        }
+        cacheTimeoutMs = millis;
+        log.info("Время жизни кэша задач: {} мс", millis);
+    }
+
+    // Полный сброс: следующий запрос перечитает таблицу целиком
+    @Override
+    public void flushCache() {
+        synchronized (refreshLock) {
+            publish(null, null, false, -1, false);
+            taskCacheWrites.incrementAndGet();
+            taskCache.invalidateAll();
+            descriptionCache.clear();
+        }
+        log.info("Кэш задач сброшен");
     }
-}
\ No newline at end of file
+}
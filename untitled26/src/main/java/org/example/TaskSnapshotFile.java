@@ -0,0 +1,200 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Бинарный снимок списка задач (без описаний) для быстрого старта.
+// Формат: заголовок (magic, версия, seq журнала изменений, CRC32 данных, длина данных),
+// затем словарь категорий и записи задач. Снимок действителен относительно seq:
+// при старте TaskService догоняет его по журналу изменений.
+public final class TaskSnapshotFile {
+    private static final Log log = Log.get(TaskSnapshotFile.class);
+    private static final int MAGIC = 0x54534E50; // "TSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    private static final int NO_STRING = -1;
+
+    private TaskSnapshotFile() {
+    }
+
+    public static final class Snapshot {
+        private final List<Task> tasks;
+        private final long changeSeq;
+
+        public Snapshot(List<Task> tasks, long changeSeq) {
+            this.tasks = tasks;
+            this.changeSeq = changeSeq;
+        }
+
+        public List<Task> getTasks() { return tasks; }
+
+        public long getChangeSeq() { return changeSeq; }
+    }
+
+    public static void write(Path file, Snapshot snapshot) throws IOException {
+        List<String> categories = new ArrayList<>();
+        Map<String, Integer> categoryIndexes = new HashMap<>();
+        for (Task task : snapshot.getTasks()) {
+            if (task.getCategory() != null && !categoryIndexes.containsKey(task.getCategory())) {
+                categoryIndexes.put(task.getCategory(), categories.size());
+                categories.add(task.getCategory());
+            }
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(estimateSize(snapshot.getTasks(), categories))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        payload.putInt(categories.size());
+        for (String category : categories) {
+            putString(payload, category);
+        }
+
+        payload.putInt(snapshot.getTasks().size());
+        for (Task task : snapshot.getTasks()) {
+            payload.putLong(task.getId());
+            payload.putInt(task.getDueDate() != null ? (int) task.getDueDate().toEpochDay() : Integer.MIN_VALUE);
+            payload.put((byte) (task.isCompleted() ? 1 : 0));
+            payload.put((byte) (task.getPriority() != null ? task.getPriority().ordinal() : Task.Priority.MEDIUM.ordinal()));
+            payload.putInt(task.getCategory() != null ? categoryIndexes.get(task.getCategory()) : NO_STRING);
+            putString(payload, task.getTitle());
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(snapshot.getChangeSeq());
+        header.putLong(crc.getValue());
+        header.putInt(payload.remaining());
+        header.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // null, если снимка нет или он повреждён
+    public static Snapshot read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Снимок задач имеет неизвестный формат: {}", file);
+                return null;
+            }
+            long changeSeq = buffer.getLong();
+            long expectedCrc = buffer.getLong();
+            int payloadSize = buffer.getInt();
+            if (payloadSize != size - HEADER_SIZE) {
+                log.warn("Снимок задач обрезан: {}", file);
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                log.warn("Контрольная сумма снимка не совпадает: {}", file);
+                return null;
+            }
+
+            String[] categories = new String[buffer.getInt()];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = getString(buffer).intern();
+            }
+
+            Task.Priority[] priorities = Task.Priority.values();
+            int count = buffer.getInt();
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Task task = new Task();
+                task.setId(buffer.getLong());
+                int epochDay = buffer.getInt();
+                task.setDueDate(epochDay != Integer.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null);
+                task.setCompleted(buffer.get() == 1);
+                task.setPriority(priorities[buffer.get()]);
+                int category = buffer.getInt();
+                task.setCategory(category != NO_STRING ? categories[category] : null);
+                task.setTitle(getString(buffer));
+                tasks.add(task);
+            }
+            return new Snapshot(tasks, changeSeq);
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось прочитать снимок задач: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static int estimateSize(List<Task> tasks, List<String> categories) {
+        long size = 8;
+        for (String category : categories) {
+            size += 4 + (long) category.length() * 3;
+        }
+        for (Task task : tasks) {
+            size += 8 + 4 + 1 + 1 + 4 + 4;
+            size += task.getTitle() != null ? (long) task.getTitle().length() * 3 : 0;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Снимок слишком велик: " + size + " байт");
+        }
+        return (int) size;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Операции внутри TaskService.inTransaction: все вызовы DAO идут через одно закреплённое
+// соединение и фиксируются одним commit. Кэш сервиса не трогается до фиксации,
+// транзакция только запоминает, какие задачи изменила.
+// Ошибка записи (save/upsert вернули null) бросает исключение, чтобы откатить всю транзакцию
+public class TaskTransaction {
+    private static final Log log = Log.get(TaskTransaction.class);
+
+    private final TaskDao taskDao;
+    private final Connection connection;
+    private final Set<Long> touchedIds = new LinkedHashSet<>();
+    // Строки, вернувшиеся из upsert: после фиксации кладутся в кэш без перечитывания
+    private final Map<Long, Task> storedTasks = new LinkedHashMap<>();
+    private int savepointCounter;
+
+    TaskTransaction(TaskDao taskDao, Connection connection) {
+        this.taskDao = taskDao;
+        this.connection = connection;
+    }
+
+    // Чтение видит незафиксированные изменения этой транзакции
+    public Optional<Task> findById(Long id) {
+        return taskDao.findById(id);
+    }
+
+    public List<Task> findByIds(List<Long> ids) {
+        return taskDao.findByIds(ids);
+    }
+
+    public Long save(Task task) {
+        Long id = taskDao.save(task);
+        if (id == null) {
+            throw new IllegalStateException("Не удалось сохранить задачу: " + task.getTitle());
+        }
+        touch(id);
+        return id;
+    }
+
+    public boolean update(Task task) {
+        touch(task.getId());
+        return taskDao.update(task);
+    }
+
+    public boolean delete(Long id) {
+        touch(id);
+        return taskDao.delete(id);
+    }
+
+    public boolean markAsCompleted(Long id) {
+        touch(id);
+        return taskDao.markAsCompleted(id);
+    }
+
+    public Task upsert(Task task) {
+        Task stored = taskDao.upsert(task);
+        if (stored == null) {
+            throw new IllegalStateException("Не удалось сохранить задачу: " + task.getTitle());
+        }
+        remember(task.getId(), stored);
+        return stored;
+    }
+
+    public List<Task> upsertAll(List<Task> tasks) {
+        List<Task> stored = taskDao.upsertAll(tasks);
+        if (stored.size() != tasks.size()) {
+            throw new IllegalStateException("Сохранено задач " + stored.size() + " из " + tasks.size());
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            remember(tasks.get(i).getId(), stored.get(i));
+        }
+        return stored;
+    }
+
+    public Savepoint savepoint() {
+        try {
+            return connection.setSavepoint("sp" + ++savepointCounter);
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось создать точку сохранения", e);
+        }
+    }
+
+    // Отменяет изменения после точки; задачи остаются в списке изменённых,
+    // поэтому кэш после фиксации перечитает их лишний раз, но не устареет
+    public void rollbackTo(Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new RuntimeException("Не удалось откатиться к точке сохранения", e);
+        }
+        for (Long id : storedTasks.keySet()) {
+            touchedIds.add(id);
+        }
+        storedTasks.clear();
+    }
+
+    public void releaseSavepoint(Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            // Точка остаётся до конца транзакции, на результат это не влияет
+            log.warn("Не удалось освободить точку сохранения: {}", e.getMessage());
+        }
+    }
+
+    private void touch(Long id) {
+        if (id != null) {
+            storedTasks.remove(id);
+            touchedIds.add(id);
+        }
+    }
+
+    private void remember(Long requestedId, Task stored) {
+        if (requestedId != null && !requestedId.equals(stored.getId())) {
+            touch(requestedId);
+        }
+        touchedIds.remove(stored.getId());
+        storedTasks.put(stored.getId(), stored);
+    }
+
+    Set<Long> getTouchedIds() {
+        return touchedIds;
+    }
+
+    Map<Long, Task> getStoredTasks() {
+        return storedTasks;
+    }
+}
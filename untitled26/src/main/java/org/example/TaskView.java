@@ -1,5 +1,8 @@
 package org.example;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -11,36 +14,126 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TaskView {
+    private static final Log log = Log.get(TaskView.class);
     private final TaskService taskService;
+    private final TaskBulkTransfer bulkTransfer;
     private final BorderPane root;
     private final TableView<Task> taskTable;
     private final ObservableList<Task> taskData;
     private final TextArea detailsArea;
     private final Label statsLabel;
+    private final Label metricsLabel;
 
-    private List<Task> allTasksCache = new ArrayList<>();
+    // Общий неизменяемый снимок сервиса: правки окна заменяют список копией (replaceCached)
+    private List<TaskRecord> allTasksCache = List.of();
+    // Повторения серий на RECURRING_WINDOW_DAYS вперёд; в allTasksCache их нет
+    private List<Task> occurrenceCache = new ArrayList<>();
+    private static final int RECURRING_WINDOW_DAYS = 7;
     private long lastCacheUpdate = 0;
-    private static final long CACHE_TIMEOUT_MS = 30000; // 30 секунд
+    private static final Duration METRICS_REFRESH_INTERVAL = Duration.seconds(2);
 
     private String currentFilter = "all";
 
     private boolean isLoading = false;
+    // Фоновые чтения окна идут по очереди в одном потоке: результат старой загрузки
+    // не может прийти позже новой, и на каждую перезагрузку не создаётся поток
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-view-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Незавершённая фоновая загрузка; новая загрузка отменяет её
+    private CancellationToken inFlightLoad;
+    // Вызывается в потоке FX, когда результат начальной загрузки попал в таблицу
+    private final Runnable onInitialDataShown;
 
     public TaskView(TaskService taskService) {
+        this(taskService, null);
+    }
+
+    public TaskView(TaskService taskService, TaskBulkTransfer bulkTransfer) {
+        this(taskService, bulkTransfer, null);
+    }
+
+    public TaskView(TaskService taskService, TaskBulkTransfer bulkTransfer,
+                    CompletionStage<List<TaskRecord>> initialLoad) {
+        this(taskService, bulkTransfer, initialLoad, null);
+    }
+
+    // initialLoad: уже запущенная загрузка задач; если null, загрузка запускается здесь
+    public TaskView(TaskService taskService, TaskBulkTransfer bulkTransfer,
+                    CompletionStage<List<TaskRecord>> initialLoad, Runnable onInitialDataShown) {
         this.taskService = taskService;
+        this.bulkTransfer = bulkTransfer;
+        this.onInitialDataShown = onInitialDataShown;
         this.taskData = FXCollections.observableArrayList();
         this.root = new BorderPane();
         this.taskTable = createTaskTable();
         this.detailsArea = new TextArea();
         this.statsLabel = new Label();
+        this.metricsLabel = new Label();
 
         initializeUI();
-        refreshAllData();
+        loadInitialData(initialLoad != null ? initialLoad : startBackgroundLoad());
+    }
+
+    private CompletionStage<List<TaskRecord>> startBackgroundLoad() {
+        return CompletableFuture.supplyAsync(taskService::findAllSummaryRecords, loader);
+    }
+
+    // Окно не ждёт базу: сразу показываем снимок (если сервис из него восстановлен),
+    // а результат фоновой загрузки подставляем, когда он будет готов
+    private void loadInitialData(CompletionStage<List<TaskRecord>> load) {
+        List<TaskRecord> snapshotTasks = taskService.peekCachedSummaryRecords();
+        if (!snapshotTasks.isEmpty()) {
+            allTasksCache = snapshotTasks;
+            lastCacheUpdate = System.currentTimeMillis();
+            applyFilter(currentFilter);
+            updateStatistics();
+        }
+
+        load.whenComplete((tasks, error) -> javafx.application.Platform.runLater(() -> {
+            if (error != null) {
+                log.error("Ошибка при загрузке данных: {}", error.getMessage());
+                showAlert("Ошибка", "Не удалось загрузить данные");
+                return;
+            }
+            allTasksCache = tasks;
+            lastCacheUpdate = System.currentTimeMillis();
+            applyFilter(currentFilter);
+            updateStatistics();
+            reloadOccurrencesInBackground();
+            if (onInitialDataShown != null) {
+                // applyFilter заполняет таблицу через runLater: эта задача выполнится после него
+                javafx.application.Platform.runLater(onInitialDataShown);
+            }
+        }));
+    }
+
+    // Разворачиваются только повторения из окна, которое показывает таблица
+    private List<Task> loadOccurrences() {
+        LocalDate today = LocalDate.now();
+        return taskService.findOccurrences(today, today.plusDays(RECURRING_WINDOW_DAYS - 1));
+    }
+
+    private void reloadOccurrencesInBackground() {
+        loader.execute(() -> {
+            List<Task> occurrences = loadOccurrences();
+            javafx.application.Platform.runLater(() -> {
+                occurrenceCache = occurrences;
+                applyFilter(currentFilter);
+            });
+        });
     }
 
     private void initializeUI() {
@@ -147,6 +240,12 @@ public class TaskView {
 
         toolbar.getChildren().addAll(btnAdd, btnEdit, btnDelete, btnComplete);
 
+        if (bulkTransfer != null) {
+            Button btnImport = createStyledButton("📥 Импорт", "secondary", this::showImportDialog);
+            Button btnExport = createStyledButton("📤 Экспорт", "secondary", this::showExportDialog);
+            toolbar.getChildren().addAll(new Separator(), btnImport, btnExport);
+        }
+
         VBox tableContainer = new VBox(10);
         tableContainer.setPadding(new Insets(10));
 
@@ -198,11 +297,23 @@ public class TaskView {
         filterInfoLabel.setTextFill(Color.LIGHTGRAY);
         filterInfoLabel.setFont(Font.font("Arial", 12));
 
-        statusBar.getChildren().addAll(statusLabel, new Separator(), filterInfoLabel);
+        metricsLabel.setTextFill(Color.LIGHTGRAY);
+        metricsLabel.setFont(Font.font("Arial", 12));
+        startMetricsRefresh();
+
+        statusBar.getChildren().addAll(statusLabel, new Separator(), filterInfoLabel, new Separator(), metricsLabel);
 
         return statusBar;
     }
 
+    private void startMetricsRefresh() {
+        Timeline refresh = new Timeline(new KeyFrame(METRICS_REFRESH_INTERVAL,
+                event -> metricsLabel.setText(taskService.getMetrics().formatStatus(3))));
+        refresh.setCycleCount(Animation.INDEFINITE);
+        refresh.play();
+        metricsLabel.setText(taskService.getMetrics().formatStatus(3));
+    }
+
     private TableView<Task> createTaskTable() {
         TableView<Task> table = new TableView<>();
         table.setPlaceholder(new Label("Нет задач для отображения"));
@@ -254,7 +365,7 @@ public class TaskView {
         statusCol.setPrefWidth(100);
         statusCol.setStyle("-fx-alignment: CENTER;");
 
-        table.getColumns().addAll(idCol, titleCol, dateCol, priorityCol, categoryCol, statusCol);
+        table.getColumns().addAll(List.of(idCol, titleCol, dateCol, priorityCol, categoryCol, statusCol));
         table.setItems(taskData);
 
         return table;
@@ -292,60 +403,61 @@ public class TaskView {
     }
 
 
-    private void refreshAllData() {
-        if (isLoading) return;
-
-        try {
-            isLoading = true;
-            System.out.println("Полное обновление данных...");
-
-            allTasksCache = taskService.findAll();
-            lastCacheUpdate = System.currentTimeMillis();
-
-            System.out.println("Загружено задач: " + allTasksCache.size());
-
-            applyFilter(currentFilter);
-
-            updateStatistics();
-
-            showAlert("Обновлено", "Данные успешно обновлены из базы");
-
-        } catch (Exception e) {
-            System.err.println("Ошибка при обновлении данных: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Ошибка", "Не удалось обновить данные");
-        } finally {
-            isLoading = false;
-        }
-    }
-
     private void refreshFromDatabase() {
         if (isLoading) return;
 
-        try {
-            isLoading = true;
-            System.out.println("Принудительная синхронизация с базой...");
-
-            allTasksCache = taskService.findAll();
-            lastCacheUpdate = System.currentTimeMillis();
-
+        log.debug("Принудительная синхронизация с базой...");
+        reloadInBackground(() -> {
             applyFilter(currentFilter);
-
             updateStatistics();
-
             showAlert("Синхронизировано", "Данные синхронизированы с базой");
+        });
+    }
 
-        } catch (Exception e) {
-            System.err.println("Ошибка при синхронизации: " + e.getMessage());
-            showAlert("Ошибка", "Не удалось синхронизировать данные");
-        } finally {
-            isLoading = false;
+    // Перечитывает задачи в фоне и вызывает onLoaded в потоке FX. Загрузка, которая
+    // ещё идёт, отменяется: её запрос прерывается и соединение сразу уходит в пул
+    private void reloadInBackground(Runnable onLoaded) {
+        if (inFlightLoad != null) {
+            inFlightLoad.cancel();
         }
+        CancellationToken token = new CancellationToken();
+        inFlightLoad = token;
+
+        loader.execute(() -> {
+            try {
+                List<TaskRecord> tasks = taskService.findAllSummaryRecords(token);
+                List<Task> occurrences = loadOccurrences();
+                javafx.application.Platform.runLater(() -> {
+                    if (token.isCancelled()) {
+                        return;
+                    }
+                    inFlightLoad = null;
+                    allTasksCache = tasks;
+                    occurrenceCache = occurrences;
+                    lastCacheUpdate = System.currentTimeMillis();
+                    onLoaded.run();
+                });
+            } catch (QueryCancelledException e) {
+                if (e.isTimedOut()) {
+                    log.error("Загрузка задач не уложилась в таймаут: {}", e.getMessage());
+                    javafx.application.Platform.runLater(() ->
+                            showAlert("Ошибка", "База данных не ответила вовремя"));
+                } else {
+                    log.debug("Загрузка задач отменена");
+                }
+            } catch (Exception e) {
+                log.error("Ошибка при синхронизации: {}", e.getMessage());
+                javafx.application.Platform.runLater(() ->
+                        showAlert("Ошибка", "Не удалось синхронизировать данные"));
+            }
+        });
     }
 
     private void applyFilter(String filterType) {
         if (isLoading) return;
 
+        UiRefreshEvent refreshEvent = new UiRefreshEvent();
+        refreshEvent.begin();
         try {
             isLoading = true;
             currentFilter = filterType;
@@ -353,54 +465,45 @@ public class TaskView {
 
             List<Task> filteredTasks = new ArrayList<>();
 
-            if (allTasksCache.isEmpty() ||
-                    System.currentTimeMillis() - lastCacheUpdate > CACHE_TIMEOUT_MS) {
-                allTasksCache = taskService.findAll();
-                lastCacheUpdate = System.currentTimeMillis();
+            // Устаревший список показываем сразу, а свежий подставится после фоновой загрузки
+            if (lastCacheUpdate == 0 ||
+                    System.currentTimeMillis() - lastCacheUpdate > taskService.getCacheTimeoutMillis()) {
+                reloadInBackground(() -> {
+                    applyFilter(currentFilter);
+                    updateStatistics();
+                });
             }
 
             LocalDate today = LocalDate.now();
 
-            switch (filterType) {
-                case "all":
-                    filteredTasks.addAll(allTasksCache);
-                    break;
-
-                case "today":
-                    for (Task task : allTasksCache) {
-                        if (task.getDueDate() != null &&
-                                task.getDueDate().equals(today) &&
-                                !task.isCompleted()) {
-                            filteredTasks.add(task);
-                        }
-                    }
-                    break;
-
-                case "overdue":
-                    for (Task task : allTasksCache) {
-                        if (task.getDueDate() != null &&
-                                task.getDueDate().isBefore(today) &&
-                                !task.isCompleted()) {
-                            filteredTasks.add(task);
-                        }
-                    }
-                    break;
-
-                case "completed":
-                    for (Task task : allTasksCache) {
-                        if (task.isCompleted()) {
-                            filteredTasks.add(task);
-                        }
-                    }
-                    break;
+            // Задачи для таблицы создаются только для строк, прошедших фильтр
+            int todayDay = (int) today.toEpochDay();
+            for (TaskRecord task : allTasksCache) {
+                boolean matches = switch (filterType) {
+                    case "all" -> true;
+                    case "today" -> task.dueEpochDay() == todayDay && !task.completed();
+                    case "overdue" -> task.dueEpochDay() < todayDay && !task.completed();
+                    case "completed" -> task.completed();
+                    case "pending" -> !task.completed();
+                    default -> false;
+                };
+                if (matches) {
+                    filteredTasks.add(task.toTask());
+                }
+            }
 
-                case "pending":
-                    for (Task task : allTasksCache) {
-                        if (!task.isCompleted()) {
-                            filteredTasks.add(task);
-                        }
-                    }
-                    break;
+            // Пропущенный день серии просто не выполнен, поэтому просроченными повторения не считаются
+            for (Task occurrence : occurrenceCache) {
+                boolean matches = switch (filterType) {
+                    case "all" -> true;
+                    case "today" -> occurrence.getDueDate().equals(today) && !occurrence.isCompleted();
+                    case "completed" -> occurrence.isCompleted();
+                    case "pending" -> !occurrence.isCompleted();
+                    default -> false;
+                };
+                if (matches) {
+                    filteredTasks.add(occurrence);
+                }
             }
 
             taskTable.getSelectionModel().clearSelection();
@@ -408,20 +511,43 @@ public class TaskView {
             javafx.application.Platform.runLater(() -> {
                 try {
                     taskData.setAll(filteredTasks);
-                    System.out.println("Отображается задач в таблице: " + taskData.size());
+                    log.debug("Отображается задач в таблице: {}", taskData.size());
                 } catch (Exception e) {
-                    System.err.println("Ошибка при обновлении таблицы: " + e.getMessage());
+                    log.error("Ошибка при обновлении таблицы: {}", e.getMessage());
+                } finally {
+                    refreshEvent.filter = filterType;
+                    refreshEvent.rows = filteredTasks.size();
+                    refreshEvent.commit();
                 }
             });
 
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error(e.getMessage(), e);
         } finally {
             isLoading = false;
         }
     }
 
+    // Снимок общий с сервисом, поэтому правится копия; replacement == null - удаление.
+    // false - задачи с таким id в списке нет
+    private boolean replaceCached(long id, TaskRecord replacement) {
+        for (int i = 0; i < allTasksCache.size(); i++) {
+            if (allTasksCache.get(i).id() == id) {
+                List<TaskRecord> copy = new ArrayList<>(allTasksCache);
+                if (replacement != null) {
+                    copy.set(i, replacement);
+                } else {
+                    log.debug("Удаляем из кэша задачу с ID={}", id);
+                    copy.remove(i);
+                }
+                allTasksCache = copy;
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void updateStatistics() {
         if (allTasksCache.isEmpty()) {
             return;
@@ -432,11 +558,11 @@ public class TaskView {
             int completed = 0;
             int overdue = 0;
 
-            for (Task task : allTasksCache) {
-                if (task.isCompleted()) {
+            int today = (int) LocalDate.now().toEpochDay();
+            for (TaskRecord task : allTasksCache) {
+                if (task.completed()) {
                     completed++;
-                } else if (task.getDueDate() != null &&
-                        task.getDueDate().isBefore(LocalDate.now())) {
+                } else if (task.dueEpochDay() < today) {
                     overdue++;
                 }
             }
@@ -459,7 +585,7 @@ public class TaskView {
             statsLabel.setText(statsText);
 
         } catch (Exception e) {
-            System.err.println("Ошибка при обновлении статистики: " + e.getMessage());
+            log.error("Ошибка при обновлении статистики: {}", e.getMessage());
         }
     }
 
@@ -528,7 +654,9 @@ public class TaskView {
                 if (id != null) {
                     task.setId(id);
 
-                    allTasksCache.add(task);
+                    List<TaskRecord> withNew = new ArrayList<>(allTasksCache);
+                    withNew.add(TaskRecord.of(task));
+                    allTasksCache = withNew;
                     lastCacheUpdate = System.currentTimeMillis();
 
                     applyFilter(currentFilter);
@@ -561,6 +689,11 @@ public class TaskView {
 
         Task selected = taskTable.getSelectionModel().getSelectedItem();
 
+        if (selected != null && RecurringTasks.isOccurrenceId(selected.getId())) {
+            showAlert("Предупреждение", "Повторение меняется вместе с серией; отдельно его можно только отметить или пропустить");
+            return;
+        }
+
         if (selected != null && selected.getId() != null) {
             final Long taskId = selected.getId();
 
@@ -572,7 +705,7 @@ public class TaskView {
             grid.setPadding(new Insets(20, 150, 10, 10));
 
             TextField titleField = new TextField(selected.getTitle());
-            TextArea descArea = new TextArea(selected.getDescription());
+            TextArea descArea = new TextArea(taskService.getDescription(selected));
             descArea.setPrefRowCount(3);
             DatePicker datePicker = new DatePicker(selected.getDueDate());
             TextField categoryField = new TextField(selected.getCategory());
@@ -624,12 +757,8 @@ public class TaskView {
                     try {
                         boolean updated = taskService.update(selected);
                         if (updated) {
-                            for (int i = 0; i < allTasksCache.size(); i++) {
-                                Task cachedTask = allTasksCache.get(i);
-                                if (cachedTask.getId() != null && cachedTask.getId().equals(oldId)) {
-                                    allTasksCache.set(i, selected);
-                                    break;
-                                }
+                            if (oldId != null && !RecurringTasks.isOccurrenceId(oldId)) {
+                                replaceCached(oldId, TaskRecord.of(selected));
                             }
                             lastCacheUpdate = System.currentTimeMillis();
 
@@ -669,26 +798,22 @@ public class TaskView {
 
             if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
                 try {
-                    System.out.println("Удаляем задачу ID=" + selected.getId());
+                    log.debug("Удаляем задачу ID={}", selected.getId());
 
                     boolean deleted = taskService.delete(selected.getId());
                     if (deleted) {
-                        System.out.println("Задача удалена из БД, удаляем из кэша");
+                        log.debug("Задача удалена из БД, удаляем из кэша");
 
-                        boolean foundInCache = false;
-                        for (int i = allTasksCache.size() - 1; i >= 0; i--) {
-                            Task task = allTasksCache.get(i);
-                            if (task.getId() != null && task.getId().equals(selected.getId())) {
-                                System.out.println("Удаляем из кэша задачу с ID=" + task.getId());
-                                allTasksCache.remove(i);
-                                foundInCache = true;
-                                break;
-                            }
+                        // Удалённое повторение серии пропускается только в этот день
+                        boolean foundInCache = RecurringTasks.isOccurrenceId(selected.getId())
+                                && occurrenceCache.remove(selected);
+                        if (!foundInCache) {
+                            foundInCache = replaceCached(selected.getId(), null);
                         }
 
                         if (!foundInCache) {
-                            System.out.println("Задача не найдена в кэше, перезагружаем из БД");
-                            allTasksCache = taskService.findAll();
+                            log.debug("Задача не найдена в кэше, перезагружаем из БД");
+                            allTasksCache = taskService.findAllSummaryRecords();
                         }
 
                         lastCacheUpdate = System.currentTimeMillis();
@@ -708,8 +833,7 @@ public class TaskView {
                     }
 
                 } catch (Exception e) {
-                    System.err.println(e.getMessage());
-                    e.printStackTrace();
+                    log.error(e.getMessage(), e);
                 }
             }
         } else {
@@ -727,18 +851,17 @@ public class TaskView {
                     boolean marked = taskService.markAsCompleted(selected.getId());
                     if (marked) {
                         boolean foundInCache = false;
-                        for (Task task : allTasksCache) {
-                            if (task.getId() != null && task.getId().equals(selected.getId())) {
-                                System.out.println("Найдена задача в кэше, ID=" + task.getId() +
-                                        ", было completed=" + task.isCompleted());
-                                task.setCompleted(true);
-                                foundInCache = true;
+                        for (TaskRecord task : allTasksCache) {
+                            if (selected.getId() != null && task.id() == selected.getId()) {
+                                log.debug("Найдена задача в кэше, ID={}, было completed={}", task.id(), task.completed());
+                                foundInCache = replaceCached(task.id(), task.withCompleted(true));
                                 break;
                             }
                         }
 
-                        if (!foundInCache) {
-                            allTasksCache = taskService.findAll();
+                        // Повторение - тот же объект, что и в occurrenceCache; его отметит setCompleted ниже
+                        if (!foundInCache && !RecurringTasks.isOccurrenceId(selected.getId())) {
+                            allTasksCache = taskService.findAllSummaryRecords();
                             lastCacheUpdate = System.currentTimeMillis();
                         } else {
                             lastCacheUpdate = System.currentTimeMillis();
@@ -759,8 +882,7 @@ public class TaskView {
                     }
 
                 } catch (Exception e) {
-                    System.err.println(e.getMessage());
-                    e.printStackTrace();
+                    log.error(e.getMessage(), e);
                 }
             } else {
             }
@@ -769,9 +891,72 @@ public class TaskView {
         }
     }
 
+    private javafx.stage.FileChooser createTransferFileChooser(String title) {
+        javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new javafx.stage.FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new javafx.stage.FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.ndjson"));
+        return chooser;
+    }
+
+    private void showImportDialog() {
+        java.io.File file = createTransferFileChooser("Импорт задач").showOpenDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TaskBulkTransfer.Format format = TaskBulkTransfer.Format.fromFileName(file.getName());
+        runTransfer("Импорт", () -> bulkTransfer.importFile(file.toPath(), format, true, this::showTransferProgress));
+    }
+
+    private void showExportDialog() {
+        java.io.File file = createTransferFileChooser("Экспорт задач").showSaveDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TaskBulkTransfer.Format format = TaskBulkTransfer.Format.fromFileName(file.getName());
+        runTransfer("Экспорт", () -> bulkTransfer.exportFile(file.toPath(), format, this::showTransferProgress));
+    }
+
+    private interface TransferAction {
+        TransferStats run() throws Exception;
+    }
+
+    // Перенос идёт в отдельном потоке, чтобы большие файлы не блокировали интерфейс
+    // и не задерживали перезагрузки в очереди loader
+    private void runTransfer(String name, TransferAction action) {
+        isLoading = true;
+        Thread worker = new Thread(() -> {
+            try {
+                TransferStats stats = action.run();
+                javafx.application.Platform.runLater(() -> {
+                    isLoading = false;
+                    taskService.invalidateCache();
+                    refreshFromDatabase();
+                    showAlert(name + " завершён", stats.toString());
+                });
+            } catch (Exception e) {
+                log.error(name + " не выполнен", e);
+                javafx.application.Platform.runLater(() -> {
+                    isLoading = false;
+                    showAlert("Ошибка", name + " не выполнен: " + e.getMessage());
+                });
+            }
+        }, "task-transfer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void showTransferProgress(long rows, double rowsPerSecond) {
+        log.info("Обработано строк: {} ({} строк/с)", rows, Math.round(rowsPerSecond));
+    }
+
     private void showTaskDetails(Task task) {
         if (task != null) {
             try {
+                String description = taskService.getDescription(task);
                 String details = String.format(
                         "Название:\n%s\n\n" +
                                 "Описание:\n%s\n\n" +
@@ -781,8 +966,8 @@ public class TaskView {
                                 "Статус:\n%s\n\n" +
                                 "ID: %d",
                         task.getTitle(),
-                        task.getDescription() != null && !task.getDescription().isEmpty()
-                                ? task.getDescription() : "Нет описания",
+                        description != null && !description.isEmpty()
+                                ? description : "Нет описания",
                         task.getDueDate() != null ? task.getDueDate() : "Не указан",
                         task.getPriority() != null ? task.getPriority().getDisplayName() : "Не указан",
                         task.getCategory() != null && !task.getCategory().isEmpty()
@@ -792,7 +977,7 @@ public class TaskView {
                 );
                 detailsArea.setText(details);
             } catch (Exception e) {
-                System.err.println(e.getMessage());
+                log.error(e.getMessage());
             }
         } else {
             detailsArea.setText("");
@@ -817,7 +1002,7 @@ public class TaskView {
                 taskTable.getSelectionModel().clearSelection();
                 detailsArea.clear();
             } catch (Exception e) {
-                System.err.println("Ошибка при очистке выделения: " + e.getMessage());
+                log.error("Ошибка при очистке выделения: {}", e.getMessage());
             }
         });
     }
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Декоратор TaskDao: время, строки и ошибки каждого метода пишутся в MetricsRegistry
+// под именами "dao.<метод>". Создавать через wrap, чтобы сохранить журнал изменений.
+public class TimedTaskDao implements TaskDao {
+    protected final TaskDao delegate;
+    protected final MetricsRegistry metrics;
+
+    protected TimedTaskDao(TaskDao delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public static TaskDao wrap(TaskDao delegate, MetricsRegistry metrics) {
+        if (delegate instanceof JdbcTaskDao) {
+            ((JdbcTaskDao) delegate).setMetrics(metrics);
+        }
+        if (delegate instanceof TaskChangeLog) {
+            return new WithChangeLog(delegate, metrics);
+        }
+        return new TimedTaskDao(delegate, metrics);
+    }
+
+    public TaskDao getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return metrics.time("dao.findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Task> findByIds(Collection<Long> ids) {
+        return metrics.time("dao.findByIds", () -> delegate.findByIds(ids));
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return metrics.time("dao.findAll", delegate::findAll);
+    }
+
+    @Override
+    public List<Task> findAllSummaries() {
+        return metrics.time("dao.findAllSummaries", delegate::findAllSummaries);
+    }
+
+    @Override
+    public Optional<String> findDescription(Long id) {
+        return metrics.time("dao.findDescription", () -> delegate.findDescription(id));
+    }
+
+    @Override
+    public Long save(Task task) {
+        return metrics.time("dao.save", () -> delegate.save(task));
+    }
+
+    @Override
+    public Task upsert(Task task) {
+        return metrics.time("dao.upsert", () -> delegate.upsert(task));
+    }
+
+    @Override
+    public List<Task> upsertAll(List<Task> tasks) {
+        return metrics.time("dao.upsertAll", () -> delegate.upsertAll(tasks));
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return metrics.time("dao.delete", () -> delegate.delete(id));
+    }
+
+    @Override
+    public boolean update(Task task) {
+        return metrics.time("dao.update", () -> delegate.update(task));
+    }
+
+    @Override
+    public List<Task> findByCompleted(boolean completed) {
+        return metrics.time("dao.findByCompleted", () -> delegate.findByCompleted(completed));
+    }
+
+    @Override
+    public List<Task> findByDueDate(LocalDate dueDate) {
+        return metrics.time("dao.findByDueDate", () -> delegate.findByDueDate(dueDate));
+    }
+
+    @Override
+    public List<Task> findOverdueTasks() {
+        return metrics.time("dao.findOverdueTasks", delegate::findOverdueTasks);
+    }
+
+    @Override
+    public List<Task> findTodayTasks() {
+        return metrics.time("dao.findTodayTasks", delegate::findTodayTasks);
+    }
+
+    @Override
+    public boolean markAsCompleted(Long id) {
+        return metrics.time("dao.markAsCompleted", () -> delegate.markAsCompleted(id));
+    }
+
+    @Override
+    public List<Task> findTasksByCategory(String category) {
+        return metrics.time("dao.findTasksByCategory", () -> delegate.findTasksByCategory(category));
+    }
+
+    @Override
+    public List<Task> findTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        return metrics.time("dao.findTasksByDateRange", () -> delegate.findTasksByDateRange(startDate, endDate));
+    }
+
+    @Override
+    public long getTaskCount() {
+        return metrics.time("dao.getTaskCount", delegate::getTaskCount);
+    }
+
+    @Override
+    public List<String> getAllCategories() {
+        return metrics.time("dao.getAllCategories", delegate::getAllCategories);
+    }
+
+    static class WithChangeLog extends TimedTaskDao implements TaskChangeLog {
+        private final TaskChangeLog changeLog;
+
+        WithChangeLog(TaskDao delegate, MetricsRegistry metrics) {
+            super(delegate, metrics);
+            this.changeLog = (TaskChangeLog) delegate;
+        }
+
+        @Override
+        public long getLatestChangeSeq() {
+            return metrics.time("dao.getLatestChangeSeq", changeLog::getLatestChangeSeq);
+        }
+
+        @Override
+        public List<TaskChange> findChangesSince(long seq, int limit) {
+            return metrics.time("dao.findChangesSince", () -> changeLog.findChangesSince(seq, limit));
+        }
+    }
+}
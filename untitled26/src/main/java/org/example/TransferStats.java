@@ -0,0 +1,33 @@
+package org.example;
+
+public class TransferStats {
+    private final long rows;
+    private final long rejectedRows;
+    private final long elapsedNanos;
+
+    public TransferStats(long rows, long rejectedRows, long elapsedNanos) {
+        this.rows = rows;
+        this.rejectedRows = rejectedRows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() { return rows; }
+
+    public long getRejectedRows() { return rejectedRows; }
+
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond(rows, elapsedNanos);
+    }
+
+    static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Строк: %d, отклонено: %d, время: %d мс, скорость: %.0f строк/с",
+                rows, rejectedRows, getElapsedMillis(), getRowsPerSecond());
+    }
+}
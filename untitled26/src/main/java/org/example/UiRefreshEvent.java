@@ -0,0 +1,20 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: перестроение таблицы TaskView; длительность - время фильтрации и отрисовки
+@Name("org.example.UiRefresh")
+@Label("UI Refresh")
+@Category({"Task Manager", "UI"})
+@StackTrace(false)
+public class UiRefreshEvent extends Event {
+    @Label("Filter")
+    String filter;
+
+    @Label("Rows")
+    int rows;
+}
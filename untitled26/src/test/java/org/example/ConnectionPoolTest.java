@@ -3,8 +3,17 @@ package org.example;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -69,9 +78,72 @@ class ConnectionPoolTest {
         assertEquals(usedBefore - 1, usedAfter, "Используемых соединений должно стать меньше");
     }
 
+    @Test
+    void testResizeClosesIdleConnections(@TempDir Path dir) throws SQLException {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("resize.db"), 3);
+        try {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            Connection third = pool.getConnection();
+            pool.releaseConnection(first);
+            pool.releaseConnection(second);
+            assertEquals(3, pool.getOpenConnections());
+
+            pool.setMaxPoolSize(1);
+            assertEquals(1, pool.getOpenConnections(), "свободные соединения закрыты сразу");
+
+            pool.releaseConnection(third);
+            assertEquals(1, pool.getOpenConnections());
+            assertEquals(3, pool.getCheckoutCount());
+
+            assertThrows(IllegalArgumentException.class, () -> pool.setMaxPoolSize(0));
+        } finally {
+            pool.closeAllConnections();
+        }
+    }
 
+    @Test
+    void testSettingsAppliedToPooledConnections(@TempDir Path dir) throws SQLException {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("settings.db"), 1);
+        try {
+            pool.releaseConnection(pool.getConnection());
+
+            new SqliteSettingsControl(pool).setCacheSize(-4096);
+
+            Connection connection = pool.getConnection();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA cache_size")) {
+                assertTrue(rs.next());
+                assertEquals(-4096, rs.getInt(1));
+            } finally {
+                pool.releaseConnection(connection);
+            }
+        } finally {
+            pool.closeAllConnections();
+        }
+    }
 
+    @Test
+    void testMBeansRegistered(@TempDir Path dir) throws Exception {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("jmx.db"), 2);
+        JmxRegistry jmx = new JmxRegistry();
+        try {
+            jmx.register("ConnectionPool", pool);
+            jmx.register("SqliteSettings", new SqliteSettingsControl(pool));
 
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName poolName = JmxRegistry.nameOf("ConnectionPool");
+            assertEquals(2, server.getAttribute(poolName, "MaxPoolSize"));
 
+            server.setAttribute(poolName, new Attribute("MaxPoolSize", 4));
+            assertEquals(4, pool.getMaxPoolSize());
 
-}
\ No newline at end of file
+            Object result = server.invoke(JmxRegistry.nameOf("SqliteSettings"), "checkpoint", null, null);
+            assertTrue(result.toString().startsWith("busy="));
+        } finally {
+            jmx.unregisterAll();
+            pool.closeAllConnections();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(JmxRegistry.nameOf("ConnectionPool")));
+    }
+}
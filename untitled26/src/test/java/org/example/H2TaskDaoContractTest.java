@@ -0,0 +1,40 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2TaskDaoContractTest extends TaskDaoContractTest {
+
+    private ConnectionPool pool;
+
+    // База в памяти удаляется вместе с последним соединением
+    @Override
+    protected TaskDao createDao(Path dir) {
+        pool = new ConnectionPool("jdbc:h2:mem:contract-" + UUID.randomUUID(), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        return new JdbcTaskDao(pool);
+    }
+
+    @Override
+    protected void closeDao() {
+        pool.closeAllConnections();
+    }
+
+    @Test
+    void testServiceWorksWithoutChangeLog() throws Exception {
+        assertFalse(pool.getDialect().supportsChangeLog());
+        assertFalse(StorageBackend.H2_MEMORY.createDao(pool) instanceof TaskChangeLog);
+
+        TaskService service = new TaskService(dao);
+        service.save(new Task("Первая", "Описание", LocalDate.now(), Task.Priority.LOW, "H2"));
+        assertEquals(1, service.findAllSummaries().size());
+
+        service.save(new Task("Вторая", "Описание", LocalDate.now(), Task.Priority.LOW, "H2"));
+        assertEquals(2, service.findAllSummaries().size());
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    @Test
+    void testProfileRecordsQueryAndCacheEvents(@TempDir Path dir) throws Exception {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("jfr.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        TaskService service = new TaskService(new TaskDaoImpl(pool));
+        Long id = service.save(new Task("JFR", "Описание", LocalDate.now(), Task.Priority.HIGH, "Test"));
+
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/taskmanager.jfc"), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+
+        Path output = dir.resolve("tasks.jfr");
+        try (Recording recording = new Recording(configuration)) {
+            // Порог в профиле отсекает быстрые запросы; в тесте нужны все
+            recording.enable(TaskQueryEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            service.findAllSummaries();
+            service.findById(id);
+            service.findById(id);
+            recording.stop();
+            recording.dump(output);
+        } finally {
+            pool.closeAllConnections();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(output);
+        List<String> queries = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.example.TaskQuery"))
+                .map(event -> event.getString("method"))
+                .collect(Collectors.toList());
+        assertTrue(queries.contains("findAllSummaries"), "запросы: " + queries);
+        assertTrue(queries.contains("findById"), "запросы: " + queries);
+
+        List<String> taskCacheDecisions = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.example.CacheDecision"))
+                .filter(event -> "task".equals(event.getString("cache")))
+                .map(event -> event.getString("decision"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("MISS", "HIT"), taskCacheDecisions);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTaskDaoContractTest extends TaskDaoContractTest {
+    private static final int COMPACT_EVERY = 50;
+
+    private Path journalDir;
+    private JournaledTaskDao journaled;
+
+    @Override
+    protected TaskDao createDao(Path dir) throws IOException {
+        journalDir = dir.resolve("journal");
+        journaled = new JournaledTaskDao(journalDir, COMPACT_EVERY);
+        return journaled;
+    }
+
+    @Override
+    protected void closeDao() throws IOException {
+        journaled.close();
+    }
+
+    private JournaledTaskDao reopen() throws IOException {
+        journaled.close();
+        journaled = new JournaledTaskDao(journalDir, COMPACT_EVERY);
+        return journaled;
+    }
+
+    @Test
+    void testStateSurvivesReopen() throws IOException {
+        Long kept = dao.save(new Task("Останется", "Описание", LocalDate.now(), Task.Priority.HIGH, "Журнал"));
+        Long dropped = dao.save(new Task("Удалится", "Описание", LocalDate.now(), Task.Priority.LOW, "Журнал"));
+        dao.markAsCompleted(kept);
+        dao.delete(dropped);
+
+        JournaledTaskDao reopened = reopen();
+        assertEquals(1, reopened.getTaskCount());
+        Task task = reopened.findById(kept).orElseThrow();
+        assertTrue(task.isCompleted());
+        assertEquals("Описание", task.getDescription());
+
+        // id удалённой задачи не выдаётся повторно
+        assertTrue(reopened.save(new Task("Новая", null, LocalDate.now(), Task.Priority.LOW, null)) > dropped);
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws IOException {
+        Long id = dao.save(new Task("Целая", "Описание", LocalDate.now(), Task.Priority.MEDIUM, "Журнал"));
+        journaled.close();
+
+        // Имитация сбоя посреди записи: хвост из половины заголовка
+        try (FileChannel channel = FileChannel.open(journalDir.resolve(TaskJournal.JOURNAL_FILE),
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[] {42, 0, 0}));
+        }
+
+        JournaledTaskDao reopened = reopen();
+        assertEquals(1, reopened.getTaskCount());
+        assertTrue(reopened.findById(id).isPresent());
+        reopened.save(new Task("После сбоя", null, LocalDate.now(), Task.Priority.MEDIUM, null));
+        assertEquals(2, reopen().getTaskCount());
+    }
+
+    @Test
+    void testCompactionKeepsDataAndShrinksJournal() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < COMPACT_EVERY * 2 + 5; i++) {
+            ids.add(dao.save(new Task("Задача " + i, null, LocalDate.now().plusDays(i % 7), Task.Priority.LOW, "Сжатие")));
+        }
+        assertTrue(journaled.getJournalRecordCount() < COMPACT_EVERY);
+
+        dao.delete(ids.get(0));
+        JournaledTaskDao reopened = reopen();
+        assertEquals(ids.size() - 1, reopened.getTaskCount());
+        assertEquals("Задача 7", reopened.findById(ids.get(7)).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testConcurrentWritesAreDurable() throws Exception {
+        int writers = 8;
+        int perWriter = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        dao.save(new Task("Параллельно", null, LocalDate.now(), Task.Priority.MEDIUM, null));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(writers * perWriter, dao.getTaskCount());
+        assertTrue(journaled.getSyncCount() > 0);
+        assertEquals(writers * perWriter, reopen().getTaskCount());
+    }
+}
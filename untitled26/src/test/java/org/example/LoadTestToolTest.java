@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestToolTest {
+    @TempDir
+    Path dir;
+
+    private LoadTestTool.Result run(String... args) throws InterruptedException {
+        LoadTestTool tool = new LoadTestTool(LoadTestTool.Options.parse(args), dir.resolve("load.db"));
+        try {
+            return tool.run();
+        } finally {
+            tool.close();
+        }
+    }
+
+    @Test
+    void testClosedLoopRunsEveryOperationInMix() throws Exception {
+        LoadTestTool.Result result = run("--actors=8", "--duration=2s", "--report=1s", "--preload=200", "--pool=4");
+
+        assertEquals(0, result.getErrorCount());
+        for (LoadTestTool.Operation operation : LoadTestTool.Operation.values()) {
+            assertTrue(result.getOperationCount(operation) > 0, "нет операций " + operation);
+        }
+        assertEquals(2, result.getIntervals().size());
+        assertTrue(result.getThroughput() > 0);
+    }
+
+    @Test
+    void testOpenLoopKeepsScheduledRate() throws Exception {
+        LoadTestTool.Result result = run("--actors=4", "--duration=2s", "--report=1s", "--rate=100",
+                "--mix=read=80,write=20", "--preload=100");
+
+        assertEquals(200, result.getOperationCount(), 5);
+        assertEquals(0, result.getOperationCount(LoadTestTool.Operation.LIST));
+        assertEquals(0, result.getErrorCount());
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestTool.Options.parse(new String[]{"--actors=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestTool.Options.parse(new String[]{"--mix=read=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestTool.Options.parse(new String[]{"--speed=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestTool.Options.parse(new String[]{"--preload=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestTool.Options.parse(new String[]{"actors"}));
+    }
+}
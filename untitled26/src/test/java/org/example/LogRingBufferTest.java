@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRingBufferTest {
+
+    @Test
+    void testOfferFailsWhenFull() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws InterruptedException {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 20_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        Set<Integer> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            Integer value = buffer.poll();
+            if (value != null) {
+                assertTrue(received.add(value), "повтор: " + value);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void testFormatSubstitutesPlaceholders() {
+        assertEquals("Задача 5: done", Log.format("Задача {}: {}", new Object[]{5, "done"}));
+        assertEquals("без аргументов {}", Log.format("без аргументов {}", null));
+        assertEquals("лишний {}", Log.format("лишний {}", new Object[0]));
+        assertEquals("a=1, b={}", Log.format("a={}, b={}", new Object[]{1}));
+    }
+
+    @Test
+    void testAppenderWakesUpAndKeepsArgumentsFromCallTime() throws Exception {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            // Даём потоку записи уснуть, затем проверяем, что append() его будит
+            Thread.sleep(50);
+            StringBuilder value = new StringBuilder("до");
+            Log.get(LogRingBufferTest.class).info("значение {}", value);
+            value.setLength(0);
+            value.append("после");
+
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!captured.toString(StandardCharsets.UTF_8).contains("значение")
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            String output = captured.toString(StandardCharsets.UTF_8);
+            assertTrue(output.contains("значение до"), output);
+        } finally {
+            System.setOut(original);
+        }
+    }
+}
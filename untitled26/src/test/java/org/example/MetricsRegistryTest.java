@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void testHistogramQuantilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L); // 1..1000 мс
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        long p50 = histogram.getValueAtQuantile(0.5);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assertTrue(p50 >= 500_000_000L && p50 <= 500_000_000L * 1.125, "p50: " + p50);
+        assertTrue(p99 >= 990_000_000L && p99 <= 1_000_000_000L, "p99: " + p99);
+    }
+
+    @Test
+    void testBucketBoundsAreContiguous() {
+        for (int index = 1; index < 400; index++) {
+            long lower = LatencyHistogram.bucketUpperBound(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.bucketIndex(lower));
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.bucketUpperBound(index)));
+        }
+    }
+
+    @Test
+    void testTimeRecordsRowsAndErrors() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        registry.time("op", () -> List.of(1, 2, 3));
+        registry.time("op", () -> Optional.empty());
+        assertThrows(IllegalStateException.class, () -> registry.time("op", () -> {
+            throw new IllegalStateException("сбой");
+        }));
+
+        OperationMetrics metrics = registry.operation("op");
+        assertEquals(3, metrics.getCount());
+        assertEquals(3, metrics.getRows());
+        assertEquals(1, metrics.getErrors());
+    }
+
+    @Test
+    void testTimedDaoKeepsChangeLog() {
+        MetricsRegistry registry = new MetricsRegistry();
+        TaskDao dao = TimedTaskDao.wrap(new TaskServiceTest.InMemoryTaskDao(), registry);
+        assertFalse(dao instanceof TaskChangeLog);
+
+        Task task = new Task();
+        task.setTitle("Задача");
+        dao.save(task);
+        dao.findAll();
+
+        assertEquals(1, registry.operation("dao.save").getCount());
+        assertEquals(1, registry.operation("dao.findAll").getRows());
+    }
+
+    @Test
+    void testTimedDaoCountsSwallowedDatabaseErrors(@TempDir Path tempDir) throws Exception {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("errors.db"), 2);
+        try {
+            new DatabaseInitializer(pool).initializeDatabase();
+            MetricsRegistry registry = new MetricsRegistry();
+            TaskDao dao = TimedTaskDao.wrap(new TaskDaoImpl(pool), registry);
+            Long id = dao.save(new Task("Задача", "", LocalDate.of(2025, 1, 10), Task.Priority.LOW, null));
+            assertEquals(0, registry.operation("dao.findAll").getErrors());
+
+            Connection connection = pool.getConnection();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DROP TABLE tasks");
+            } finally {
+                pool.releaseConnection(connection);
+            }
+
+            assertTrue(dao.findAll().isEmpty());
+            assertTrue(dao.findById(id).isEmpty());
+            assertFalse(dao.markAsCompleted(id));
+
+            assertEquals(1, registry.operation("dao.findAll").getErrors());
+            assertEquals(1, registry.operation("dao.findAll").getCount(), "время вызова учитывается один раз");
+            assertEquals(1, registry.operation("dao.findById").getErrors());
+            assertEquals(1, registry.operation("dao.markAsCompleted").getErrors());
+        } finally {
+            pool.closeAllConnections();
+        }
+    }
+
+    @Test
+    void testPrometheusEndpoint() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.time("dao.findAll", () -> List.of("a", "b"));
+
+        MetricsHttpServer server = new MetricsHttpServer(registry, 0);
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            assertTrue(body.contains("# TYPE taskmanager_operation_duration_seconds summary"));
+            assertTrue(body.contains("taskmanager_operation_duration_seconds_count{operation=\"dao.findAll\"} 1"));
+            assertTrue(body.contains("taskmanager_operation_rows_total{operation=\"dao.findAll\"} 2"));
+        } finally {
+            server.stop();
+        }
+    }
+}
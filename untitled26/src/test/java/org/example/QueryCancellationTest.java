@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCancellationTest {
+    // Считается десятки секунд, если его не прервать
+    private static final String SLOW_SQL = "WITH RECURSIVE n(x) AS " +
+            "(SELECT 1 UNION ALL SELECT x + 1 FROM n WHERE x < 1000000000) SELECT count(*) FROM n";
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("cancel.db"), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private long runSlowQuery(int timeoutSeconds) throws SQLException {
+        Connection connection = pool.getConnection();
+        try (StatementGuard guard = StatementGuard.prepare(connection, SLOW_SQL, "slow", timeoutSeconds);
+             ResultSet rs = guard.statement().executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            StatementGuard.rethrowIfInterrupted(pool.getDialect(), e, "slow");
+            throw e;
+        } finally {
+            pool.releaseConnection(connection);
+        }
+    }
+
+    @Test
+    void testCancelInterruptsRunningQuery() throws Exception {
+        CancellationToken token = new CancellationToken();
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            token.cancel();
+        });
+        canceller.start();
+
+        long started = System.nanoTime();
+        QueryCancelledException e = assertThrows(QueryCancelledException.class,
+                () -> CancellationToken.callWith(token, () -> {
+                    try {
+                        return runSlowQuery(0);
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }));
+        canceller.join();
+
+        assertFalse(e.isTimedOut());
+        assertTrue(System.nanoTime() - started < 10_000_000_000L, "запрос должен прерваться сразу");
+        assertEquals(1, pool.getAvailableConnectionsCount(), "соединение вернулось в пул");
+    }
+
+    @Test
+    void testTimeoutInterruptsRunningQuery() {
+        QueryCancelledException e = assertThrows(QueryCancelledException.class, () -> runSlowQuery(1));
+        assertTrue(e.isTimedOut());
+    }
+
+    @Test
+    void testCancelledTokenStopsServiceReadAndKeepsCache() {
+        new DatabaseInitializer(pool).initializeDatabase();
+        TaskService service = new TaskService(new TaskDaoImpl(pool));
+        service.save(new Task("Задача", "Описание", LocalDate.now(), Task.Priority.MEDIUM, "Test"));
+        assertEquals(1, service.findAllSummaries().size());
+
+        service.save(new Task("Вторая", "Описание", LocalDate.now(), Task.Priority.MEDIUM, "Test"));
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        assertThrows(QueryCancelledException.class, () -> service.findAllSummaries(token));
+
+        assertEquals(1, service.peekCachedSummaries().size(), "отменённое чтение не меняет кэш");
+        assertEquals(2, service.findAllSummaries().size());
+    }
+}
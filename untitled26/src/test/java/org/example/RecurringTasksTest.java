@@ -0,0 +1,164 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringTasksTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private TaskService service;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("recurring.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        service = new TaskService(new TaskDaoImpl(pool));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private static Task template(String title) {
+        return new Task(title, "Каждый раз", null, Task.Priority.MEDIUM, "Рутина");
+    }
+
+    @Test
+    void testRulesExpandOnlyInsideWindow() {
+        LocalDate monday = LocalDate.of(2024, 1, 1);
+
+        assertEquals(List.of(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4)),
+                RecurrenceRule.daily(monday).every(3).occurrencesBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5)));
+
+        RecurrenceRule biweekly = RecurrenceRule.weekly(monday, DayOfWeek.MONDAY, DayOfWeek.THURSDAY).every(2);
+        assertEquals(List.of(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 18)),
+                biweekly.occurrencesBetween(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 21)));
+
+        // 31-е число в коротком месяце - последний день месяца
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31)),
+                RecurrenceRule.monthly(LocalDate.of(2024, 1, 31)).occurrencesBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31)));
+
+        // Серия на тысячи лет вперёд разворачивается без прохода от начала
+        assertEquals(7, RecurrenceRule.daily(LocalDate.of(1970, 1, 1))
+                .occurrencesBetween(LocalDate.of(3000, 1, 1), LocalDate.of(3000, 1, 7)).size());
+    }
+
+    @Test
+    void testEndConditions() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        RecurrenceRule fiveTimes = RecurrenceRule.weekly(start, DayOfWeek.MONDAY, DayOfWeek.FRIDAY).times(5);
+        assertEquals(LocalDate.of(2024, 1, 15), fiveTimes.getUntil());
+        assertEquals(5, fiveTimes.occurrencesBetween(start, start.plusYears(1)).size());
+
+        RecurrenceRule untilDate = RecurrenceRule.daily(start).until(LocalDate.of(2024, 1, 10));
+        assertEquals(10, untilDate.occurrencesBetween(start.minusDays(5), start.plusDays(30)).size());
+        assertFalse(untilDate.occursOn(LocalDate.of(2024, 1, 11)));
+
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.daily(start).every(0));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.daily(start).until(start.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.daily(start).times(0));
+    }
+
+    @Test
+    void testSeriesStoredOnceAndMergedIntoDateQueries() {
+        LocalDate today = LocalDate.now();
+        // upsert пишет срок строкой, как его сравнивают запросы по датам
+        service.upsert(new Task("Разовая", "", today, Task.Priority.HIGH, "Работа"));
+        service.createSeries(template("Зарядка"), RecurrenceRule.daily(today.minusYears(3)));
+
+        assertEquals(1, service.getTotalTaskCount(), "повторения не занимают строк в tasks");
+        List<Task> week = service.findTasksByDateRange(today, today.plusDays(6));
+        assertEquals(8, week.size());
+        assertEquals(7, week.stream().filter(task -> RecurringTasks.isOccurrenceId(task.getId())).count());
+
+        List<Task> todayTasks = service.findTodayTasks();
+        assertEquals(2, todayTasks.size());
+        assertTrue(todayTasks.stream().anyMatch(task -> "Зарядка".equals(task.getTitle())));
+    }
+
+    @Test
+    void testMergedListsKeepDaoOrder() {
+        LocalDate today = LocalDate.now();
+        service.upsert(new Task("Срочная", "", today, Task.Priority.HIGH, "Работа"));
+        service.upsert(new Task("Мелочь", "", today, Task.Priority.LOW, "Работа"));
+        service.createSeries(template("Зарядка"), RecurrenceRule.daily(today));
+
+        // priority DESC в запросах сравнивает текст: MEDIUM, LOW, HIGH
+        assertEquals(List.of("Зарядка", "Мелочь", "Срочная"),
+                service.findTodayTasks().stream().map(Task::getTitle).toList());
+        assertEquals(List.of("Зарядка", "Мелочь", "Срочная", "Зарядка"),
+                service.findTasksByDateRange(today, today.plusDays(1)).stream().map(Task::getTitle).toList());
+    }
+
+    @Test
+    void testOnlyDeviatingOccurrencesAreStored() throws Exception {
+        LocalDate today = LocalDate.now();
+        long seriesId = service.createSeries(template("Полив"), RecurrenceRule.daily(today).times(3));
+        long todayId = RecurringTasks.occurrenceId(seriesId, today);
+        long tomorrowId = RecurringTasks.occurrenceId(seriesId, today.plusDays(1));
+
+        assertTrue(service.markAsCompleted(todayId));
+        assertTrue(service.findById(todayId).isCompleted());
+        assertTrue(service.findTodayTasks().isEmpty(), "выполненное повторение не попадает в задачи на сегодня");
+
+        assertTrue(service.delete(tomorrowId));
+        assertNull(service.findById(tomorrowId));
+        assertEquals(List.of(today, today.plusDays(2)),
+                service.findOccurrences(today, today.plusDays(10)).stream().map(Task::getDueDate).toList());
+        assertEquals(2, countExceptions());
+
+        // Возврат к правилу удаляет исключение
+        assertTrue(new RecurringTasks(pool).setCompleted(todayId, false));
+        assertEquals(1, countExceptions());
+
+        assertFalse(service.markAsCompleted(RecurringTasks.occurrenceId(seriesId, today.plusDays(5))), "вне серии");
+        assertFalse(service.update(service.findById(todayId)));
+
+        assertTrue(service.deleteSeries(seriesId));
+        assertEquals(0, countExceptions());
+        assertTrue(service.findOccurrences(today, today.plusDays(10)).isEmpty());
+    }
+
+    @Test
+    void testH2Schema() {
+        ConnectionPool h2 = new ConnectionPool("jdbc:h2:mem:recurring;DB_CLOSE_DELAY=-1", 2);
+        try {
+            new DatabaseInitializer(h2).initializeDatabase();
+            RecurringTasks recurring = new RecurringTasks(h2);
+            LocalDate start = LocalDate.of(2024, 5, 1);
+            long seriesId = recurring.createSeries(template("Отчёт"), RecurrenceRule.monthly(start).every(2));
+
+            long occurrenceId = RecurringTasks.occurrenceId(seriesId, LocalDate.of(2024, 7, 1));
+            assertTrue(recurring.setCompleted(occurrenceId, true));
+            List<Task> occurrences = recurring.findOccurrences(start, LocalDate.of(2024, 12, 31));
+            assertEquals(List.of(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 7, 1), LocalDate.of(2024, 9, 1),
+                    LocalDate.of(2024, 11, 1)), occurrences.stream().map(Task::getDueDate).toList());
+            assertTrue(occurrences.get(1).isCompleted());
+        } finally {
+            h2.closeAllConnections();
+        }
+    }
+
+    private long countExceptions() throws Exception {
+        java.sql.Connection connection = pool.getConnection();
+        try (java.sql.Statement stmt = connection.createStatement();
+             java.sql.ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM task_series_exceptions")) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            pool.releaseConnection(connection);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionPurgeTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private TaskDaoImpl dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("retention.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        dao = new TaskDaoImpl(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private Long save(String title, LocalDate dueDate, String category, boolean completed) {
+        Long id = dao.save(new Task(title, null, dueDate, Task.Priority.LOW, category));
+        if (completed) {
+            dao.markAsCompleted(id);
+        }
+        return id;
+    }
+
+    @Test
+    void testParseRules() {
+        List<RetentionRule> rules = RetentionRule.parse("completed,age=365; category=Черновики,age=30");
+        assertEquals(2, rules.size());
+        assertEquals("completed,age=365", rules.get(0).toString());
+        assertEquals("category=Черновики,age=30", rules.get(1).toString());
+        assertThrows(IllegalArgumentException.class, () -> RetentionRule.parse("size=10"));
+    }
+
+    @Test
+    void testFindByIdForgetsPurgedTask() {
+        TaskService service = new TaskService(dao);
+        Long id = save("Старая завершённая", LocalDate.now().minusDays(400), "Работа", true);
+        assertNotNull(service.findById(id));
+
+        RetentionPurge purge = new RetentionPurge(pool, RetentionRule.parse("completed,age=365"));
+        purge.setDeletionListener(service::forgetTasks);
+        assertEquals(1, purge.purge(null).getDeletedRows());
+
+        assertNull(service.findById(id), "удалённая задача не отдаётся из кэша задач");
+    }
+
+    @Test
+    void testPurgesMatchingTasksInChunksAndKeepsCacheConsistent() {
+        LocalDate today = LocalDate.now();
+        List<Long> kept = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            save("Старая завершённая " + i, today.minusDays(400), "Работа", true);
+            kept.add(save("Старая открытая " + i, today.minusDays(400), "Работа", false));
+            save("Черновик " + i, today.minusDays(40), "Черновики", false);
+            kept.add(save("Свежий черновик " + i, today.minusDays(5), "Черновики", false));
+        }
+
+        TaskService service = new TaskService(dao);
+        service.setCacheTimeoutMillis(0);
+        assertEquals(16, service.findAllSummaries().size());
+
+        List<Double> progress = new ArrayList<>();
+        RetentionPurge purge = new RetentionPurge(pool,
+                RetentionRule.parse("completed,age=365;category=Черновики,age=30"), 3, 10_000);
+        PurgeStats stats = purge.purge((deleted, fraction) -> progress.add(fraction));
+
+        assertEquals(16, stats.getScannedRows());
+        assertEquals(8, stats.getDeletedRows());
+        assertEquals(6, stats.getTransactions());
+        assertEquals(6, progress.size());
+        assertEquals(1.0, progress.get(progress.size() - 1), 1e-9);
+
+        assertEquals(kept, dao.findAll().stream().map(Task::getId).sorted().toList());
+        assertEquals(8, service.findAllSummaries().size(), "кэш догнал удаления по журналу");
+    }
+
+    @Test
+    void testRateLimit() {
+        for (int i = 0; i < 10; i++) {
+            save("Завершённая " + i, LocalDate.now(), null, true);
+        }
+
+        RetentionPurge purge = new RetentionPurge(pool, List.of(RetentionRule.completed()), 5, 40);
+        PurgeStats stats = purge.purge(null);
+
+        assertEquals(10, stats.getDeletedRows());
+        assertTrue(stats.getElapsedMillis() >= 200, "10 строк при 40 строк/с: " + stats.getElapsedMillis());
+    }
+
+    @Test
+    void testPurgeSurvivesConcurrentWriter() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            save("Завершённая " + i, LocalDate.now(), null, true);
+        }
+
+        // Писатель коммитит между чтением и удалением порции: отложенная транзакция
+        // получила бы SQLITE_BUSY при переходе к записи
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger written = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                if (dao.save(new Task("Новая", null, LocalDate.now(), Task.Priority.LOW, null)) != null) {
+                    written.incrementAndGet();
+                }
+            }
+        });
+        writer.start();
+        PurgeStats stats;
+        try {
+            stats = new RetentionPurge(pool, List.of(RetentionRule.completed()), 10, 1_000_000).purge(null);
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+
+        assertEquals(200, stats.getDeletedRows());
+        assertTrue(written.get() > 0);
+        assertEquals(written.get(), dao.getTaskCount());
+    }
+}
@@ -0,0 +1,97 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskDaoContractTest extends TaskDaoContractTest {
+    private static final int SHARDS = 3;
+
+    private Path shardDir;
+    private ShardedTaskDao sharded;
+
+    @Override
+    protected TaskDao createDao(Path dir) {
+        shardDir = dir.resolve("shards");
+        sharded = new ShardedTaskDao(shardDir, SHARDS);
+        return sharded;
+    }
+
+    @Override
+    protected void closeDao() {
+        sharded.close();
+    }
+
+    @Test
+    void testTasksSpreadOverShardsAndKeepGlobalIds() {
+        Set<Integer> usedShards = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < SHARDS * 2; i++) {
+            Long id = dao.save(new Task("Задача " + i, "Описание " + i, LocalDate.now(), Task.Priority.LOW, "Шарды"));
+            usedShards.add(sharded.shardOf(id));
+            ids.add(id);
+            assertEquals("Задача " + i, dao.findById(id).orElseThrow().getTitle());
+        }
+
+        assertEquals(SHARDS, usedShards.size());
+        assertEquals(SHARDS * 2, ids.size(), "id не повторяются между шардами");
+        for (Task task : dao.findAll()) {
+            assertTrue(ids.contains(task.getId()));
+        }
+    }
+
+    @Test
+    void testFanOutMergesInDueDateOrder() {
+        // Строки пишет save(), часть затем меняет update: формат даты у них должен совпадать
+        for (int i = 0; i < 12; i++) {
+            Task task = new Task("Задача " + i, null, LocalDate.now().plusDays((i * 7) % 12), Task.Priority.LOW, null);
+            Long id = dao.save(task);
+            if (i % 3 == 0) {
+                task.setId(id);
+                assertTrue(dao.update(task));
+            }
+        }
+
+        List<Task> all = dao.findAll();
+        assertEquals(12, all.size());
+        List<Task> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparing(Task::getDueDate));
+        assertEquals(sorted.stream().map(Task::getDueDate).toList(), all.stream().map(Task::getDueDate).toList());
+
+        assertEquals(4, dao.findTasksByDateRange(LocalDate.now(), LocalDate.now().plusDays(3)).size());
+    }
+
+    @Test
+    void testWritesDoNotTouchCallerTask() {
+        Long id = dao.save(new Task("Задача", null, LocalDate.now(), Task.Priority.LOW, null));
+        Task task = dao.findById(id).orElseThrow();
+        task.setTitle("Изменена");
+        Task fresh = new Task("Новая", null, LocalDate.now(), Task.Priority.HIGH, null);
+
+        assertTrue(dao.update(task));
+        Task upserted = dao.upsert(task);
+        List<Task> stored = dao.upsertAll(List.of(task, fresh));
+
+        assertEquals(id, task.getId());
+        assertNull(fresh.getId());
+        assertEquals(id, upserted.getId());
+        assertNotSame(task, upserted);
+        assertEquals(id, stored.get(0).getId());
+        assertEquals("Новая", dao.findById(stored.get(1).getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testReopenWithDifferentShardCountFails() {
+        sharded.close();
+        assertThrows(IllegalStateException.class, () -> new ShardedTaskDao(shardDir, SHARDS + 1));
+        sharded = new ShardedTaskDao(shardDir, SHARDS);
+    }
+}
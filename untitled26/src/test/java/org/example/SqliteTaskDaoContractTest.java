@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteTaskDaoContractTest extends TaskDaoContractTest {
+    private ConnectionPool pool;
+
+    @Override
+    protected TaskDao createDao(Path dir) {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("contract.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        return new TaskDaoImpl(pool);
+    }
+
+    @Override
+    protected void closeDao() {
+        pool.closeAllConnections();
+    }
+
+    @Test
+    void testSaveStoresIsoDateAndOldMillisAreConverted() throws Exception {
+        LocalDate date = LocalDate.of(2025, 3, 15);
+        Long saved = dao.save(new Task("Новая", null, date, Task.Priority.LOW, null));
+        long millis = date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        Connection connection = pool.getConnection();
+        try (Statement stmt = connection.createStatement()) {
+            // База до миграции: так строки писал прежний save() через setDate
+            stmt.execute("PRAGMA user_version = 0");
+            stmt.execute("INSERT INTO tasks (title, due_date) VALUES ('Старая', '" + millis + "')");
+            stmt.execute("INSERT INTO tasks (title, due_date) VALUES ('Мусор', 'завтра')");
+            new SqliteDialect().createSchema(stmt);
+            // Миграция разовая: следующий старт строки не трогает
+            stmt.execute("INSERT INTO tasks (title, due_date) VALUES ('После', '" + millis + "')");
+            new SqliteDialect().createSchema(stmt);
+            try (ResultSet rs = stmt.executeQuery("SELECT due_date FROM tasks ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals("2025-03-15", rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("2025-03-15", rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("завтра", rs.getString(1), "не дата в миллисекундах остаётся как есть");
+                assertTrue(rs.next());
+                assertEquals(String.valueOf(millis), rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        } finally {
+            pool.releaseConnection(connection);
+        }
+
+        assertEquals(2, dao.findTasksByDateRange(date, date).size());
+        assertEquals(date, dao.findById(saved).orElseThrow().getDueDate());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageMaintenanceTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private StorageMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("maintenance.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        maintenance = new StorageMaintenance(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private void fill(int rows) throws SQLException {
+        Connection connection = pool.getConnection();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO tasks (title, description, due_date) VALUES (?, ?, '2020-01-01')")) {
+            String description = "x".repeat(4000);
+            for (int i = 0; i < rows; i++) {
+                stmt.setString(1, "Задача " + i);
+                stmt.setString(2, description);
+                stmt.executeUpdate();
+            }
+        } finally {
+            pool.releaseConnection(connection);
+        }
+    }
+
+    private void deleteAll() throws SQLException {
+        Connection connection = pool.getConnection();
+        try (var stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM tasks");
+        } finally {
+            pool.releaseConnection(connection);
+        }
+    }
+
+    @Test
+    void testTruncateCheckpointEmptiesWal() throws SQLException {
+        fill(200);
+        Path wal = dir.resolve("maintenance.db-wal");
+        assertTrue(Files.exists(wal));
+
+        assertTrue(maintenance.checkpoint("TRUNCATE") > 0);
+        assertEquals(0, wal.toFile().length());
+        maintenance.optimize();
+    }
+
+    @Test
+    void testIncrementalVacuumShrinksFileInIdleWindow() throws Exception {
+        fill(300);
+        maintenance.checkpoint("TRUNCATE");
+        deleteAll();
+        maintenance.checkpoint("TRUNCATE");
+        long before = Files.size(dir.resolve("maintenance.db"));
+
+        // Первый тик только запоминает активность пула, второй застаёт простой
+        maintenance.tick();
+        maintenance.tick();
+
+        assertTrue(Files.size(dir.resolve("maintenance.db")) < before);
+        assertEquals(0, maintenance.incrementalVacuum(StorageMaintenance.VACUUM_PAGES_PER_RUN),
+                "свободных страниц не осталось");
+    }
+
+    @Test
+    void testVacuumWaitsForLongTransaction() throws Exception {
+        fill(300);
+        maintenance.checkpoint("TRUNCATE");
+        deleteAll();
+        maintenance.checkpoint("TRUNCATE");
+        long before = Files.size(dir.resolve("maintenance.db"));
+
+        // Транзакция держит закреплённое соединение и новых не берёт
+        CountDownLatch pinned = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread transaction = new Thread(() -> {
+            try {
+                Connection connection = pool.pin();
+                try {
+                    pinned.countDown();
+                    finish.await();
+                } finally {
+                    pool.unpin(connection);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        transaction.start();
+        pinned.await();
+        try {
+            maintenance.tick();
+            maintenance.tick();
+            assertEquals(before, Files.size(dir.resolve("maintenance.db")), "во время транзакции база не простаивает");
+        } finally {
+            finish.countDown();
+            transaction.join();
+        }
+
+        maintenance.tick();
+        maintenance.tick();
+        assertTrue(Files.size(dir.resolve("maintenance.db")) < before);
+    }
+}
@@ -0,0 +1,196 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskApiServerTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private TaskService service;
+    private TaskApiServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("api.db"), 4);
+        new DatabaseInitializer(pool).initializeDatabase();
+        service = new TaskService(new TaskDaoImpl(pool));
+        server = new TaskApiServer(service, 0, 8);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        pool.closeAllConnections();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String taskBody(String title, LocalDate dueDate, String category) {
+        return "{\"title\":\"" + title + "\",\"description\":\"Описание " + title + "\",\"due_date\":\"" + dueDate +
+                "\",\"priority\":\"HIGH\",\"category\":\"" + category + "\"}";
+    }
+
+    @Test
+    void testCrudRoundTrip() throws Exception {
+        HttpResponse<String> created = send("POST", "/api/tasks", taskBody("Отчёт", LocalDate.now(), "Работа"), null);
+        assertEquals(201, created.statusCode());
+        Map<String, Object> task = TaskJson.parseObject(created.body());
+        long id = ((Number) task.get("id")).longValue();
+        assertEquals("/api/tasks/" + id, created.headers().firstValue("Location").orElseThrow());
+        assertNotNull(task.get("created_at"));
+
+        Map<String, Object> loaded = TaskJson.parseObject(send("GET", "/api/tasks/" + id, null, null).body());
+        assertEquals("Описание Отчёт", loaded.get("description"));
+
+        HttpResponse<String> updated = send("PUT", "/api/tasks/" + id, taskBody("Отчёт v2", LocalDate.now(), "Дом"), null);
+        assertEquals(200, updated.statusCode());
+        assertEquals("Дом", TaskJson.parseObject(updated.body()).get("category"));
+
+        HttpResponse<String> completed = send("POST", "/api/tasks/" + id + "/complete", null, null);
+        assertEquals(Boolean.TRUE, TaskJson.parseObject(completed.body()).get("completed"));
+
+        assertEquals(204, send("DELETE", "/api/tasks/" + id, null, null).statusCode());
+        assertEquals(404, send("GET", "/api/tasks/" + id, null, null).statusCode());
+        assertEquals(404, send("DELETE", "/api/tasks/" + id, null, null).statusCode());
+    }
+
+    @Test
+    void testBadRequests() throws Exception {
+        assertEquals(400, send("POST", "/api/tasks", "{\"title\":\"Без срока\"}", null).statusCode());
+        assertEquals(400, send("POST", "/api/tasks", "{не json", null).statusCode());
+        assertEquals(400, send("GET", "/api/tasks?limit=abc", null, null).statusCode());
+        assertEquals(405, send("PATCH", "/api/tasks", null, null).statusCode());
+        assertEquals(404, send("GET", "/api/nothing", null, null).statusCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFiltersAndPagination() throws Exception {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5; i++) {
+            service.save(new Task("Работа " + i, "", today.plusDays(i), Task.Priority.MEDIUM, "Работа"));
+        }
+        service.save(new Task("Просрочено", "", today.minusDays(2), Task.Priority.LOW, "Дом"));
+
+        Map<String, Object> page = TaskJson.parseObject(
+                send("GET", "/api/tasks?category=%D0%A0%D0%B0%D0%B1%D0%BE%D1%82%D0%B0&offset=1&limit=2", null, null).body());
+        assertEquals(5L, page.get("total"));
+        List<Object> items = (List<Object>) page.get("items");
+        assertEquals(List.of("Работа 1", "Работа 2"),
+                items.stream().map(item -> ((Map<String, Object>) item).get("title")).toList());
+
+        Map<String, Object> overdue = TaskJson.parseObject(send("GET", "/api/tasks?due=overdue", null, null).body());
+        assertEquals(1L, overdue.get("total"));
+
+        Map<String, Object> stats = TaskJson.parseObject(send("GET", "/api/stats", null, null).body());
+        assertEquals(6L, stats.get("total"));
+        assertEquals(1L, stats.get("overdue"));
+        assertEquals(5L, ((Map<String, Object>) stats.get("categories")).get("Работа"));
+    }
+
+    @Test
+    void testEtagRevalidation() throws Exception {
+        service.save(new Task("Первая", "", LocalDate.now(), Task.Priority.MEDIUM, "Работа"));
+
+        HttpResponse<String> first = send("GET", "/api/tasks", null, null);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, send("GET", "/api/tasks", null, etag).statusCode());
+        assertEquals(200, send("GET", "/api/tasks?completed=true", null, etag).statusCode(),
+                "другой запрос к тому же снимку - другая метка");
+
+        send("POST", "/api/tasks", taskBody("Вторая", LocalDate.now(), "Работа"), null);
+        HttpResponse<String> changed = send("GET", "/api/tasks", null, etag);
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+    }
+
+    // 304 и 204 не обрывают keep-alive: следующий запрос идёт по тому же сокету.
+    // HttpClient повторяет упавший GET сам, поэтому проверка - на голом сокете
+    @Test
+    void testBodilessResponsesKeepConnectionOpen() throws Exception {
+        long id = service.save(new Task("Первая", "", LocalDate.now(), Task.Priority.MEDIUM, "Работа"));
+        String etag = send("GET", "/api/tasks", null, null).headers().firstValue("ETag").orElseThrow();
+
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(5000);
+            assertTrue(exchange(socket, "GET /api/tasks HTTP/1.1\r\nHost: localhost\r\nIf-None-Match: " + etag +
+                    "\r\nContent-Length: 0\r\n\r\n").startsWith("HTTP/1.1 304"));
+            assertTrue(exchange(socket, "DELETE /api/tasks/" + id + " HTTP/1.1\r\nHost: localhost\r\n" +
+                    "Content-Length: 0\r\n\r\n").startsWith("HTTP/1.1 204"));
+            String body = taskBody("Вторая", LocalDate.now(), "Работа");
+            assertTrue(exchange(socket, "POST /api/tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: " +
+                    body.getBytes(StandardCharsets.UTF_8).length + "\r\n\r\n" + body).startsWith("HTTP/1.1 201"));
+        }
+    }
+
+    // Пишет запрос и читает ответ целиком (заголовки и тело по Content-Length); возвращает заголовки
+    private static String exchange(Socket socket, String request) throws Exception {
+        OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        InputStream in = socket.getInputStream();
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.ISO_8859_1).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b < 0) {
+                fail("сервер закрыл соединение, получено: " + head.toString(StandardCharsets.ISO_8859_1));
+            }
+            head.write(b);
+        }
+        String headers = head.toString(StandardCharsets.ISO_8859_1);
+        for (String line : headers.split("\r\n")) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                in.readNBytes(Integer.parseInt(line.substring("content-length:".length()).trim()));
+            }
+        }
+        return headers;
+    }
+
+    @Test
+    void testConcurrentClientsShareOneService() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + server.getPort() + "/api/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(taskBody("Задача " + i, LocalDate.now(), "Работа")))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.join().statusCode());
+        }
+        assertEquals(50L, TaskJson.parseObject(send("GET", "/api/stats", null, null).body()).get("total"));
+    }
+}
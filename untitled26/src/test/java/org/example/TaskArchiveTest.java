@@ -0,0 +1,111 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskArchiveTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private TaskDaoImpl dao;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("archive.db"), 2);
+        new DatabaseInitializer(pool).initializeDatabase();
+        dao = new TaskDaoImpl(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private Long saveCompleted(String title, LocalDate dueDate) {
+        Long id = dao.save(new Task(title, "Отчёт " + title, dueDate, Task.Priority.LOW, "Архив"));
+        dao.markAsCompleted(id);
+        return id;
+    }
+
+    @Test
+    void testMovesOnlyOldCompletedTasksInBatches() {
+        LocalDate old = LocalDate.now().minusDays(200);
+        for (int i = 0; i < 5; i++) {
+            saveCompleted("Старая " + i, old.plusDays(i));
+        }
+        saveCompleted("Свежая", LocalDate.now().minusDays(5));
+        Long open = dao.save(new Task("Открытая", null, old, Task.Priority.HIGH, "Архив"));
+
+        TaskArchive archive = new TaskArchive(pool, 90, 2);
+        assertEquals(5, archive.archiveAll());
+        assertEquals(0, archive.archiveAll(), "повторный проход ничего не переносит");
+
+        List<Task> live = dao.findAll();
+        assertEquals(2, live.size());
+        assertTrue(live.stream().anyMatch(task -> task.getId().equals(open)));
+        assertEquals(5, archive.countArchived());
+
+        List<Task> found = archive.searchArchive("Старая 3", 10);
+        assertEquals(1, found.size());
+        assertEquals("Отчёт Старая 3", found.get(0).getDescription());
+        assertEquals(old.plusDays(3), found.get(0).getDueDate());
+        assertEquals(3, archive.findArchivedByDateRange(old, old.plusDays(2)).size());
+        assertTrue(archive.searchArchive("100%", 10).isEmpty());
+    }
+
+    @Test
+    void testServiceCacheForgetsArchivedTasks() {
+        TaskService service = new TaskService(dao);
+        // Кэш догоняет журнал изменений по истечении TTL; здесь - при каждом чтении
+        service.setCacheTimeoutMillis(0);
+        saveCompleted("Старая", LocalDate.now().minusDays(365));
+        service.save(new Task("Текущая", null, LocalDate.now(), Task.Priority.MEDIUM, "Архив"));
+        assertEquals(2, service.findAllSummaries().size());
+
+        new TaskArchive(pool, 30, 10).archiveAll();
+
+        List<Task> tasks = service.findAllSummaries();
+        assertEquals(1, tasks.size());
+        assertEquals("Текущая", tasks.get(0).getTitle());
+    }
+
+    @Test
+    void testFindByIdForgetsArchivedTask() {
+        TaskService service = new TaskService(dao);
+        Long id = saveCompleted("Старая", LocalDate.now().minusDays(365));
+        assertNotNull(service.findById(id));
+
+        TaskArchive archive = new TaskArchive(pool, 30, 10);
+        archive.setDeletionListener(service::forgetTasks);
+        assertEquals(1, archive.archiveAll());
+
+        assertNull(service.findById(id), "перенесённая задача не отдаётся из кэша задач");
+    }
+
+    @Test
+    void testUnknownArchivedPriorityReadsAsMedium() throws Exception {
+        Long id = saveCompleted("Старая", LocalDate.now().minusDays(200));
+        new TaskArchive(pool, 90, 10).archiveAll();
+        Connection connection = pool.getConnection();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE tasks_archive SET priority = 'URGENT' WHERE id = " + id);
+        } finally {
+            pool.releaseConnection(connection);
+        }
+
+        List<Task> found = new TaskArchive(pool).searchArchive("Старая", 10);
+        assertEquals(1, found.size());
+        assertEquals(Task.Priority.MEDIUM, found.get(0).getPriority());
+    }
+}
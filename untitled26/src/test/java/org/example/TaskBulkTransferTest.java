@@ -0,0 +1,189 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskBulkTransferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool sourcePool;
+    private ConnectionPool targetPool;
+
+    @BeforeEach
+    void setUp() {
+        sourcePool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("source.db"), 2);
+        targetPool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("target.db"), 2);
+        new DatabaseInitializer(sourcePool).initializeDatabase();
+        new DatabaseInitializer(targetPool).initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sourcePool.closeAllConnections();
+        targetPool.closeAllConnections();
+    }
+
+    @Test
+    void testCsvRoundTrip() throws Exception {
+        assertRoundTrip(TaskBulkTransfer.Format.CSV, tempDir.resolve("tasks.csv"));
+    }
+
+    @Test
+    void testJsonLinesRoundTrip() throws Exception {
+        assertRoundTrip(TaskBulkTransfer.Format.JSONL, tempDir.resolve("tasks.jsonl"));
+    }
+
+    @Test
+    void testImportRejectsInvalidRows() throws Exception {
+        Path csv = tempDir.resolve("invalid.csv");
+        Files.writeString(csv, """
+                title,due_date,priority,completed
+                Valid,2025-01-10,high,true
+                ,2025-01-10,LOW,false
+                No date,,LOW,false
+                Bad date,tomorrow,LOW,false
+                """, StandardCharsets.UTF_8);
+
+        TransferStats stats = new TaskBulkTransfer(targetPool)
+                .importFile(csv, TaskBulkTransfer.Format.CSV, false, null);
+
+        assertEquals(1, stats.getRows());
+        assertEquals(3, stats.getRejectedRows());
+
+        Task imported = new TaskDaoImpl(targetPool).findAll().get(0);
+        assertEquals("Valid", imported.getTitle());
+        assertEquals(Task.Priority.HIGH, imported.getPriority());
+        assertTrue(imported.isCompleted());
+    }
+
+    @Test
+    void testReimportUpdatesRowsById() throws Exception {
+        TaskDaoImpl sourceDao = new TaskDaoImpl(sourcePool);
+        Long id = sourceDao.save(new Task("Первая", "Описание", LocalDate.of(2025, 3, 1), Task.Priority.LOW, "Work"));
+        sourceDao.save(new Task("Вторая", "", LocalDate.of(2025, 3, 2), Task.Priority.HIGH, null));
+        Path file = tempDir.resolve("tasks.jsonl");
+        new TaskBulkTransfer(sourcePool).exportFile(file, TaskBulkTransfer.Format.JSONL, null);
+
+        TaskBulkTransfer transfer = new TaskBulkTransfer(targetPool);
+        transfer.importFile(file, TaskBulkTransfer.Format.JSONL, false, null);
+        TaskDaoImpl targetDao = new TaskDaoImpl(targetPool);
+        Task changed = targetDao.findById(id).orElseThrow();
+        changed.setTitle("Изменена после импорта");
+        targetDao.update(changed);
+
+        transfer.importFile(file, TaskBulkTransfer.Format.JSONL, false, null);
+
+        assertEquals(2, targetDao.getTaskCount(), "повторный импорт не создаёт копий");
+        assertEquals("Первая", targetDao.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testImportRejectsInvalidId() throws Exception {
+        Path csv = tempDir.resolve("ids.csv");
+        Files.writeString(csv, """
+                id,title,due_date
+                ,Без id,2025-01-10
+                7,С id,2025-01-10
+                abc,Плохой id,2025-01-10
+                """, StandardCharsets.UTF_8);
+
+        TransferStats stats = new TaskBulkTransfer(targetPool)
+                .importFile(csv, TaskBulkTransfer.Format.CSV, false, null);
+
+        assertEquals(2, stats.getRows());
+        assertEquals(1, stats.getRejectedRows());
+        assertEquals("С id", new TaskDaoImpl(targetPool).findById(7L).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testImportRejectsArchivedId() throws Exception {
+        TaskDaoImpl dao = new TaskDaoImpl(targetPool);
+        Task done = new Task("В архиве", "", LocalDate.now().minusDays(100), Task.Priority.LOW, null);
+        done.setCompleted(true);
+        Long archivedId = dao.save(done);
+        assertEquals(1, new TaskArchive(targetPool, 30, 10).archiveAll());
+
+        Path csv = tempDir.resolve("archived.csv");
+        Files.writeString(csv, "id,title,due_date\n" + archivedId + ",Снова,2025-01-10\n", StandardCharsets.UTF_8);
+        TransferStats stats = new TaskBulkTransfer(targetPool)
+                .importFile(csv, TaskBulkTransfer.Format.CSV, false, null);
+
+        assertEquals(0, stats.getRows());
+        assertEquals(1, stats.getRejectedRows());
+        assertTrue(dao.findById(archivedId).isEmpty(), "id архивной задачи не занят снова");
+    }
+
+    @Test
+    void testImportIntoH2() throws Exception {
+        TaskDaoImpl sourceDao = new TaskDaoImpl(sourcePool);
+        sourceDao.save(new Task("Первая", "Описание", LocalDate.of(2025, 3, 1), Task.Priority.LOW, "Work"));
+        Long id = sourceDao.save(new Task("Вторая", null, LocalDate.of(2025, 3, 2), Task.Priority.HIGH, null));
+        Path file = tempDir.resolve("tasks.csv");
+        new TaskBulkTransfer(sourcePool).exportFile(file, TaskBulkTransfer.Format.CSV, null);
+
+        ConnectionPool h2 = new ConnectionPool("jdbc:h2:mem:bulk-" + UUID.randomUUID(), 2);
+        try {
+            new DatabaseInitializer(h2).initializeDatabase();
+            TaskBulkTransfer transfer = new TaskBulkTransfer(h2);
+            assertEquals(2, transfer.importFile(file, TaskBulkTransfer.Format.CSV, true, null).getRows());
+            assertEquals(2, transfer.importFile(file, TaskBulkTransfer.Format.CSV, false, null).getRows());
+
+            JdbcTaskDao dao = new JdbcTaskDao(h2);
+            assertEquals(2, dao.getTaskCount(), "повторный импорт не создаёт копий");
+            Task second = dao.findById(id).orElseThrow();
+            assertEquals("Вторая", second.getTitle());
+            assertEquals(Task.Priority.HIGH, second.getPriority());
+            assertEquals(LocalDate.of(2025, 3, 2), second.getDueDate());
+
+            Long next = dao.save(new Task("Новая", "", LocalDate.of(2025, 3, 3), Task.Priority.LOW, null));
+            assertTrue(next > id, "автоматический id идёт после импортированных");
+        } finally {
+            h2.closeAllConnections();
+        }
+    }
+
+    private void assertRoundTrip(TaskBulkTransfer.Format format, Path file) throws Exception {
+        TaskDaoImpl sourceDao = new TaskDaoImpl(sourcePool);
+        sourceDao.save(new Task("Plain", "Simple description", LocalDate.of(2025, 3, 1), Task.Priority.LOW, "Work"));
+        sourceDao.save(new Task("Quotes, \"commas\"", "Line 1\nLine 2", LocalDate.of(2025, 3, 2), Task.Priority.HIGH, null));
+        Task completed = new Task("Done", "", LocalDate.of(2025, 3, 3), Task.Priority.MEDIUM, "Личное");
+        completed.setCompleted(true);
+        sourceDao.save(completed);
+
+        TransferStats exported = new TaskBulkTransfer(sourcePool).exportFile(file, format, null);
+        assertEquals(3, exported.getRows());
+
+        TransferStats imported = new TaskBulkTransfer(targetPool).importFile(file, format, true, null);
+        assertEquals(3, imported.getRows());
+        assertEquals(0, imported.getRejectedRows());
+
+        List<Task> tasks = new TaskDaoImpl(targetPool).findAll();
+        assertEquals(3, tasks.size());
+
+        assertEquals("Plain", tasks.get(0).getTitle());
+        assertEquals("Work", tasks.get(0).getCategory());
+        assertEquals(LocalDate.of(2025, 3, 1), tasks.get(0).getDueDate());
+
+        assertEquals("Quotes, \"commas\"", tasks.get(1).getTitle());
+        assertEquals("Line 1\nLine 2", tasks.get(1).getDescription());
+        assertNull(tasks.get(1).getCategory());
+        assertEquals(Task.Priority.HIGH, tasks.get(1).getPriority());
+
+        assertEquals("", tasks.get(2).getDescription());
+        assertEquals("Личное", tasks.get(2).getCategory());
+        assertTrue(tasks.get(2).isCompleted());
+    }
+}
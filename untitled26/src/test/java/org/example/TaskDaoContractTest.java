@@ -0,0 +1,167 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Общие проверки для всех реализаций TaskDao; подклассы задают хранилище
+abstract class TaskDaoContractTest {
+    @TempDir
+    Path dir;
+
+    protected TaskDao dao;
+
+    protected abstract TaskDao createDao(Path dir) throws Exception;
+
+    protected abstract void closeDao() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dao = createDao(dir);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeDao();
+    }
+
+    private Long save(String title, String category, Task.Priority priority) {
+        return dao.save(new Task(title, "Описание " + title, LocalDate.now().plusDays(3), priority, category));
+    }
+
+    @Test
+    void testSaveAndFindById() {
+        Long id = save("Первая", "Работа", Task.Priority.HIGH);
+        assertNotNull(id);
+
+        Task task = dao.findById(id).orElseThrow();
+        assertEquals("Первая", task.getTitle());
+        assertEquals("Описание Первая", task.getDescription());
+        assertEquals(LocalDate.now().plusDays(3), task.getDueDate());
+        assertEquals(Task.Priority.HIGH, task.getPriority());
+        assertEquals("Работа", task.getCategory());
+        assertFalse(task.isCompleted());
+
+        assertTrue(dao.findById(id + 1000).isEmpty());
+    }
+
+    @Test
+    void testFindByIdsKeepsOrderAndSkipsMissing() {
+        Long first = save("Первая", "Работа", Task.Priority.HIGH);
+        Long second = save("Вторая", "Дом", Task.Priority.LOW);
+        Long third = save("Третья", "Дом", Task.Priority.MEDIUM);
+
+        List<Task> tasks = dao.findByIds(List.of(third, first + 100_000, first, third, second));
+        assertEquals(List.of(third, first, second), tasks.stream().map(Task::getId).toList());
+        assertEquals("Описание Третья", tasks.get(0).getDescription());
+        assertTrue(dao.findByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void testFindByIdsAcrossInChunks() {
+        Long first = save("Первая", "Работа", Task.Priority.HIGH);
+        Long last = save("Последняя", "Дом", Task.Priority.LOW);
+
+        // Больше двух пачек IN, найденные задачи - в начале, середине и хвосте списка
+        List<Long> ids = new ArrayList<>();
+        ids.add(first);
+        for (long id = 1_000_000; ids.size() < JdbcTaskDao.IN_CHUNK_SIZE * 2 + 17; id++) {
+            ids.add(id);
+        }
+        ids.add(last);
+        assertEquals(List.of(first, last), dao.findByIds(ids).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testUpsertInsertsAndUpdatesInOneCall() {
+        Task inserted = dao.upsert(new Task("Новая", "Описание", LocalDate.now().plusDays(1), Task.Priority.LOW, "Дом"));
+        assertNotNull(inserted.getId());
+        assertNotNull(inserted.getCreatedAt(), "created_at из базы, а не из Java");
+        assertEquals("Новая", inserted.getTitle());
+
+        Task change = dao.findById(inserted.getId()).orElseThrow();
+        change.setTitle("Изменённая");
+        change.setCompleted(true);
+        Task updated = dao.upsert(change);
+        assertEquals(inserted.getId(), updated.getId());
+        assertEquals("Изменённая", updated.getTitle());
+        assertTrue(updated.isCompleted());
+        assertEquals(inserted.getCreatedAt(), updated.getCreatedAt());
+        assertEquals(1, dao.getTaskCount());
+
+        // Несуществующий id не занимается, задача получает новый
+        Task orphan = new Task("Сирота", "Описание", LocalDate.now(), Task.Priority.HIGH, "Дом");
+        orphan.setId(inserted.getId() + 100_000);
+        Task stored = dao.upsert(orphan);
+        assertNotEquals(orphan.getId(), stored.getId());
+        assertEquals("Сирота", dao.findById(stored.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testUpsertAllKeepsOrder() {
+        Long existing = save("Было", "Работа", Task.Priority.LOW);
+        Task update = dao.findById(existing).orElseThrow();
+        update.setTitle("Стало");
+
+        List<Task> stored = dao.upsertAll(List.of(
+                new Task("Первая", "Описание", LocalDate.now(), Task.Priority.HIGH, "Дом"),
+                update,
+                new Task("Третья", "Описание", LocalDate.now(), Task.Priority.MEDIUM, "Дом")));
+
+        assertEquals(List.of("Первая", "Стало", "Третья"), stored.stream().map(Task::getTitle).toList());
+        assertEquals(existing, stored.get(1).getId());
+        assertEquals("Стало", dao.findById(existing).orElseThrow().getTitle());
+        assertEquals(3, dao.getTaskCount());
+        assertTrue(dao.upsertAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        Long id = save("Старое", "Дом", Task.Priority.LOW);
+        Task task = dao.findById(id).orElseThrow();
+        task.setTitle("Новое");
+        task.setDueDate(LocalDate.now().plusDays(7));
+        assertTrue(dao.update(task));
+
+        Task updated = dao.findById(id).orElseThrow();
+        assertEquals("Новое", updated.getTitle());
+        assertEquals(LocalDate.now().plusDays(7), updated.getDueDate());
+
+        assertTrue(dao.delete(id));
+        assertFalse(dao.delete(id));
+        assertTrue(dao.findById(id).isEmpty());
+    }
+
+    @Test
+    void testSummariesWithoutDescription() {
+        Long id = save("Кратко", "Дом", Task.Priority.MEDIUM);
+
+        List<Task> summaries = dao.findAllSummaries();
+        assertEquals(1, summaries.size());
+        assertNull(summaries.get(0).getDescription());
+        assertEquals("Описание Кратко", dao.findDescription(id).orElseThrow());
+        assertTrue(dao.findDescription(id + 1000).isEmpty());
+    }
+
+    @Test
+    void testCompletedAndCategoryQueries() {
+        Long first = save("Одна", "Работа", Task.Priority.MEDIUM);
+        save("Другая", "Работа", Task.Priority.MEDIUM);
+        save("Третья", "Дом", Task.Priority.MEDIUM);
+
+        assertTrue(dao.markAsCompleted(first));
+        assertEquals(List.of(first), dao.findByCompleted(true).stream().map(Task::getId).toList());
+        assertEquals(2, dao.findByCompleted(false).size());
+        assertEquals(2, dao.findTasksByCategory("Работа").size());
+        assertEquals(3, dao.getTaskCount());
+        assertEquals(3, dao.findAll().size());
+    }
+}
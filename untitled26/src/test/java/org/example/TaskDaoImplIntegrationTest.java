@@ -33,7 +33,7 @@ class TaskDaoImplIntegrationTest {
         connectionPool = new ConnectionPool() {
             @Override
             public java.sql.Connection getConnection() throws SQLException {
-                return (java.sql.Connection) DriverManager.getConnection("jdbc:sqlite:" + TEST_DB_PATH);
+                return DriverManager.getConnection("jdbc:sqlite:" + TEST_DB_PATH);
             }
         };
 
@@ -128,4 +128,88 @@ class TaskDaoImplIntegrationTest {
         List<Task> remainingTasks = taskDao.findAll();
         assertEquals(5, remainingTasks.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void integrationTest_ChangeLogRecordsMutations() {
+        new DatabaseInitializer(connectionPool).initializeDatabase();
+        long startSeq = taskDao.getLatestChangeSeq();
+
+        Task task = new Task("Logged", "Desc", LocalDate.now(), Task.Priority.LOW, "Log");
+        Long id = taskDao.save(task);
+        task.setId(id);
+        task.setTitle("Logged (edited)");
+        taskDao.update(task);
+        taskDao.delete(id);
+
+        List<TaskChange> changes = taskDao.findChangesSince(startSeq, 100);
+        assertEquals(3, changes.size());
+        assertEquals(TaskChange.Operation.INSERT, changes.get(0).getOperation());
+        assertEquals(TaskChange.Operation.UPDATE, changes.get(1).getOperation());
+        assertEquals(TaskChange.Operation.DELETE, changes.get(2).getOperation());
+        assertTrue(changes.stream().allMatch(change -> change.getTaskId() == id));
+        assertEquals(changes.get(2).getSeq(), taskDao.getLatestChangeSeq());
+
+        assertEquals(1, taskDao.findChangesSince(changes.get(1).getSeq(), 100).size());
+    }
+
+    @Test
+    void integrationTest_ServiceSyncsCacheFromChangeLog() {
+        new DatabaseInitializer(connectionPool).initializeDatabase();
+        TaskService service = new TaskService(taskDao);
+
+        Long keepId = service.save(new Task("Keep", "Desc", LocalDate.now().plusDays(2), Task.Priority.LOW, "Sync"));
+        Long dropId = service.save(new Task("Drop", "Desc", LocalDate.now().plusDays(1), Task.Priority.LOW, "Sync"));
+        assertEquals(2, service.findAllSummaries().size());
+
+        service.delete(dropId);
+        Task keep = service.findById(keepId);
+        keep.setTitle("Keep (edited)");
+        service.update(keep);
+        service.save(new Task("New", "Desc", LocalDate.now(), Task.Priority.HIGH, "Sync"));
+
+        List<Task> tasks = service.findAllSummaries();
+        assertEquals(2, tasks.size());
+        assertEquals("New", tasks.get(0).getTitle());
+        assertEquals("Keep (edited)", tasks.get(1).getTitle());
+    }
+
+    @Test
+    void integrationTest_SummariesLoadDescriptionLazily() {
+        Task task = new Task("Summary", "Long description", LocalDate.now(), Task.Priority.MEDIUM, "Lazy");
+        Long id = taskDao.save(task);
+
+        List<Task> summaries = taskDao.findAllSummaries();
+        assertEquals(1, summaries.size());
+        assertEquals("Summary", summaries.get(0).getTitle());
+        assertNull(summaries.get(0).getDescription());
+
+        TaskService service = new TaskService(taskDao);
+        assertEquals("Long description", service.getDescription(summaries.get(0)));
+        assertEquals("Long description", taskDao.findDescription(id).orElseThrow());
+        assertTrue(taskDao.findDescription(id + 1).isEmpty());
+    }
+
+    @Test
+    void integrationTest_RestoredSnapshotCatchesUpWithChangeLog() {
+        new DatabaseInitializer(connectionPool).initializeDatabase();
+        TaskService before = new TaskService(taskDao);
+        Long id = before.save(new Task("Old title", "Desc", LocalDate.now(), Task.Priority.LOW, "Snap"));
+        before.findAllSummaries();
+        TaskSnapshotFile.Snapshot snapshot = before.captureSnapshot();
+        assertNotNull(snapshot);
+
+        Task changed = taskDao.findById(id).orElseThrow();
+        changed.setTitle("New title");
+        taskDao.update(changed);
+        taskDao.save(new Task("Added later", "Desc", LocalDate.now().plusDays(1), Task.Priority.LOW, "Snap"));
+
+        TaskService after = new TaskService(taskDao);
+        after.restoreSnapshot(snapshot);
+        assertEquals("Old title", after.peekCachedSummaries().get(0).getTitle());
+
+        List<Task> tasks = after.findAllSummaries();
+        assertEquals(2, tasks.size());
+        assertEquals("New title", tasks.get(0).getTitle());
+        assertEquals("Added later", tasks.get(1).getTitle());
+    }
+}
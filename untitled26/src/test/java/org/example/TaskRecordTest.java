@@ -0,0 +1,50 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRecordTest {
+
+    private static Task task() {
+        Task task = new Task("Отчёт", "Описание", LocalDate.of(2024, 3, 15), Task.Priority.HIGH, new String("Работа"));
+        task.setId(42L);
+        task.setCompleted(true);
+        task.setCreatedAt(LocalDateTime.of(2024, 3, 1, 9, 30, 15));
+        return task;
+    }
+
+    @Test
+    void testRoundTripThroughTask() {
+        TaskRecord record = TaskRecord.of(task());
+        Task copy = record.toTask();
+
+        assertEquals(42L, copy.getId());
+        assertEquals("Отчёт", copy.getTitle());
+        assertEquals("Описание", copy.getDescription());
+        assertTrue(copy.isCompleted());
+        assertEquals(LocalDate.of(2024, 3, 15), copy.getDueDate());
+        assertEquals(Task.Priority.HIGH, copy.getPriority());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 30, 15), copy.getCreatedAt());
+        assertSame("Работа", record.category(), "категория интернирована");
+        assertEquals(record, TaskRecord.of(copy));
+    }
+
+    @Test
+    void testWithersReturnNewRecords() {
+        TaskRecord record = TaskRecord.of(task());
+        TaskRecord moved = record.withDueDate(null).withCategory("Дом").withCompleted(false);
+
+        assertEquals(LocalDate.of(2024, 3, 15), record.dueDate(), "исходная запись не меняется");
+        assertNull(moved.dueDate());
+        assertEquals(TaskRecord.NO_DUE_DATE, moved.dueEpochDay());
+        assertEquals("Дом", moved.category());
+        assertFalse(moved.completed());
+        assertEquals(record.id(), moved.id());
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskRecord.of(new Task("Без id", "", LocalDate.now(), Task.Priority.LOW, "Дом")));
+    }
+}
@@ -7,7 +7,15 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,6 +76,23 @@ class TaskServiceTest {
         assertEquals(id, found.getId());
     }
 
+    @Test
+    @DisplayName("Service: Повторный поиск по ID обслуживается из кэша")
+    void testFindByIdIsCachedAndInvalidated() {
+        Long id = taskService.save(new Task("Cached", "Description",
+                LocalDate.now(), Task.Priority.MEDIUM, "Test"));
+
+        taskService.findById(id);
+        assertEquals("Cached", taskService.findById(id).getTitle());
+        assertEquals(1, taskService.getTaskCache().getHitCount());
+
+        Task edited = new Task("Edited", "Description", LocalDate.now(), Task.Priority.HIGH, "Test");
+        edited.setId(id);
+        taskService.update(edited);
+
+        assertEquals("Edited", taskService.findById(id).getTitle());
+    }
+
     @Test
     @DisplayName("Service: Поиск несуществующей задачи ")
     void testFindByIdNotFoundThroughService() {
@@ -232,6 +257,242 @@ class TaskServiceTest {
         assertEquals(4, thisWeek.size());
     }
 
+    @Test
+    @DisplayName("Service: Пакетный поиск по ID берёт закэшированные задачи из памяти")
+    void testFindByIdsUsesTaskCache() {
+        LocalDate today = LocalDate.now();
+        Long first = taskService.save(new Task("First", "Desc", today, Task.Priority.MEDIUM, "Test"));
+        Long second = taskService.save(new Task("Second", "Desc", today, Task.Priority.MEDIUM, "Test"));
+        Task cached = taskService.findById(second);
+        long hitsBefore = taskService.getTaskCache().getHitCount();
+
+        List<Task> tasks = taskService.findByIds(List.of(second, 999L, first));
+
+        assertEquals(2, tasks.size());
+        assertEquals(cached.getId(), tasks.get(0).getId());
+        assertEquals(first, tasks.get(1).getId());
+        assertEquals(hitsBefore + 1, taskService.getTaskCache().getHitCount());
+        long missesBefore = taskService.getTaskCache().getMissCount();
+        taskService.findById(first);
+        assertEquals(missesBefore, taskService.getTaskCache().getMissCount(), "прочитанные задачи попадают в кэш");
+    }
+
+    @Test
+    @DisplayName("Service: upsert кладёт сохранённую задачу в кэш без перечитывания")
+    void testUpsertUpdatesTaskCache() {
+        Task stored = taskService.upsert(new Task("Upsert", "Desc", LocalDate.now(), Task.Priority.HIGH, "Test"));
+        long missesBefore = taskService.getTaskCache().getMissCount();
+
+        assertEquals("Upsert", taskService.findById(stored.getId()).getTitle());
+        assertEquals(missesBefore, taskService.getTaskCache().getMissCount());
+    }
+
+    @Test
+    @DisplayName("Service: правка задачи из findById не меняет кэш")
+    void testFindByIdReturnsDetachedCopy() {
+        Long id = taskService.save(new Task("Исходная", "Desc", LocalDate.now(), Task.Priority.LOW, "Test"));
+
+        taskService.findById(id).setTitle("Правка в окне");
+        Task fromCache = taskService.findById(id);
+        fromCache.setCompleted(true);
+
+        assertEquals(1, taskService.getTaskCache().getHitCount());
+        assertEquals("Исходная", taskService.findById(id).getTitle());
+        assertFalse(taskService.findById(id).isCompleted());
+    }
+
+    @Test
+    @DisplayName("Service: строка, прочитанная до изменения, не остаётся в кэше после него")
+    void testStaleReadDuringUpdateIsNotCached() {
+        TaskService[] holder = new TaskService[1];
+        InMemoryTaskDao dao = new InMemoryTaskDao() {
+            private boolean raced;
+
+            @Override
+            public Optional<Task> findById(Long taskId) {
+                Optional<Task> read = super.findById(taskId).map(task -> {
+                    Task copy = new Task(task.getTitle(), task.getDescription(), task.getDueDate(),
+                            task.getPriority(), task.getCategory());
+                    copy.setId(task.getId());
+                    return copy;
+                });
+                if (!raced) {
+                    // Запись другого потока завершилась, пока строка шла из базы
+                    raced = true;
+                    Task edited = new Task("Новая", "Desc", LocalDate.now(), Task.Priority.LOW, "Test");
+                    edited.setId(taskId);
+                    holder[0].update(edited);
+                }
+                return read;
+            }
+        };
+        Long id = dao.save(new Task("Старая", "Desc", LocalDate.now(), Task.Priority.LOW, "Test"));
+        TaskService service = new TaskService(dao);
+        holder[0] = service;
+
+        assertEquals("Старая", service.findById(id).getTitle(), "читатель получил то, что прочитал");
+        assertEquals("Новая", service.findById(id).getTitle(), "устаревшая строка не закэширована");
+    }
+
+    @Test
+    @DisplayName("Service: описание, прочитанное до изменения, не остаётся в кэше")
+    void testStaleDescriptionDuringUpdateIsNotCached() {
+        TaskService[] holder = new TaskService[1];
+        InMemoryTaskDao dao = new InMemoryTaskDao() {
+            private boolean raced;
+
+            @Override
+            public Optional<String> findDescription(Long taskId) {
+                Optional<String> read = super.findDescription(taskId);
+                if (!raced) {
+                    // Запись другого потока завершилась, пока описание шло из базы
+                    raced = true;
+                    Task edited = new Task("Задача", "Новое", LocalDate.now(), Task.Priority.LOW, "Test");
+                    edited.setId(taskId);
+                    holder[0].update(edited);
+                }
+                return read;
+            }
+        };
+        Long id = dao.save(new Task("Задача", "Старое", LocalDate.now(), Task.Priority.LOW, "Test"));
+        TaskService service = new TaskService(dao);
+        holder[0] = service;
+        Task summary = new Task("Задача", null, LocalDate.now(), Task.Priority.LOW, "Test");
+        summary.setId(id);
+
+        assertEquals("Старое", service.getDescription(summary), "читатель получил то, что прочитал");
+        assertEquals("Новое", service.getDescription(summary), "устаревшее описание не закэшировано");
+    }
+
+    @Test
+    @DisplayName("Service: одновременные промахи кэша списка читают базу один раз")
+    void testConcurrentSummaryMissesShareOneReload() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        TaskService service = new TaskService(new InMemoryTaskDao() {
+            {
+                save(new Task("Общая", "Desc", LocalDate.now(), Task.Priority.LOW, "Test"));
+            }
+
+            @Override
+            public List<Task> findAllSummaries() {
+                loads.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findAllSummaries();
+            }
+        });
+
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<TaskRecord>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(readers.submit(() -> service.findAllSummaryRecords()));
+            }
+            loading.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            List<TaskRecord> first = results.get(0).get();
+            for (Future<List<TaskRecord>> result : results) {
+                assertSame(first, result.get(), "все читатели получили один и тот же снимок");
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, service.getSummaryRefreshCount());
+            assertThrows(UnsupportedOperationException.class, () -> first.add(first.get(0)));
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Service: правка задач из findAllSummaries не меняет общий снимок")
+    void testSummaryTasksAreDetachedFromSnapshot() {
+        taskService.save(new Task("Исходная", "Desc", LocalDate.now(), Task.Priority.LOW, "Test"));
+
+        List<Task> tasks = taskService.findAllSummaries();
+        tasks.get(0).setTitle("Правка в окне");
+        tasks.add(new Task("Лишняя", "", LocalDate.now(), Task.Priority.LOW, "Test"));
+
+        assertEquals(1, taskService.findAllSummaryRecords().size());
+        assertEquals("Исходная", taskService.findAllSummaryRecords().get(0).title());
+        assertSame(taskService.findAllSummaryRecords(), taskService.findAllSummaryRecords());
+    }
+
+    @Test
+    @DisplayName("Service: инвалидация во время перезагрузки не даёт снимку стать действительным")
+    void testInvalidationDuringReloadKeepsSnapshotStale() {
+        TaskService[] holder = new TaskService[1];
+        TaskService service = new TaskService(new InMemoryTaskDao() {
+            @Override
+            public List<Task> findAllSummaries() {
+                // Запись пришла, пока шло чтение таблицы
+                holder[0].invalidateCache();
+                return super.findAllSummaries();
+            }
+        });
+        holder[0] = service;
+
+        long versionBefore = service.getSummaryVersion();
+        service.findAllSummaries();
+
+        assertFalse(service.isCacheValid());
+        assertTrue(service.getSummaryVersion() > versionBefore);
+    }
+
+    @Test
+    @DisplayName("Service: фильтры по кэшу не ломаются при догонке кэша по журналу изменений")
+    void testFiltersDuringIncrementalSync() throws Exception {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("sync.db"), 4);
+        try {
+            new DatabaseInitializer(pool).initializeDatabase();
+            TaskService service = new TaskService(new TaskDaoImpl(pool));
+            for (int i = 0; i < 200; i++) {
+                service.upsert(new Task("Задача " + i, "", LocalDate.now(), Task.Priority.values()[i % 3],
+                        i % 2 == 0 ? "Работа" : "Дом"));
+            }
+            service.findAllSummaries();
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            ExecutorService readers = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    results.add(readers.submit(() -> {
+                        while (running.get()) {
+                            service.findTasksByCategory("Работа");
+                            service.findTasksByPriority(Task.Priority.HIGH);
+                            service.getCategoryStatistics();
+                        }
+                        return null;
+                    }));
+                }
+                // Каждая правка + чтение списка - догонка по журналу с изменением кэша
+                for (long id = 1; id <= 200; id++) {
+                    Task task = new Task("Правка " + id, "", LocalDate.now().plusDays(id % 7), Task.Priority.LOW, "Дом");
+                    task.setId(id);
+                    service.update(task);
+                    service.findAllSummaries();
+                }
+                running.set(false);
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                running.set(false);
+                readers.shutdownNow();
+            }
+            assertEquals(200, service.findTasksByCategory("Дом").size());
+        } finally {
+            pool.closeAllConnections();
+        }
+    }
+
     @Test
     @DisplayName("Service: Тест с пустой базой данных")
     void testEmptyDatabase() {
@@ -252,7 +513,7 @@ class TaskServiceTest {
         assertEquals(0, taskService.getTodayTaskCount());
     }
 
-    private static class InMemoryTaskDao implements TaskDao {
+    static class InMemoryTaskDao implements TaskDao {
         private final java.util.List<Task> tasks = new java.util.ArrayList<>();
         private long nextId = 1;
 
@@ -282,6 +543,34 @@ class TaskServiceTest {
             return tasks.removeIf(task -> task.getId().equals(id));
         }
 
+        @Override
+        public Task upsert(Task task) {
+            if (task.getId() != null && update(task)) {
+                return task;
+            }
+            task.setId(null);
+            save(task);
+            return task;
+        }
+
+        @Override
+        public java.util.List<Task> upsertAll(java.util.List<Task> tasks) {
+            java.util.List<Task> stored = new java.util.ArrayList<>();
+            for (Task task : tasks) {
+                stored.add(upsert(task));
+            }
+            return stored;
+        }
+
+        @Override
+        public java.util.List<Task> findByIds(java.util.Collection<Long> ids) {
+            java.util.List<Task> result = new java.util.ArrayList<>();
+            for (Long id : new java.util.LinkedHashSet<>(ids)) {
+                findById(id).ifPresent(result::add);
+            }
+            return result;
+        }
+
         @Override
         public java.util.Optional<Task> findById(Long id) {
             return tasks.stream()
@@ -294,6 +583,16 @@ class TaskServiceTest {
             return new java.util.ArrayList<>(tasks);
         }
 
+        @Override
+        public List<Task> findAllSummaries() {
+            return new java.util.ArrayList<>(tasks);
+        }
+
+        @Override
+        public java.util.Optional<String> findDescription(Long id) {
+            return findById(id).map(Task::getDescription);
+        }
+
         @Override
         public java.util.List<Task> findByCompleted(boolean completed) {
             return tasks.stream()
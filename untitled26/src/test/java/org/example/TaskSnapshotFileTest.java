@@ -0,0 +1,60 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws Exception {
+        Task first = new Task("Первая", null, LocalDate.of(2025, 5, 1), Task.Priority.HIGH, "Работа");
+        first.setId(1L);
+        Task second = new Task("Second", null, LocalDate.of(2025, 5, 2), Task.Priority.LOW, null);
+        second.setId(2L);
+        second.setCompleted(true);
+        Task third = new Task("Third", null, LocalDate.of(2025, 5, 3), Task.Priority.MEDIUM, "Работа");
+        third.setId(3L);
+
+        Path file = tempDir.resolve("tasks.snapshot");
+        TaskSnapshotFile.write(file, new TaskSnapshotFile.Snapshot(List.of(first, second, third), 42));
+
+        TaskSnapshotFile.Snapshot snapshot = TaskSnapshotFile.read(file);
+        assertNotNull(snapshot);
+        assertEquals(42, snapshot.getChangeSeq());
+
+        List<Task> tasks = snapshot.getTasks();
+        assertEquals(3, tasks.size());
+        assertEquals("Первая", tasks.get(0).getTitle());
+        assertEquals(LocalDate.of(2025, 5, 1), tasks.get(0).getDueDate());
+        assertEquals(Task.Priority.HIGH, tasks.get(0).getPriority());
+        assertNull(tasks.get(1).getCategory());
+        assertTrue(tasks.get(1).isCompleted());
+        assertSame(tasks.get(0).getCategory(), tasks.get(2).getCategory());
+    }
+
+    @Test
+    void testMissingOrCorruptedSnapshotIsIgnored() throws Exception {
+        Path file = tempDir.resolve("tasks.snapshot");
+        assertNull(TaskSnapshotFile.read(file));
+
+        Task task = new Task("Task", null, LocalDate.now(), Task.Priority.MEDIUM, "Test");
+        task.setId(7L);
+        TaskSnapshotFile.write(file, new TaskSnapshotFile.Snapshot(List.of(task), 1));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(file, bytes);
+
+        assertNull(TaskSnapshotFile.read(file));
+    }
+}
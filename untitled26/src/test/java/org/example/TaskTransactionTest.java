@@ -0,0 +1,167 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTransactionTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private TaskDao dao;
+    private TaskService service;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + dir.resolve("transaction.db"), 3);
+        new DatabaseInitializer(pool).initializeDatabase();
+        dao = new TaskDaoImpl(pool);
+        service = new TaskService(dao);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+    }
+
+    private static Task task(String title) {
+        return new Task(title, "Описание", LocalDate.now().plusDays(1), Task.Priority.MEDIUM, "Работа");
+    }
+
+    @Test
+    void testCommitAppliesAllChangesAtOnce() {
+        Long existing = service.save(task("Старая"));
+        Long[] followUp = new Long[1];
+
+        service.inTransaction(tx -> {
+            assertTrue(tx.markAsCompleted(existing));
+            followUp[0] = tx.save(task("Продолжение"));
+            Task recategorized = tx.findById(followUp[0]).orElseThrow();
+            recategorized.setCategory("Дом");
+            assertTrue(tx.update(recategorized));
+
+            // Другой поток на другом соединении не видит незафиксированных изменений
+            long seenByOthers = CompletableFuture.supplyAsync(dao::getTaskCount).join();
+            assertEquals(1, seenByOthers);
+            return null;
+        });
+
+        assertTrue(dao.findById(existing).orElseThrow().isCompleted());
+        assertEquals("Дом", dao.findById(followUp[0]).orElseThrow().getCategory());
+        assertFalse(pool.isInTransaction());
+    }
+
+    @Test
+    void testExceptionRollsBackEverything() {
+        Long existing = service.save(task("Старая"));
+        int idleBefore = pool.getAvailableConnectionsCount();
+
+        assertThrows(IllegalStateException.class, () -> service.inTransaction(tx -> {
+            tx.delete(existing);
+            tx.save(task("Новая"));
+            throw new IllegalStateException("отмена");
+        }));
+
+        assertTrue(dao.findById(existing).isPresent());
+        assertEquals(1, dao.getTaskCount());
+        assertEquals(idleBefore, pool.getAvailableConnectionsCount(), "соединение вернулось в пул");
+    }
+
+    @Test
+    void testFailedStatementRollsBackEarlierWrites() {
+        Long existing = service.save(task("Старая"));
+        service.findAllSummaries();
+
+        Task broken = task(null);
+        broken.setId(existing);
+        // title NOT NULL: update падает на середине работы
+        assertThrows(RuntimeException.class, () -> service.inTransaction(tx -> {
+            tx.save(task("Новая"));
+            tx.markAsCompleted(existing);
+            tx.update(broken);
+            return null;
+        }));
+
+        assertEquals(1, dao.getTaskCount());
+        assertFalse(dao.findById(existing).orElseThrow().isCompleted());
+        assertFalse(pool.isInTransaction());
+    }
+
+    @Test
+    void testSummariesReadInsideTransactionAreNotPublished() {
+        service.save(task("Старая"));
+        assertEquals(1, service.findAllSummaries().size());
+
+        assertThrows(IllegalStateException.class, () -> service.inTransaction(tx -> {
+            tx.save(task("Откатится"));
+            assertEquals(2, service.findAllSummaries().size(), "своя запись видна внутри транзакции");
+            throw new IllegalStateException("отмена");
+        }));
+        // После отката номер журнала выдаётся заново: эта запись не должна казаться уже учтённой
+        service.save(task("После отката"));
+
+        assertEquals(List.of("После отката", "Старая"),
+                service.findAllSummaries().stream().map(Task::getTitle).sorted().toList());
+    }
+
+    @Test
+    void testNestedTransactionRollsBackToSavepoint() {
+        long count = service.inTransaction(tx -> {
+            tx.save(task("Внешняя"));
+            assertThrows(IllegalStateException.class, () -> service.inTransaction(inner -> {
+                inner.save(task("Внутренняя"));
+                throw new IllegalStateException("отмена вложенной");
+            }));
+            service.inTransaction(inner -> inner.save(task("Вторая внутренняя")));
+            return dao.getTaskCount();
+        });
+
+        assertEquals(2, count);
+        assertEquals(2, dao.getTaskCount());
+    }
+
+    @Test
+    void testCacheSeesChangesOnlyAfterCommit() {
+        Long id = service.save(task("До"));
+        assertEquals("До", service.findById(id).getTitle());
+
+        Task upserted = service.inTransaction(tx -> {
+            Task changed = tx.findById(id).orElseThrow();
+            changed.setTitle("После");
+            Task stored = tx.upsert(changed);
+            assertEquals("До", service.getTaskCache().get(id).title(), "кэш не меняется до фиксации");
+            return stored;
+        });
+
+        long missesBefore = service.getTaskCache().getMissCount();
+        assertEquals("После", upserted.getTitle());
+        assertEquals("После", service.findById(id).getTitle());
+        assertEquals(missesBefore, service.getTaskCache().getMissCount(), "сохранённая строка попала в кэш без перечитывания");
+    }
+
+    @Test
+    void testUpsertAllInsideTransactionDoesNotCommitEarly() {
+        assertThrows(IllegalStateException.class, () -> service.inTransaction(tx -> {
+            tx.upsertAll(java.util.List.of(task("Первая"), task("Вторая")));
+            throw new IllegalStateException("отмена");
+        }));
+        assertEquals(0, dao.getTaskCount());
+    }
+
+    @Test
+    void testUnsupportedWithoutJdbcStorage() throws Exception {
+        try (JournaledTaskDao journaled = new JournaledTaskDao(dir.resolve("journal"))) {
+            TaskService journalService = new TaskService(journaled);
+            assertThrows(UnsupportedOperationException.class, () -> journalService.inTransaction(tx -> null));
+        }
+    }
+}
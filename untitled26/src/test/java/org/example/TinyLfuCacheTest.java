@@ -0,0 +1,76 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testGetAndPut() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10);
+
+        assertNull(cache.get(1L));
+        cache.put(1L, "one");
+        assertEquals("one", cache.get(1L));
+
+        cache.put(1L, "uno");
+        assertEquals("uno", cache.get(1L));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+
+        for (long i = 0; i < 10_000; i++) {
+            cache.put(i, "value " + i);
+        }
+
+        assertTrue(cache.size() <= 100, "размер: " + cache.size());
+        assertTrue(cache.getEvictionCount() >= 9_900);
+    }
+
+    @Test
+    void testFrequentKeysSurviveScan() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+
+        for (long i = 0; i < 50; i++) {
+            cache.put(i, "hot " + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (long i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+
+        // Однократный проход по большому количеству ключей не должен вытеснить горячие
+        for (long i = 1_000; i < 5_000; i++) {
+            cache.put(i, "cold " + i);
+        }
+
+        int survived = 0;
+        for (long i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                survived++;
+            }
+        }
+        assertTrue(survived >= 45, "выжило горячих ключей: " + survived);
+    }
+
+    @Test
+    void testInvalidate() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.invalidate(1L);
+        assertNull(cache.get(1L));
+        assertEquals("two", cache.get(2L));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}